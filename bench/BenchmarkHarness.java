@@ -0,0 +1,147 @@
+// BenchmarkHarness.java
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small JMH-style benchmark runner for the payroll code.
+ * 
+ * We can't pull JMH into this project (no dependencies allowed), so this does
+ * the important parts by hand: warmup iterations so the JIT settles, timed
+ * measurement iterations, a sink so the JIT can't drop the work, and a
+ * results table with mean and standard deviation per operation.
+ * 
+ * System.out is swapped for a null stream while benchmarks run, so code that
+ * prints (like FileHandler debugging output) pays its formatting cost but
+ * doesn't flood the console.
+ */
+public class BenchmarkHarness {
+    
+    /**
+     * One benchmark operation. Return something derived from the work so it
+     * can't be optimised away (booleans/ints can just be cast to double).
+     */
+    public interface Operation {
+        double run() throws Exception;
+    }
+    
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final PrintStream console;
+    private final List<String[]> results = new ArrayList<>();
+    private double sink; // Everything returned by an operation ends up here
+    
+    /**
+     * @param warmupIterations Iterations run and thrown away before measuring
+     * @param measurementIterations Iterations that count towards the result
+     * @param iterationMillis Target length of one iteration
+     */
+    public BenchmarkHarness(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+        this.console = System.out;
+    }
+    
+    /**
+     * Run one benchmark and record its result
+     * 
+     * @param name Benchmark name shown in the report
+     * @param operation Work for a single operation
+     */
+    public void run(String name, Operation operation) {
+        console.print("Running " + name + " ... ");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        double[] nanosPerOp = new double[measurementIterations];
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                runIteration(operation);
+            }
+            for (int i = 0; i < measurementIterations; i++) {
+                nanosPerOp[i] = runIteration(operation);
+            }
+        } catch (Exception e) {
+            System.setOut(console);
+            console.println("FAILED: " + e);
+            results.add(new String[] { name, "failed", "", "" });
+            return;
+        } finally {
+            System.setOut(console);
+        }
+        
+        double mean = 0.0;
+        for (double value : nanosPerOp) {
+            mean += value;
+        }
+        mean /= nanosPerOp.length;
+        double variance = 0.0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean);
+        }
+        double stdDev = nanosPerOp.length > 1 ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0.0;
+        
+        console.println(formatNanos(mean));
+        results.add(new String[] { name, formatNanos(mean), formatNanos(stdDev), String.format("%.1f", 1e9 / mean) });
+    }
+    
+    // Runs the operation repeatedly until the iteration time is used up, returns ns per op
+    private double runIteration(Operation operation) throws Exception {
+        long operations = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        int batch = 1;
+        do {
+            for (int i = 0; i < batch; i++) {
+                sink += operation.run();
+            }
+            operations += batch;
+            elapsed = System.nanoTime() - start;
+            if (batch < 1 << 16) {
+                batch <<= 1; // Check the clock less often once we know the op is cheap
+            }
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / operations;
+    }
+    
+    /**
+     * Print the results table and also write it to a file
+     * 
+     * @param outputFile File to write the table to (null to skip)
+     */
+    public void report(String outputFile) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-48s  %14s  %14s  %14s%n", "Benchmark", "Mean/op", "StdDev", "Ops/s"));
+        table.append(String.format("%-48s  %14s  %14s  %14s%n", "---------", "-------", "------", "-----"));
+        for (String[] row : results) {
+            table.append(String.format("%-48s  %14s  %14s  %14s%n", row[0], row[1], row[2], row[3]));
+        }
+        table.append("(sink: ").append(sink).append(")").append(System.lineSeparator());
+        
+        console.println();
+        console.print(table);
+        
+        if (outputFile != null) {
+            try (PrintWriter writer = new PrintWriter(new FileWriter(outputFile))) {
+                writer.print(table);
+            } catch (IOException e) {
+                console.println("Error writing benchmark results: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static String formatNanos(double nanos) {
+        if (nanos >= 1e9) {
+            return String.format("%.3f s", nanos / 1e9);
+        } else if (nanos >= 1e6) {
+            return String.format("%.3f ms", nanos / 1e6);
+        } else if (nanos >= 1e3) {
+            return String.format("%.3f us", nanos / 1e3);
+        }
+        return String.format("%.1f ns", nanos);
+    }
+}
@@ -0,0 +1,132 @@
+// PayrollBenchmarks.java
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmark suite for the payroll hot paths: time parsing, weekly aggregation,
+ * statutory deductions (compiled schedules vs the old ladders), attendance
+ * file reads and a full employee-week.
+ * 
+ * Run with "ant bench". Settings (all optional, passed as -D properties):
+ *   bench.sizes       employee counts for the file/batch benchmarks (default 1000,10000,100000)
+ *   bench.warmup      warmup iterations (default 3)
+ *   bench.iterations  measurement iterations (default 5)
+ *   bench.time        milliseconds per iteration (default 1000)
+ *   bench.seed        seed for the synthetic data (default 15)
+ *   bench.output      results file (default bench_output.txt)
+ */
+public class PayrollBenchmarks {
+    
+    public static void main(String[] args) throws Exception {
+        String[] sizes = System.getProperty("bench.sizes", "1000,10000,100000").split(",");
+        long seed = Long.getLong("bench.seed", 15L);
+        BenchmarkHarness harness = new BenchmarkHarness(
+            Integer.getInteger("bench.warmup", 3),
+            Integer.getInteger("bench.iterations", 5),
+            Long.getLong("bench.time", 1000L));
+        
+        SyntheticData data = new SyntheticData(seed);
+        
+        // Time parsing - a rotating set of strings so branch prediction can't cheat
+        String[] times = new String[1024];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = (i % 2 == 0) ? data.timeIn() : data.timeOut();
+        }
+        int[] cursor = new int[1];
+        harness.run("time.parseMinuteOfDay", () ->
+            TimeKeeping.parseMinuteOfDay(times[cursor[0]++ & 1023]));
+        harness.run("time.newTimeKeeping", () -> {
+            int i = cursor[0]++ & 1022;
+            return new TimeKeeping("10001", "Mon", times[i], times[i + 1]).getTimeOutMinutes();
+        });
+        
+        // All daily metrics on one already-parsed day
+        TimeKeeping day = new TimeKeeping("10001", "Mon", "8:15", "18:20");
+        harness.run("time.dailyMetrics", () ->
+            day.calculateDailyHours() + day.calculateRegularHours() + day.calculateOvertimeHours()
+            + day.calculateLateMinutes() + day.calculateUndertimeMinutes() + (day.isLateForDeduction() ? 1 : 0));
+        
+        // Weekly aggregation over five days
+        List<TimeKeeping> weekRecords = data.week("10001");
+        harness.run("weekly.aggregateAll", () -> {
+            WeeklyAttendance week = new WeeklyAttendance("10001", "06/03/2024");
+            for (TimeKeeping record : weekRecords) {
+                week.addDailyAttendance(record);
+            }
+            return week.calculateWeeklyHours() + week.calculateRegularHours() + week.calculateOvertimeHours()
+                + week.getTotalLateMinutes() + week.getDeductibleLateMinutes() + week.getTotalUndertimeMinutes();
+        });
+        
+        // Statutory deductions across the whole salary range
+        PayrollCalculator calculator = new PayrollCalculator();
+        double[] salaries = new double[1024];
+        for (int i = 0; i < salaries.length; i++) {
+            salaries[i] = 500.0 + i * 45.0; // weekly gross from 500 to ~46,500
+        }
+        harness.run("statutory.sss", () -> calculator.calculateSSS(salaries[cursor[0]++ & 1023]));
+        harness.run("statutory.philHealth", () -> calculator.calculatePhilHealth(salaries[cursor[0]++ & 1023]));
+        harness.run("statutory.pagIbig", () -> calculator.calculatePagIbig(salaries[cursor[0]++ & 1023]));
+        harness.run("statutory.tax", () -> calculator.calculateTax(salaries[cursor[0]++ & 1023]));
+        
+        // Same inputs through the old hardcoded ladders - the compiled schedules should be no slower
+        harness.run("statutory.legacy.philHealth", () ->
+            LegacyStatutoryRules.calculateMonthlyPhilHealth(salaries[cursor[0]++ & 1023] * 4));
+        harness.run("statutory.legacy.pagIbig", () ->
+            LegacyStatutoryRules.calculateMonthlyPagIbig(salaries[cursor[0]++ & 1023] * 4));
+        harness.run("statutory.legacy.tax", () ->
+            LegacyStatutoryRules.calculateMonthlyTax(salaries[cursor[0]++ & 1023] * 4) / 4);
+        
+        // Picking the rule version for a week (memoised per week start)
+        StatutoryRuleEngine rules = StatutoryRuleEngine.getDefault();
+        String[] weekStarts = { "06/03/2024", "06/10/2024", "06/17/2024", "06/24/2024" };
+        harness.run("statutory.calculatorForWeek", () ->
+            rules.calculatorForWeek(weekStarts[cursor[0]++ & 3]).calculateTax(salaries[cursor[0] & 1023]));
+        harness.run("payroll.calculatePayrollResult", () ->
+            calculator.calculatePayrollResult(40.0, (cursor[0]++ & 7), 357.14, (cursor[0] & 1) == 0, true).getNetPay());
+        
+        // End-to-end for a single employee-week from loaded records
+        Employee employee = data.employees(1).get(0);
+        PayrollBatchRunner runner = new PayrollBatchRunner();
+        harness.run("endToEnd.employeeWeek", () ->
+            runner.computeEntry(employee, "06/03/2024", weekRecords).getNetPay());
+        
+        // File reads and whole-week batches at each data size
+        Path tempDir = Files.createTempDirectory("motorph-bench");
+        try {
+            for (String sizeText : sizes) {
+                int size = Integer.parseInt(sizeText.trim());
+                List<Employee> employees = data.employees(size);
+                Path file = tempDir.resolve("attendance_" + size + ".txt");
+                data.writeAttendanceFile(file, employees);
+                String filePath = file.toString();
+                String lastEmployeeId = employees.get(size - 1).getEmployeeNumber();
+                
+                harness.run("file.readAttendanceRecords[" + size + "]", () ->
+                    FileHandler.readAttendanceRecords(filePath, lastEmployeeId).length);
+                harness.run("file.mappedReadRecords[" + size + "]", () ->
+                    MappedAttendanceReader.readRecords(filePath, lastEmployeeId).length);
+                harness.run("file.readAllAttendanceRecords[" + size + "]", () ->
+                    FileHandler.readAllAttendanceRecords(filePath).size());
+                harness.run("endToEnd.weekBatch[" + size + "]", () -> {
+                    Map<String, List<TimeKeeping>> recordsByEmployee = FileHandler.readAllAttendanceRecords(filePath);
+                    PayrollResultBatch batch = new PayrollResultBatch(size);
+                    for (Employee emp : employees) {
+                        List<TimeKeeping> records = recordsByEmployee.get(emp.getEmployeeNumber());
+                        if (records != null) {
+                            runner.computeInto(batch, emp, "06/03/2024", records);
+                        }
+                    }
+                    return batch.getTotalNetPay();
+                });
+                
+                Files.delete(file);
+            }
+        } finally {
+            Files.deleteIfExists(tempDir);
+        }
+        
+        harness.report(System.getProperty("bench.output", "bench_output.txt"));
+    }
+}
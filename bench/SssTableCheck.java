@@ -0,0 +1,91 @@
+// SssTableCheck.java
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that SssContributionTable gives exactly what the old SSS if/else
+ * ladder gave (LegacyStatutoryRules.calculateMonthlySSS).
+ * 
+ * Compares, for the built-in table and for sss_contribution_table.txt:
+ *   - every centavo of monthly salary from 0 to 5,000 pesos above the top bracket
+ *   - every bracket edge, and one centavo either side of it
+ *   - every centavo of weekly salary through PayrollCalculator.calculateSSS
+ *     (the x4 to monthly is where rounding could sneak in)
+ *   - negatives, NaN and the infinities
+ * 
+ * Run with "ant sss-check" (from the project folder, so the table file is found).
+ * Exits with 1 and lists the first mismatches if anything differs.
+ */
+public class SssTableCheck {
+    // Bracket edges of the old ladder: 3,250 then every 500 up to 24,750
+    private static final double FIRST_EDGE = 3250.0;
+    private static final double EDGE_STEP = 500.0;
+    private static final int EDGE_COUNT = 44;
+    private static final double TOP_EDGE = FIRST_EDGE + EDGE_STEP * (EDGE_COUNT - 1);
+    
+    private static final int MAX_REPORTED = 20;
+    
+    private final List<String> mismatches = new ArrayList<>();
+    private long comparisons;
+    
+    public static void main(String[] args) {
+        SssTableCheck check = new SssTableCheck();
+        check.checkTable("built-in table", SssContributionTable.builtIn());
+        check.checkTable(SssContributionTable.SSS_TABLE_FILE, SssContributionTable.loadDefault());
+        
+        if (check.mismatches.isEmpty()) {
+            System.out.println("SSS table matches the old ladder (" + check.comparisons + " salaries compared)");
+            return;
+        }
+        System.out.println("SSS table differs from the old ladder at " + check.mismatches.size() + " salaries:");
+        for (int i = 0; i < Math.min(MAX_REPORTED, check.mismatches.size()); i++) {
+            System.out.println("  " + check.mismatches.get(i));
+        }
+        System.exit(1);
+    }
+    
+    private void checkTable(String name, SssContributionTable table) {
+        // Every centavo - counting in whole centavos so the salaries don't drift
+        long topCentavos = (long) ((TOP_EDGE + 5000.0) * 100);
+        for (long centavos = 0; centavos <= topCentavos; centavos++) {
+            compare(name, table, centavos / 100.0);
+        }
+        
+        // Edges and one centavo either side
+        for (int i = 0; i < EDGE_COUNT; i++) {
+            double edge = FIRST_EDGE + EDGE_STEP * i;
+            compare(name, table, edge - 0.01);
+            compare(name, table, edge);
+            compare(name, table, edge + 0.01);
+            compare(name, table, Math.nextDown(edge));
+        }
+        
+        double[] odd = { -0.01, -1000.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE };
+        for (double salary : odd) {
+            compare(name, table, salary);
+        }
+        
+        // Weekly salaries the way payroll sees them
+        StatutorySchedule schedule = StatutorySchedule.builtIn(table);
+        PayrollCalculator calculator = new PayrollCalculator(schedule);
+        long topWeeklyCentavos = (long) ((TOP_EDGE + 5000.0) * 100 / 4);
+        for (long centavos = 0; centavos <= topWeeklyCentavos; centavos++) {
+            double weekly = centavos / 100.0;
+            double expected = LegacyStatutoryRules.calculateMonthlySSS(weekly * 4);
+            double actual = calculator.calculateSSS(weekly);
+            comparisons++;
+            if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+                mismatches.add(name + " via PayrollCalculator, weekly " + weekly + ": expected " + expected + ", got " + actual);
+            }
+        }
+    }
+    
+    private void compare(String name, SssContributionTable table, double monthlySalary) {
+        double expected = LegacyStatutoryRules.calculateMonthlySSS(monthlySalary);
+        double actual = table.lookup(monthlySalary);
+        comparisons++;
+        if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+            mismatches.add(name + ", monthly " + monthlySalary + ": expected " + expected + ", got " + actual);
+        }
+    }
+}
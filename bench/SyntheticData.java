@@ -0,0 +1,89 @@
+// SyntheticData.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates fake employees and attendance rows for the benchmarks.
+ * Everything is driven by a fixed seed so two runs see exactly the same data.
+ */
+public class SyntheticData {
+    private static final String[] DAYS = { "Mon", "Tue", "Wed", "Thu", "Fri" };
+    
+    private final SplittableRandom random;
+    
+    public SyntheticData(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+    
+    /**
+     * Create employees with IDs 10001, 10002, ... and rates between 300 and 600 PHP/hour
+     * 
+     * @param count Number of employees
+     * @return Generated employees
+     */
+    public List<Employee> employees(int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = new Employee(String.valueOf(10001 + i), "Last" + i, "First" + i, "01/01/1990");
+            employee.setHourlyRate(300.0 + random.nextInt(30001) / 100.0);
+            employees.add(employee);
+        }
+        return employees;
+    }
+    
+    /**
+     * One random H:mm time between two minute-of-day values
+     */
+    public String time(int fromMinute, int toMinute) {
+        int minute = fromMinute + random.nextInt(toMinute - fromMinute + 1);
+        int minutes = minute % 60;
+        return (minute / 60) + ":" + (minutes < 10 ? "0" : "") + minutes;
+    }
+    
+    /**
+     * Time in - mostly around 8:00 with a tail of late arrivals
+     */
+    public String timeIn() {
+        return random.nextInt(4) == 0 ? time(8 * 60 + 11, 10 * 60 + 30) : time(7 * 60 + 30, 8 * 60 + 10);
+    }
+    
+    /**
+     * Time out - between 4:30pm and 8:00pm
+     */
+    public String timeOut() {
+        return time(16 * 60 + 30, 20 * 60);
+    }
+    
+    /**
+     * A Monday-to-Friday week of attendance for one employee
+     */
+    public List<TimeKeeping> week(String employeeId) {
+        List<TimeKeeping> records = new ArrayList<>(DAYS.length);
+        for (String day : DAYS) {
+            records.add(new TimeKeeping(employeeId, day, timeIn(), timeOut()));
+        }
+        return records;
+    }
+    
+    /**
+     * Write a weekly attendance file (same format as attendance_MM_DD_YYYY.txt)
+     * 
+     * @param file Where to write
+     * @param employees Employees to include - five rows each
+     */
+    public void writeAttendanceFile(Path file, List<Employee> employees) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Employee employee : employees) {
+                for (String day : DAYS) {
+                    writer.write(employee.getEmployeeNumber() + "," + day + "," + timeIn() + "," + timeOut());
+                    writer.newLine();
+                }
+            }
+        }
+    }
+}
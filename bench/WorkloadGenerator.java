@@ -0,0 +1,267 @@
+// WorkloadGenerator.java
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a full synthetic data set - employee_data.txt plus one
+ * attendance_MM_DD_YYYY.txt per week - for load testing the loaders and
+ * calculators at realistic sizes (1k up to 1M employees).
+ * 
+ * Usage (or "ant workload -Dworkload.args=..."):
+ *   java WorkloadGenerator [--employees N] [--from MM/dd/yyyy] [--to MM/dd/yyyy]
+ *                          [--seed S] [--dir DIR] [--late P] [--overtime P]
+ *                          [--absent P] [--malformed P]
+ * 
+ * Defaults: 1000 employees, 06/03/2024 to 12/30/2024, seed 15, current
+ * directory, 20% late arrivals, 30% overtime days, 3% absences and 0.1%
+ * malformed rows.
+ * 
+ * Everything is deterministic from the seed. Each week gets its own random
+ * stream (seed mixed with the week number) and each employee a fixed
+ * "habit" multiplier, so regenerating a single week or a different week
+ * range gives the same rows for the weeks that overlap.
+ * 
+ * Distributions (per employee-day, before the habit multiplier):
+ *   - on time: arrives 7:30-8:10 (inside the grace period)
+ *   - late: arrives after 8:10, mostly within half an hour with a tail to 11:00
+ *   - overtime: leaves 17:30-21:30, otherwise 16:45-17:30
+ *   - absent: no row at all
+ *   - malformed: missing fields, bad times, junk text or blank lines,
+ *     the kinds of rows FileHandler counts as malformed or invalid
+ */
+public class WorkloadGenerator {
+    private static final String[] DAYS = { "Mon", "Tue", "Wed", "Thu", "Fri" };
+    private static final String[] LAST_NAMES = {
+        "Garcia", "Lim", "Aquino", "Reyes", "Hernandez", "Villanueva", "San Jose", "Romualdez", "Atienza",
+        "Alvaro", "Salcedo", "Lopez", "Farala", "Martinez", "Romero", "Mata", "De Leon", "Gonzales",
+        "Rosario", "Bautista", "Lazaro", "Delos Santos", "Santos", "Del Rosario", "Tolentino", "Mendoza"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Manuel III", "Antonio", "Bianca Sofia", "Isabella", "Eduard", "Andrea Mae", "Brad", "Alice",
+        "Rosie", "Roderick", "Anthony", "Josie", "Martha", "Leila", "Fredrick", "Christian", "Selena",
+        "Allison", "Cydney", "Mark", "Darlene", "Kolby", "Vella", "Tomas", "Jacklyn", "Percival"
+    };
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    
+    private int employeeCount = 1000;
+    private String fromDate = "06/03/2024";
+    private String toDate = "12/30/2024";
+    private long seed = 15L;
+    private File outputDir = new File(".");
+    private double lateRate = 0.20;
+    private double overtimeRate = 0.30;
+    private double absentRate = 0.03;
+    private double malformedRate = 0.001;
+    
+    // Per-employee habit, 0.25x to 2x the base late/overtime/absent rates
+    private float[] habits;
+    
+    public static void main(String[] args) throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        try {
+            generator.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: java WorkloadGenerator [--employees N] [--from MM/dd/yyyy] [--to MM/dd/yyyy]");
+            System.err.println("                              [--seed S] [--dir DIR] [--late P] [--overtime P] [--absent P] [--malformed P]");
+            System.exit(2);
+        }
+        generator.generate();
+    }
+    
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            String value = args[++i];
+            try {
+                switch (option) {
+                    case "--employees":
+                        employeeCount = Integer.parseInt(value);
+                        break;
+                    case "--from":
+                        fromDate = value;
+                        break;
+                    case "--to":
+                        toDate = value;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--dir":
+                        outputDir = new File(value);
+                        break;
+                    case "--late":
+                        lateRate = parseRate(value);
+                        break;
+                    case "--overtime":
+                        overtimeRate = parseRate(value);
+                        break;
+                    case "--absent":
+                        absentRate = parseRate(value);
+                        break;
+                    case "--malformed":
+                        malformedRate = parseRate(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + option);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad number '" + value + "' for " + option);
+            }
+        }
+        if (employeeCount < 1) {
+            throw new IllegalArgumentException("--employees must be at least 1");
+        }
+    }
+    
+    private static double parseRate(String value) {
+        double rate = Double.parseDouble(value);
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rates are fractions between 0 and 1, got " + value);
+        }
+        return rate;
+    }
+    
+    /**
+     * Write the employee file and every weekly attendance file
+     */
+    public void generate() throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Could not create " + outputDir);
+        }
+        PayCalendar calendar = PayCalendar.of(fromDate, toDate);
+        long startTime = System.nanoTime();
+        
+        writeEmployees(new File(outputDir, "employee_data.txt"));
+        System.out.println("Wrote " + employeeCount + " employees to " + new File(outputDir, "employee_data.txt"));
+        
+        long totalRows = 0;
+        for (String weekStart : calendar.getWeekStartDates()) {
+            File file = new File(outputDir, calendar.getAttendanceFilePath(weekStart));
+            long rows = writeWeek(file, calendar.getWeekStart(weekStart));
+            totalRows += rows;
+            System.out.println("Wrote " + rows + " rows to " + file);
+        }
+        
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println("Generated " + calendar.getWeekStartDates().size() + " weeks, " + totalRows
+                           + " attendance rows in " + elapsedMillis + " ms (seed " + seed + ")");
+    }
+    
+    // Employees 10001, 10002, ... with rates in the same bands as the real file
+    private void writeEmployees(File file) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        habits = new float[employeeCount];
+        StringBuilder line = new StringBuilder(96);
+        try (Writer writer = openWriter(file)) {
+            for (int i = 0; i < employeeCount; i++) {
+                habits[i] = (float) (0.25 + random.nextDouble() * 1.75);
+                
+                // Most staff are rank and file, a few supervisors and managers
+                int band = random.nextInt(100);
+                double hourlyRate = band < 70 ? 133.93 + random.nextInt(5000) / 100.0
+                                  : band < 95 ? 255.80 + random.nextInt(10000) / 100.0
+                                  : 357.14 + random.nextInt(17900) / 100.0;
+                
+                line.setLength(0);
+                line.append(10001 + i).append(',')
+                    .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]).append(',')
+                    .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(',');
+                appendTwoDigits(line, 1 + random.nextInt(12)).append('/');
+                appendTwoDigits(line, 1 + random.nextInt(28)).append('/');
+                line.append(1960 + random.nextInt(45)).append(',')
+                    .append(Math.round(hourlyRate * 100) / 100.0).append('\n');
+                writer.append(line);
+            }
+        }
+    }
+    
+    // One week for every employee, in employee order like the real files
+    private long writeWeek(File file, LocalDate weekStart) throws IOException {
+        // Fixed per-week stream so a week's rows don't depend on which other weeks were generated
+        SplittableRandom random = new SplittableRandom(seed * 31 + weekStart.toEpochDay());
+        StringBuilder line = new StringBuilder(64);
+        long rows = 0;
+        try (Writer writer = openWriter(file)) {
+            for (int i = 0; i < employeeCount; i++) {
+                int employeeId = 10001 + i;
+                double habit = habits[i];
+                for (String day : DAYS) {
+                    if (random.nextDouble() < absentRate * habit) {
+                        continue; // Absent - no row
+                    }
+                    line.setLength(0);
+                    if (random.nextDouble() < malformedRate) {
+                        appendMalformedRow(line, random, employeeId, day);
+                    } else {
+                        int timeIn = random.nextDouble() < lateRate * habit ? lateArrival(random)
+                                                                            : 7 * 60 + 30 + random.nextInt(41);
+                        int timeOut = random.nextDouble() < Math.min(1.0, overtimeRate * habit)
+                                      ? 17 * 60 + 30 + random.nextInt(241)
+                                      : 16 * 60 + 45 + random.nextInt(46);
+                        line.append(employeeId).append(',').append(day).append(',');
+                        appendTime(line, timeIn).append(',');
+                        appendTime(line, timeOut);
+                    }
+                    line.append('\n');
+                    writer.append(line);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+    
+    // After the 8:10 grace period - mostly under half an hour late, some up to 11:00
+    private static int lateArrival(SplittableRandom random) {
+        int minutesLate = random.nextInt(4) == 0 ? 30 + random.nextInt(141) : 1 + random.nextInt(30);
+        return 8 * 60 + 10 + minutesLate;
+    }
+    
+    // The kinds of broken lines seen in exported timeclock files
+    private static void appendMalformedRow(StringBuilder line, SplittableRandom random, int employeeId, String day) {
+        switch (random.nextInt(5)) {
+            case 0: // Time out missing
+                line.append(employeeId).append(',').append(day).append(",8:00");
+                break;
+            case 1: // Impossible time
+                line.append(employeeId).append(',').append(day).append(",25:61,17:00");
+                break;
+            case 2: // Text where a time should be
+                line.append(employeeId).append(',').append(day).append(",N/A,17:00");
+                break;
+            case 3: // Junk line
+                line.append("#### timeclock export error ####");
+                break;
+            default: // Blank line
+                break;
+        }
+    }
+    
+    private static StringBuilder appendTime(StringBuilder line, int minuteOfDay) {
+        line.append(minuteOfDay / 60).append(':');
+        return appendTwoDigits(line, minuteOfDay % 60);
+    }
+    
+    private static StringBuilder appendTwoDigits(StringBuilder line, int value) {
+        if (value < 10) {
+            line.append('0');
+        }
+        return line.append(value);
+    }
+    
+    private static Writer openWriter(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8),
+                                  BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,90 @@
+// AtomicFileWriter.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rewrites a whole file so that readers (and the next run after a crash)
+ * see either the old contents or the new contents, never half of each.
+ * 
+ * Steps: write everything to "name.tmp" in the same directory, fsync it,
+ * rename it over the real file with an atomic move, then fsync the
+ * directory so the rename itself survives a power cut.
+ * 
+ * Used for the snapshot files (employee_data.txt, attendance_*.txt,
+ * login_credentials.txt). Small changes between snapshots go to the
+ * WriteAheadJournal instead.
+ */
+public final class AtomicFileWriter {
+    
+    /**
+     * Writes the new contents of a file
+     */
+    public interface Content {
+        void writeTo(Writer out) throws IOException;
+    }
+    
+    private AtomicFileWriter() {
+        // Static helper only
+    }
+    
+    /**
+     * Replace a file's contents atomically (UTF-8 text)
+     * 
+     * @param filePath File to replace (created if missing)
+     * @param content Writes the new contents
+     * @throws IOException If anything fails - the original file is left as it was
+     */
+    public static void write(String filePath, Content content) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Don't close the writer separately - closing the channel is enough once it's flushed
+            Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            content.writeTo(writer);
+            writer.flush();
+            channel.force(true); // Data on disk before the rename makes it visible
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Some network drives can't do it - a plain replace is still better than writing in place
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.getParent());
+    }
+    
+    /**
+     * Flush a directory entry to disk (so a rename or a new file isn't lost on a crash).
+     * Not possible on Windows, where opening a directory fails - the rename is
+     * still atomic there, just not guaranteed durable, so that's ignored.
+     * 
+     * @param directory Directory to sync
+     */
+    static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on this platform
+        }
+    }
+}
@@ -0,0 +1,139 @@
+// AttendanceIndex.java
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of weekly attendance files.
+ * 
+ * Each attendance_MM_DD_YYYY.txt file is parsed once into a map keyed by
+ * employee ID (one partition per weekly file), so looking up an employee
+ * is a hash lookup instead of a full file scan. A partition is thrown away
+ * and re-read when the file's modification time or size changes.
+ * 
+ * AttendanceWatcher calls reload() from the background as soon as a file
+ * lands, so by the time someone asks for the week it's usually parsed already.
+ * A reload builds the new partition on the side and swaps it in with one map
+ * put - readers keep the old one until then and never wait on a parse.
+ */
+public class AttendanceIndex {
+    // One partition per weekly file path - concurrent map so batch threads can share the index
+    private final Map<String, WeekPartition> partitions = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the attendance rows for one employee in one weekly file.
+     * 
+     * @param filePath Path to the weekly attendance file
+     * @param employeeId Employee ID to look up
+     * @return Rows for that employee (empty if none or if the file is missing)
+     * @throws IOException If the file has to be (re)loaded and can't be read
+     */
+    public List<TimeKeeping> getRecords(String filePath, String employeeId) throws IOException {
+        return getWeek(filePath).getOrDefault(employeeId, Collections.emptyList());
+    }
+    
+    /**
+     * Get every row of a weekly file grouped by employee ID.
+     * The returned map is read-only and shared, so callers must not change it.
+     * 
+     * @param filePath Path to the weekly attendance file
+     * @return Rows per employee ID (empty if the file is missing)
+     * @throws IOException If the file has to be (re)loaded and can't be read
+     */
+    public Map<String, List<TimeKeeping>> getWeek(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            partitions.remove(filePath); // File was deleted - forget what we had
+            return Collections.emptyMap();
+        }
+        
+        long lastModified = file.lastModified();
+        long length = file.length();
+        
+        WeekPartition partition = partitions.get(filePath);
+        if (partition == null || partition.lastModified != lastModified || partition.length != length) {
+            // First request or the file changed on disk - scan it once and cache the result
+            partition = load(filePath, lastModified, length);
+        }
+        
+        return partition.recordsByEmployee;
+    }
+    
+    /**
+     * Parse a weekly file now (if it changed since it was last read) so later
+     * lookups don't have to. Called by AttendanceWatcher's background threads.
+     * 
+     * @param filePath Path to the weekly attendance file
+     * @return true if the file was (re)parsed, false if the cached copy was current or the file is gone
+     * @throws IOException If the file can't be read
+     */
+    public boolean reload(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            partitions.remove(filePath);
+            return false;
+        }
+        long lastModified = file.lastModified();
+        long length = file.length();
+        WeekPartition partition = partitions.get(filePath);
+        if (partition != null && partition.lastModified == lastModified && partition.length == length) {
+            return false;
+        }
+        load(filePath, lastModified, length);
+        return true;
+    }
+    
+    // The stamp is taken before parsing, so a write that lands mid-parse leaves
+    // the partition looking stale and it gets read again next time
+    private WeekPartition load(String filePath, long lastModified, long length) throws IOException {
+        WeekPartition partition = new WeekPartition(lastModified, length,
+            Collections.unmodifiableMap(FileHandler.readAllAttendanceRecords(filePath)));
+        partitions.put(filePath, partition);
+        return partition;
+    }
+    
+    /**
+     * Whether a weekly file has been parsed (the copy may be out of date)
+     * 
+     * @param filePath Path to the weekly attendance file
+     * @return true if there is a cached partition for it
+     */
+    public boolean isLoaded(String filePath) {
+        return partitions.containsKey(filePath);
+    }
+    
+    /**
+     * Drop the cached partition for a file so the next lookup re-reads it
+     * 
+     * @param filePath Path to the weekly attendance file
+     */
+    public void invalidate(String filePath) {
+        partitions.remove(filePath);
+    }
+    
+    /**
+     * Drop every cached partition
+     */
+    public void clear() {
+        partitions.clear();
+    }
+    
+    /**
+     * Parsed contents of one weekly file plus the file stamp it was read from.
+     * Immutable so a reader never sees a half-built partition.
+     */
+    private static final class WeekPartition {
+        private final long lastModified;
+        private final long length;
+        private final Map<String, List<TimeKeeping>> recordsByEmployee;
+        
+        private WeekPartition(long lastModified, long length, Map<String, List<TimeKeeping>> recordsByEmployee) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.recordsByEmployee = recordsByEmployee;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+// AttendanceWatcher.java
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Watches the data directory and loads attendance_MM_DD_YYYY.txt files into
+ * the AttendanceIndex as soon as they are created or changed, so nobody has
+ * to pick the week first for it to be parsed.
+ * 
+ * One thread waits on the WatchService; the parsing happens on a small
+ * pool. A file that is still being written fires a burst of MODIFY events,
+ * so each one just pushes the file's load back a little (SETTLE_MILLIS) and
+ * only the last one does the work. New data is ready well within a second.
+ * 
+ * Files that are already there when the watcher starts are NOT loaded up
+ * front - with a year of weeks and a big workforce that would fill the heap
+ * at login. They are parsed on first use like before; the watcher only
+ * handles files created or changed after it started.
+ */
+public class AttendanceWatcher implements Closeable {
+    // Set to false to turn the watcher off, e.g. -Dmotorph.attendance.watch=false
+    public static final String WATCH_PROPERTY = "motorph.attendance.watch";
+    
+    private static final Pattern ATTENDANCE_FILE = Pattern.compile("attendance_\\d{2}_\\d{2}_\\d{4}\\.txt");
+    private static final long SETTLE_MILLIS = 100;
+    
+    private final String directory;
+    private final AttendanceIndex attendanceIndex;
+    private final WatchService watchService;
+    private final ScheduledExecutorService loaders;
+    private final Thread watchThread;
+    private final long startedMillis;
+    
+    // File path -> its latest scheduled load (cancelling one that already ran does nothing)
+    private final Map<String, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong loadCount = new AtomicLong();
+    
+    /**
+     * Start watching a directory
+     * 
+     * @param directory Directory with the weekly attendance files ("." for the working directory)
+     * @param attendanceIndex Index to load them into
+     * @param threads Number of parsing threads (at least 1)
+     * @throws IOException If the directory can't be watched
+     */
+    public AttendanceWatcher(String directory, AttendanceIndex attendanceIndex, int threads) throws IOException {
+        this.directory = directory;
+        this.attendanceIndex = attendanceIndex;
+        this.startedMillis = System.currentTimeMillis();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Paths.get(directory).register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                      StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.loaders = Executors.newScheduledThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "attendance-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true); // Never keeps the program running
+            return thread;
+        });
+        this.watchThread = new Thread(this::watchLoop, "attendance-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+    
+    /**
+     * Start a watcher on the working directory unless -Dmotorph.attendance.watch=false
+     * 
+     * @param attendanceIndex Index to keep loaded
+     * @return Running watcher, or null if it is turned off or couldn't start
+     */
+    public static AttendanceWatcher startIfEnabled(AttendanceIndex attendanceIndex) {
+        if (!Boolean.parseBoolean(System.getProperty(WATCH_PROPERTY, "true"))) {
+            return null;
+        }
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            return new AttendanceWatcher(".", attendanceIndex, threads);
+        } catch (IOException e) {
+            // Lookups still work, they just parse on first use like before
+            PayrollLog.warn("Could not watch for new attendance files: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Number of files parsed so far (files that hadn't changed aren't counted)
+     * @return Load count
+     */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+    
+    /**
+     * Stop watching. Loads already running finish; waiting ones are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close(); // Wakes the watch thread with ClosedWatchServiceException
+        loaders.shutdownNow();
+        try {
+            watchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Events were lost - reload what the index already holds and anything changed
+    // since the start, but still don't pull in the old weeks nobody asked for
+    private void rescan() {
+        File[] files = new File(directory).listFiles((dir, name) -> ATTENDANCE_FILE.matcher(name).matches());
+        if (files != null) {
+            for (File file : files) {
+                if (file.lastModified() >= startedMillis || attendanceIndex.isLoaded(filePath(file.getName()))) {
+                    schedule(file.getName(), 0);
+                }
+            }
+        }
+    }
+    
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (ClosedWatchServiceException | InterruptedException e) {
+                return; // close() was called
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    rescan();
+                    continue;
+                }
+                String fileName = ((Path) event.context()).getFileName().toString();
+                if (ATTENDANCE_FILE.matcher(fileName).matches()) {
+                    // Deletes go through the same path - reload() drops a missing file
+                    schedule(fileName, SETTLE_MILLIS);
+                }
+            }
+            if (!key.reset()) {
+                PayrollLog.warn("Attendance directory " + directory + " is no longer watched");
+                return;
+            }
+        }
+    }
+    
+    // Load the file after it has been quiet for delayMillis; a newer event replaces an older wait
+    private void schedule(String fileName, long delayMillis) {
+        try {
+            pending.compute(filePath(fileName), (path, waiting) -> {
+                if (waiting != null) {
+                    waiting.cancel(false);
+                }
+                return loaders.schedule(() -> load(path), delayMillis, TimeUnit.MILLISECONDS);
+            });
+        } catch (RejectedExecutionException e) {
+            // Closing
+        }
+    }
+    
+    private void load(String filePath) {
+        try {
+            if (attendanceIndex.reload(filePath)) {
+                loadCount.incrementAndGet();
+            }
+        } catch (IOException e) {
+            PayrollLog.warn("Could not load " + filePath + ": " + e.getMessage());
+        }
+    }
+    
+    // Same path the screens use, so the index has one partition per file
+    private String filePath(String fileName) {
+        return directory.equals(".") ? fileName : new File(directory, fileName).getPath();
+    }
+}
@@ -0,0 +1,343 @@
+// BinaryAttendanceStore.java
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary copy of a weekly attendance file.
+ * 
+ * compile() turns attendance_MM_DD_YYYY.txt into attendance_MM_DD_YYYY.bin once,
+ * and FileHandler loads the .bin instead of parsing CSV text whenever it is
+ * still in sync with the text file. The text file stays the source of truth -
+ * if it is edited, the .bin is simply ignored until it is compiled again.
+ * 
+ * File layout (big-endian, column by column so loading is a few bulk copies):
+ *   int   magic "MPHA", short version
+ *   long  text file length, long text file last-modified (to detect stale copies)
+ *   int   employee count E, int row count R
+ *   int[E]   employee IDs (rows are stored grouped by employee)
+ *   int[E]   number of rows for each employee
+ *   byte[R]  day of week (0 = Mon ... 6 = Sun)
+ *   short[R] time in, minutes since midnight
+ *   short[R] time out, minutes since midnight
+ * 
+ * A row takes 5 bytes instead of ~22 bytes of text.
+ */
+public class BinaryAttendanceStore {
+    private static final int MAGIC = 0x4D504841; // "MPHA"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 4 + 4;
+    private static final String[] DAY_NAMES = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+    
+    /**
+     * Binary file name for a text file, e.g. attendance_06_03_2024.txt -> attendance_06_03_2024.bin
+     * 
+     * @param textPath Path to the text attendance file
+     * @return Path of the matching binary file
+     */
+    public static String getBinaryPath(String textPath) {
+        if (textPath.endsWith(".txt")) {
+            return textPath.substring(0, textPath.length() - 4) + ".bin";
+        }
+        return textPath + ".bin";
+    }
+    
+    /**
+     * Check whether the binary copy exists and was compiled from the current text file
+     * (same length and modification time as recorded in its header)
+     * 
+     * @param textPath Path to the text attendance file
+     * @return true if the .bin can be used instead of the text
+     */
+    public static boolean isUpToDate(String textPath) {
+        File textFile = new File(textPath);
+        File binaryFile = new File(getBinaryPath(textPath));
+        if (!binaryFile.isFile() || !textFile.isFile() || binaryFile.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(binaryFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            return header.getInt() == MAGIC
+                && header.getShort() == VERSION
+                && header.getLong() == textFile.length()
+                && header.getLong() == textFile.lastModified();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Build the .bin file for one text attendance file.
+     * Only rows that convert back to exactly the same text are stored - if the
+     * file has IDs that aren't plain numbers, unknown day names or times that
+     * aren't in H:mm form, nothing is written and the text file keeps being used.
+     * 
+     * @param textPath Path to the text attendance file
+     * @return true if the binary file was written
+     * @throws IOException If reading or writing fails
+     */
+    public static boolean compile(String textPath) throws IOException {
+        File textFile = new File(textPath);
+        long textLength = textFile.length();
+        long textModified = textFile.lastModified();
+        Map<String, List<TimeKeeping>> recordsByEmployee = MappedAttendanceReader.readAll(textPath);
+        
+        int employeeCount = recordsByEmployee.size();
+        int rowCount = 0;
+        for (List<TimeKeeping> records : recordsByEmployee.values()) {
+            rowCount += records.size();
+        }
+        
+        int[] employeeIds = new int[employeeCount];
+        int[] rowsPerEmployee = new int[employeeCount];
+        byte[] days = new byte[rowCount];
+        short[] timesIn = new short[rowCount];
+        short[] timesOut = new short[rowCount];
+        
+        int employee = 0;
+        int row = 0;
+        for (Map.Entry<String, List<TimeKeeping>> entry : recordsByEmployee.entrySet()) {
+            Integer id = toEmployeeNumber(entry.getKey());
+            if (id == null) {
+                PayrollLog.warn("Not compiling " + textPath + ": employee ID '" + entry.getKey() + "' is not a plain number");
+                return false;
+            }
+            employeeIds[employee] = id;
+            rowsPerEmployee[employee] = entry.getValue().size();
+            employee++;
+            
+            for (TimeKeeping record : entry.getValue()) {
+                int day = dayIndex(record.getDate());
+                if (day < 0 || !storesExactly(record.getTimeIn(), record.getTimeInMinutes())
+                        || !storesExactly(record.getTimeOut(), record.getTimeOutMinutes())) {
+                    PayrollLog.warn("Not compiling " + textPath + ": row for " + entry.getKey() + " on '"
+                                    + record.getDate() + "' can't be stored in binary form");
+                    return false;
+                }
+                days[row] = (byte) day;
+                timesIn[row] = (short) record.getTimeInMinutes();
+                timesOut[row] = (short) record.getTimeOutMinutes();
+                row++;
+            }
+        }
+        
+        // Write to a temp file first and rename, so a crash never leaves a half-written .bin
+        Path binaryPath = Paths.get(getBinaryPath(textPath));
+        Path tempPath = Paths.get(getBinaryPath(textPath) + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempPath.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(textLength);
+            out.writeLong(textModified);
+            out.writeInt(employeeCount);
+            out.writeInt(rowCount);
+            for (int id : employeeIds) {
+                out.writeInt(id);
+            }
+            for (int count : rowsPerEmployee) {
+                out.writeInt(count);
+            }
+            out.write(days);
+            for (short time : timesIn) {
+                out.writeShort(time);
+            }
+            for (short time : timesOut) {
+                out.writeShort(time);
+            }
+        }
+        Files.move(tempPath, binaryPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+    
+    /**
+     * Compile every attendance_*.txt file in a directory
+     * 
+     * @param directory Folder with the attendance files
+     * @return Number of files compiled
+     */
+    public static int compileAll(String directory) {
+        File[] files = new File(directory).listFiles((dir, name) -> name.startsWith("attendance_") && name.endsWith(".txt"));
+        if (files == null) {
+            return 0;
+        }
+        int compiled = 0;
+        for (File file : files) {
+            try {
+                if (compile(file.getPath())) {
+                    compiled++;
+                }
+            } catch (IOException e) {
+                PayrollLog.error("Error compiling " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return compiled;
+    }
+    
+    /**
+     * Load every row from a binary file, grouped by employee ID
+     * 
+     * @param textPath Path to the text attendance file (the .bin next to it is read)
+     * @return Records per employee ID, in the same order as the text file
+     * @throws IOException If the binary file can't be read or is damaged
+     */
+    public static Map<String, List<TimeKeeping>> readAll(String textPath) throws IOException {
+        Columns columns = load(textPath);
+        Map<String, List<TimeKeeping>> recordsByEmployee = new LinkedHashMap<>(columns.employeeIds.length * 2);
+        
+        int row = 0;
+        for (int e = 0; e < columns.employeeIds.length; e++) {
+            String employeeId = String.valueOf(columns.employeeIds[e]);
+            int count = columns.rowsPerEmployee[e];
+            List<TimeKeeping> records = recordsByEmployee.computeIfAbsent(employeeId, key -> new ArrayList<>(count));
+            for (int i = 0; i < count; i++, row++) {
+                records.add(new TimeKeeping(employeeId, DAY_NAMES[columns.days[row]], columns.timesIn[row], columns.timesOut[row]));
+            }
+        }
+        
+        PayrollLog.count(PayrollLog.Counter.LINES_READ, row);
+        PayrollLog.count(PayrollLog.Counter.LINES_MATCHED, row);
+        return recordsByEmployee;
+    }
+    
+    /**
+     * Load the rows for one employee from a binary file
+     * 
+     * @param textPath Path to the text attendance file (the .bin next to it is read)
+     * @param employeeId Employee ID to look for
+     * @return Records for that employee, in file order
+     * @throws IOException If the binary file can't be read or is damaged
+     */
+    public static TimeKeeping[] readRecords(String textPath, String employeeId) throws IOException {
+        Integer wanted = toEmployeeNumber(employeeId);
+        Columns columns = load(textPath);
+        List<TimeKeeping> records = new ArrayList<>();
+        
+        int row = 0;
+        for (int e = 0; e < columns.employeeIds.length; e++) {
+            int count = columns.rowsPerEmployee[e];
+            if (wanted != null && columns.employeeIds[e] == wanted) {
+                for (int i = row; i < row + count; i++) {
+                    records.add(new TimeKeeping(employeeId, DAY_NAMES[columns.days[i]], columns.timesIn[i], columns.timesOut[i]));
+                }
+            }
+            row += count;
+        }
+        
+        PayrollLog.count(PayrollLog.Counter.LINES_READ, row);
+        PayrollLog.count(PayrollLog.Counter.LINES_MATCHED, records.size());
+        return records.toArray(new TimeKeeping[0]);
+    }
+    
+    // Reads the whole file and bulk-copies each column into its array
+    private static Columns load(String textPath) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Paths.get(getBinaryPath(textPath)), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Damaged binary attendance file for " + textPath);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read the whole file
+            }
+            buffer.flip();
+        }
+        
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+            throw new IOException("Not a binary attendance file: " + getBinaryPath(textPath));
+        }
+        buffer.getLong(); // text length - only used by isUpToDate
+        buffer.getLong(); // text last-modified
+        int employeeCount = buffer.getInt();
+        int rowCount = buffer.getInt();
+        long expectedSize = HEADER_SIZE + 8L * employeeCount + 5L * rowCount;
+        if (employeeCount < 0 || rowCount < 0 || buffer.limit() != expectedSize) {
+            throw new IOException("Damaged binary attendance file for " + textPath);
+        }
+        
+        Columns columns = new Columns(employeeCount, rowCount);
+        buffer.asIntBuffer().get(columns.employeeIds);
+        buffer.position(buffer.position() + 4 * employeeCount);
+        buffer.asIntBuffer().get(columns.rowsPerEmployee);
+        buffer.position(buffer.position() + 4 * employeeCount);
+        buffer.get(columns.days);
+        buffer.asShortBuffer().get(columns.timesIn);
+        buffer.position(buffer.position() + 2 * rowCount);
+        buffer.asShortBuffer().get(columns.timesOut);
+        
+        long total = 0;
+        for (int count : columns.rowsPerEmployee) {
+            total += count;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            if (columns.days[i] < 0 || columns.days[i] >= DAY_NAMES.length
+                    || columns.timesIn[i] < 0 || columns.timesIn[i] >= 1440
+                    || columns.timesOut[i] < 0 || columns.timesOut[i] >= 1440) {
+                throw new IOException("Damaged binary attendance file for " + textPath);
+            }
+        }
+        if (total != rowCount) {
+            throw new IOException("Damaged binary attendance file for " + textPath);
+        }
+        return columns;
+    }
+    
+    // Employee ID as an int, only if it converts back to exactly the same text
+    private static Integer toEmployeeNumber(String employeeId) {
+        try {
+            int id = Integer.parseInt(employeeId);
+            return String.valueOf(id).equals(employeeId) ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // 0 = Mon ... 6 = Sun, -1 for anything else (also used by PayPeriodEngine)
+    static int dayIndex(String day) {
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            if (DAY_NAMES[i].equals(day)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    // True if the minute value formats back to the original text (e.g. "08:05" doesn't)
+    private static boolean storesExactly(String text, int minutes) {
+        return minutes >= 0 && TimeKeeping.formatMinuteOfDay(minutes).equals(text);
+    }
+    
+    /** The decoded columns of one binary file */
+    private static final class Columns {
+        private final int[] employeeIds;
+        private final int[] rowsPerEmployee;
+        private final byte[] days;
+        private final short[] timesIn;
+        private final short[] timesOut;
+        
+        private Columns(int employeeCount, int rowCount) {
+            employeeIds = new int[employeeCount];
+            rowsPerEmployee = new int[employeeCount];
+            days = new byte[rowCount];
+            timesIn = new short[rowCount];
+            timesOut = new short[rowCount];
+        }
+    }
+}
@@ -0,0 +1,101 @@
+// ClockEvent.java
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+/**
+ * One tap at the time clock - an employee clocking in or out.
+ * 
+ * Text form (one per line, from the socket or a spool file):
+ *   employeeId,IN|OUT,MM/dd/yyyy,H:mm
+ *   e.g. 10001,IN,06/03/2024,8:05
+ */
+public final class ClockEvent {
+    
+    /** Clock-in or clock-out */
+    public enum Type { IN, OUT }
+    
+    private final String employeeId;
+    private final Type type;
+    private final LocalDate date;
+    private final int minuteOfDay;
+    
+    public ClockEvent(String employeeId, Type type, LocalDate date, int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= 24 * 60) {
+            throw new IllegalArgumentException("Not a minute of day: " + minuteOfDay);
+        }
+        this.employeeId = employeeId;
+        this.type = type;
+        this.date = date;
+        this.minuteOfDay = minuteOfDay;
+    }
+    
+    /**
+     * Parse one line of the text form
+     * 
+     * @param line Event text
+     * @return Parsed event, or null if the line isn't a valid event
+     */
+    public static ClockEvent parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 4) {
+            return null;
+        }
+        String employeeId = parts[0].trim();
+        String type = parts[1].trim().toUpperCase(Locale.ROOT);
+        if (employeeId.isEmpty() || !(type.equals("IN") || type.equals("OUT"))) {
+            return null;
+        }
+        int minuteOfDay = TimeKeeping.parseMinuteOfDay(parts[3].trim());
+        if (minuteOfDay == TimeKeeping.INVALID_TIME) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(parts[2].trim(), PayCalendar.DATE_FORMAT);
+            return new ClockEvent(employeeId, Type.valueOf(type), date, minuteOfDay);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    
+    public String getEmployeeId() {
+        return employeeId;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public int getMinuteOfDay() {
+        return minuteOfDay;
+    }
+    
+    /**
+     * Day name as used in the attendance files ("Mon", "Tue", ...)
+     * @return Short day name
+     */
+    public String getDayName() {
+        return date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.ENGLISH);
+    }
+    
+    /**
+     * Monday of the pay week this event falls in
+     * @return Week start in MM/dd/yyyy format
+     */
+    public String getWeekStartDate() {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).format(PayCalendar.DATE_FORMAT);
+    }
+    
+    @Override
+    public String toString() {
+        return employeeId + "," + type + "," + date.format(PayCalendar.DATE_FORMAT) + ","
+               + TimeKeeping.formatMinuteOfDay(minuteOfDay);
+    }
+}
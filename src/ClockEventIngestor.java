@@ -0,0 +1,388 @@
+// ClockEventIngestor.java
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Turns individual clock-in / clock-out events into attendance rows as they happen.
+ * 
+ * Any number of sources (ClockSocketSource, ClockSpoolSource, or plain
+ * submit calls) hand events to a lock-free MpscQueue. One consumer thread
+ * owns the per-employee "open day" state, so matching an OUT to its IN
+ * needs no locking at all:
+ * 
+ *   IN   opens the employee's day and is journalled as a clock-in (a second
+ *        IN before an OUT is ignored - people tap twice - and counted as a duplicate)
+ *   OUT  closes it into a TimeKeeping row, which is journalled and then
+ *        written into that week's attendance file
+ * 
+ * An OUT with no open IN on the same day is counted as unmatched and dropped.
+ * The consumer never waits for the journal's fsync (group commit batches
+ * those), so the 8:00 AM burst only costs a queue hop per event. Each submit
+ * hands back a future that completes once the event is on disk, which is
+ * when the sources tell the clock "OK". On a restart the clock-ins that were
+ * still open come back from the journal.
+ * 
+ * Completed rows are written into the weekly files by a publisher thread
+ * every PUBLISH_MILLIS, one rewrite per week for everything that came in,
+ * so the screens and batch runs (and AttendanceWatcher in other processes)
+ * see them without waiting for --apply-journal. The journal still has every
+ * row, so a failed or missed write is fixed by the next checkpoint.
+ */
+public class ClockEventIngestor implements Closeable {
+    private static final long IDLE_PARK_NANOS = 200_000; // 0.2 ms nap when the queue is empty
+    private static final long PUBLISH_MILLIS = 500;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+    
+    private final MpscQueue<Task> queue = new MpscQueue<>();
+    private final WriteAheadJournal journal;
+    private final PayrollStore store;
+    private final Thread consumer;
+    private final Thread publisher;
+    private volatile boolean running = true;
+    
+    // Consumer thread only
+    private final Map<String, OpenDay> openDays = new HashMap<>();
+    // Callbacks of the last journal write - the journal completes writes in order, so when
+    // these have run all the earlier ones have too
+    private CompletableFuture<Void> lastJournalWrite = DONE;
+    private volatile int openDayCount; // openDays.size(), published for other threads
+    
+    // Rows that are on disk in the journal but not in their week file yet
+    private final ConcurrentLinkedQueue<CompletedRow> unpublished = new ConcurrentLinkedQueue<>();
+    
+    private final LongAdder received = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder duplicateIns = new LongAdder();
+    private final LongAdder unmatchedOuts = new LongAdder();
+    private final LongAdder journalFailures = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    
+    /**
+     * Create and start an ingestor. Clock-ins still open in the journal are picked up again.
+     * 
+     * @param journal Journal for clock-ins and completed rows, or null to keep them in memory only
+     * @param store Where completed rows are written (e.g. the weekly files), or null to leave them in the journal
+     */
+    public ClockEventIngestor(WriteAheadJournal journal, PayrollStore store) {
+        this.journal = journal;
+        this.store = store;
+        if (journal != null) {
+            for (ClockEvent clockIn : journal.getOpenClockIns()) {
+                openDays.put(clockIn.getEmployeeId(), new OpenDay(clockIn.getDate(), clockIn.getMinuteOfDay(), DONE));
+            }
+            openDayCount = openDays.size();
+        }
+        
+        this.consumer = new Thread(this::consumeLoop, "clock-ingestor");
+        consumer.setDaemon(true);
+        consumer.start();
+        if (store != null) {
+            this.publisher = new Thread(this::publishLoop, "clock-publisher");
+            publisher.setDaemon(true);
+            publisher.start();
+        } else {
+            this.publisher = null;
+        }
+    }
+    
+    /**
+     * Hand in one event (any thread, never blocks)
+     * 
+     * @param event Event to process
+     * @return Completes when the event is safe on disk (or processed, without a journal).
+     *         Fails if the journal couldn't write it - the clock should send it again
+     */
+    public CompletableFuture<Void> submit(ClockEvent event) {
+        if (!running) {
+            throw new IllegalStateException("Ingestor is closed");
+        }
+        received.increment();
+        Task task = new Task(event, null);
+        queue.offer(task);
+        return task.done;
+    }
+    
+    /**
+     * Parse and hand in one line of event text
+     * 
+     * @param line Event text (see ClockEvent)
+     * @return Same as submit(ClockEvent), or null if the line wasn't a valid event
+     */
+    public CompletableFuture<Void> submit(String line) {
+        ClockEvent event = ClockEvent.parse(line);
+        if (event == null) {
+            malformed.increment();
+            return null;
+        }
+        return submit(event);
+    }
+    
+    public long getReceivedCount() {
+        return received.sum();
+    }
+    
+    public long getMalformedCount() {
+        return malformed.sum();
+    }
+    
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+    
+    public long getDuplicateInCount() {
+        return duplicateIns.sum();
+    }
+    
+    public long getUnmatchedOutCount() {
+        return unmatchedOuts.sum();
+    }
+    
+    public long getJournalFailureCount() {
+        return journalFailures.sum();
+    }
+    
+    /**
+     * Completed rows written into the weekly files so far
+     * @return Published row count
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+    
+    /**
+     * Employees clocked in right now (as of the last event processed)
+     * @return Number of open days
+     */
+    public int getOpenDayCount() {
+        return openDayCount;
+    }
+    
+    /**
+     * Stop taking events, process everything already queued, wait for the
+     * journal to have it on disk and write the last rows into the weekly files.
+     * Close the sources first, otherwise an event handed in while this runs can be dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+            if (publisher != null) {
+                LockSupport.unpark(publisher);
+                publisher.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while stopping the ingestor", e);
+        }
+        try {
+            WriteAheadJournal.await(lastJournalWrite);
+        } catch (IOException e) {
+            // Already counted, and the events' own futures have failed
+        }
+        if (store != null) {
+            publish();
+        }
+    }
+    
+    // The single consumer: drain, then nap briefly when there is nothing to do
+    private void consumeLoop() {
+        while (true) {
+            Task task = queue.poll();
+            if (task != null) {
+                if (task.event != null) {
+                    process(task.event, task.done);
+                } else {
+                    restore(task.restore);
+                }
+                continue;
+            }
+            if (!running && queue.isEmpty()) {
+                break; // Closed and fully drained
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+    
+    private void process(ClockEvent event, CompletableFuture<Void> done) {
+        String employeeId = event.getEmployeeId();
+        if (event.getType() == ClockEvent.Type.IN) {
+            OpenDay open = openDays.get(employeeId);
+            if (open != null && open.date.equals(event.getDate()) && !open.journaled.isCompletedExceptionally()) {
+                duplicateIns.increment(); // Keep the first tap of the day
+                forward(open.journaled, done);
+                return;
+            }
+            // A day left open from an earlier date had no OUT - the new IN replaces it.
+            // So does a resend of an IN the journal failed to write
+            CompletableFuture<Void> journaled = (journal != null) ? journal.appendClockInAsync(event) : DONE;
+            openDays.put(employeeId, new OpenDay(event.getDate(), event.getMinuteOfDay(), journaled));
+            openDayCount = openDays.size();
+            lastJournalWrite = journaled.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    journalFailures.increment();
+                }
+            });
+            forward(journaled, done);
+            return;
+        }
+        
+        OpenDay open = openDays.get(employeeId);
+        if (open == null || !open.date.equals(event.getDate()) || event.getMinuteOfDay() < open.inMinute) {
+            unmatchedOuts.increment();
+            done.complete(null); // Nothing to keep
+            return;
+        }
+        openDays.remove(employeeId);
+        openDayCount = openDays.size();
+        
+        CompletedRow row = new CompletedRow(event.getWeekStartDate(),
+            new TimeKeeping(employeeId, event.getDayName(), open.inMinute, event.getMinuteOfDay()));
+        if (journal == null) {
+            completed.increment();
+            addUnpublished(row);
+            done.complete(null);
+            return;
+        }
+        CompletableFuture<Void> journaled = journal.appendAttendanceAsync(row.weekStartDate, row.record);
+        // One callback, so the day is open again before the source hears about the failure
+        lastJournalWrite = journaled.whenComplete((ignored, error) -> {
+            if (error == null) {
+                completed.increment();
+                addUnpublished(row);
+                done.complete(null);
+            } else {
+                journalFailures.increment();
+                queue.offer(new Task(null, new Reopen(employeeId, open))); // So a resent OUT still matches
+                done.completeExceptionally(error);
+            }
+        });
+    }
+    
+    // Put back a day whose OUT couldn't be journalled, unless a newer IN took its place
+    private void restore(Reopen reopen) {
+        OpenDay current = openDays.get(reopen.employeeId);
+        if (current == null || current.date.isBefore(reopen.day.date)) {
+            openDays.put(reopen.employeeId, reopen.day);
+            openDayCount = openDays.size();
+        }
+    }
+    
+    private static void forward(CompletableFuture<Void> from, CompletableFuture<Void> to) {
+        from.whenComplete((ignored, error) -> {
+            if (error == null) {
+                to.complete(null);
+            } else {
+                to.completeExceptionally(error);
+            }
+        });
+    }
+    
+    private void addUnpublished(CompletedRow row) {
+        if (store != null) {
+            unpublished.add(row);
+        }
+    }
+    
+    // Publisher thread: write what came in every PUBLISH_MILLIS (close() does the last round)
+    private void publishLoop() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(PUBLISH_MILLIS));
+            if (running) {
+                publish();
+            }
+        }
+    }
+    
+    // Merge the waiting rows into their week files - one rewrite per week
+    private void publish() {
+        Map<String, List<CompletedRow>> rowsByWeek = new LinkedHashMap<>();
+        CompletedRow row;
+        while ((row = unpublished.poll()) != null) {
+            rowsByWeek.computeIfAbsent(row.weekStartDate, week -> new ArrayList<>()).add(row);
+        }
+        for (Map.Entry<String, List<CompletedRow>> rows : rowsByWeek.entrySet()) {
+            try {
+                Map<String, List<TimeKeeping>> week = WriteAheadJournal.copyWeek(store.getWeek(rows.getKey()));
+                for (CompletedRow completedRow : rows.getValue()) {
+                    WriteAheadJournal.putDay(week.computeIfAbsent(completedRow.record.getEmployeeId(), id -> new ArrayList<>()),
+                                             completedRow.record);
+                }
+                store.saveWeek(rows.getKey(), week);
+                published.add(rows.getValue().size());
+            } catch (IOException e) {
+                // Try again next round - and the rows are safe in the journal either way
+                PayrollLog.warn("Could not write clock rows into week of " + rows.getKey() + ": " + e.getMessage()
+                                + (running ? " - trying again" : " - run --apply-journal to add them"));
+                if (running) {
+                    unpublished.addAll(rows.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * An employee who has clocked in and not out yet
+     */
+    private static final class OpenDay {
+        private final LocalDate date;
+        private final int inMinute;
+        private final CompletableFuture<Void> journaled; // The clock-in's journal write
+        
+        private OpenDay(LocalDate date, int inMinute, CompletableFuture<Void> journaled) {
+            this.date = date;
+            this.inMinute = inMinute;
+            this.journaled = journaled;
+        }
+    }
+    
+    /**
+     * A queued event, or an open day to put back (event is null then)
+     */
+    private static final class Task {
+        private final ClockEvent event;
+        private final Reopen restore;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        private Task(ClockEvent event, Reopen restore) {
+            this.event = event;
+            this.restore = restore;
+        }
+    }
+    
+    private static final class Reopen {
+        private final String employeeId;
+        private final OpenDay day;
+        
+        private Reopen(String employeeId, OpenDay day) {
+            this.employeeId = employeeId;
+            this.day = day;
+        }
+    }
+    
+    private static final class CompletedRow {
+        private final String weekStartDate;
+        private final TimeKeeping record;
+        
+        private CompletedRow(String weekStartDate, TimeKeeping record) {
+            this.weekStartDate = weekStartDate;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+// ClockSocketSource.java
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Accepts clock events over a local TCP socket, one event per line
+ * (see ClockEvent for the format). Each time clock keeps a connection open
+ * and gets one thread; lines go straight into the ingestor's queue.
+ * 
+ * Only listens on the loopback address - time clocks on other machines
+ * should go through a forwarder or the spool directory.
+ * Replies "OK" or "ERR" per line, in order. OK is only sent once the event
+ * is in the journal, so a clock can forget it; on ERR (a bad line, or the
+ * journal couldn't write it) the clock should resend. Lines a clock sends
+ * in one go are answered together, so a burst shares the journal's fsyncs.
+ */
+public class ClockSocketSource implements Closeable {
+    public static final int DEFAULT_PORT = 5151;
+    
+    private final ClockEventIngestor ingestor;
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Start listening
+     * 
+     * @param ingestor Where events go
+     * @param port Local port (0 picks a free one)
+     * @throws IOException If the port can't be opened
+     */
+    public ClockSocketSource(ClockEventIngestor ingestor, int port) throws IOException {
+        this.ingestor = ingestor;
+        this.serverSocket = new ServerSocket(port, 256, InetAddress.getLoopbackAddress());
+        this.acceptThread = new Thread(this::acceptLoop, "clock-socket-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+    
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    /**
+     * Stop accepting and drop every open connection
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        try {
+            acceptThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                Thread reader = new Thread(() -> readConnection(socket), "clock-socket-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (SocketException e) {
+                return; // Closed
+            } catch (IOException e) {
+                PayrollLog.warn("Clock socket accept failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void readConnection(Socket socket) {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8)) {
+            List<CompletableFuture<Void>> waiting = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    waiting.add(ingestor.submit(line)); // null for a bad line
+                }
+                if (!in.ready()) {
+                    // The clock has nothing more buffered - answer everything read so far
+                    for (CompletableFuture<Void> event : waiting) {
+                        out.print(isSaved(event) ? "OK\n" : "ERR\n");
+                    }
+                    waiting.clear();
+                    out.flush();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Connection dropped or the ingestor is closing - the clock will reconnect
+        } finally {
+            connections.remove(socket);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+    
+    private static boolean isSaved(CompletableFuture<Void> event) throws IOException {
+        if (event == null) {
+            return false;
+        }
+        try {
+            event.get();
+            return true;
+        } catch (ExecutionException e) {
+            return false; // Journal write failed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+// ClockSpoolSource.java
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Picks up clock event files dropped into a spool directory.
+ * 
+ * Clocks (or whatever collects from them) write "*.events" files with one
+ * event per line (see ClockEvent). To avoid reading a file that is still
+ * being written, they should write under another name and rename to
+ * .events when done. Each file is claimed by renaming it to .processing,
+ * fed to the ingestor, then renamed to .done once all its events are in
+ * the journal - so a file is never read twice, and one left as .processing
+ * after a crash (or a failed journal write) is picked up again on the next
+ * start. Reading a file twice is harmless: the repeated INs count as
+ * duplicates and the repeated OUTs as unmatched.
+ */
+public class ClockSpoolSource implements Closeable {
+    public static final String DEFAULT_DIRECTORY = "clock_spool";
+    private static final long POLL_MILLIS = 250;
+    
+    private final ClockEventIngestor ingestor;
+    private final Path directory;
+    private final Thread pollThread;
+    private volatile boolean running = true;
+    
+    /**
+     * Start watching a spool directory (created if missing)
+     * 
+     * @param ingestor Where events go
+     * @param directory Spool directory
+     * @throws IOException If the directory can't be created
+     */
+    public ClockSpoolSource(ClockEventIngestor ingestor, String directory) throws IOException {
+        this.ingestor = ingestor;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.pollThread = new Thread(this::pollLoop, "clock-spool");
+        pollThread.setDaemon(true);
+        pollThread.start();
+    }
+    
+    /**
+     * Stop polling (a file being read is finished first)
+     */
+    @Override
+    public void close() {
+        running = false;
+        pollThread.interrupt();
+        try {
+            pollThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void pollLoop() {
+        // Files claimed before a crash come first
+        processAll("*.processing");
+        while (running) {
+            processAll("*.events");
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                break; // close() was called
+            }
+        }
+    }
+    
+    private void processAll(String pattern) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, pattern)) {
+            for (Path file : files) {
+                process(file);
+            }
+        } catch (IOException e) {
+            PayrollLog.warn("Could not list spool directory " + directory + ": " + e.getMessage());
+        }
+    }
+    
+    private void process(Path file) {
+        String name = file.getFileName().toString();
+        String baseName = name.substring(0, name.lastIndexOf('.'));
+        Path claimed = file.resolveSibling(baseName + ".processing");
+        try {
+            if (!file.equals(claimed)) {
+                Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+            }
+            int bad = 0;
+            List<CompletableFuture<Void>> events = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(claimed, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    CompletableFuture<Void> event = ingestor.submit(line);
+                    if (event == null) {
+                        bad++;
+                    } else {
+                        events.add(event);
+                    }
+                }
+            }
+            if (bad > 0) {
+                PayrollLog.warn(bad + " bad event line(s) in " + name);
+            }
+            // Only mark it done once every event is safe in the journal
+            try {
+                CompletableFuture.allOf(events.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                PayrollLog.warn("Could not journal the events in " + name + " (" + e.getCause().getMessage()
+                                + ") - it stays as .processing and is read again on the next start");
+                return;
+            }
+            Files.move(claimed, claimed.resolveSibling(baseName + ".done"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (NoSuchFileException e) {
+            // Someone else took it first
+        } catch (IOException e) {
+            PayrollLog.warn("Could not read spool file " + name + ": " + e.getMessage());
+        }
+    }
+}
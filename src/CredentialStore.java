@@ -0,0 +1,249 @@
+// CredentialStore.java
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Login accounts loaded once into a map of username -> password hash.
+ * 
+ * login_credentials.txt keeps one "username,password" line per account.
+ * The password part is either a salted PBKDF2 hash:
+ * 
+ *   admin,pbkdf2$210000$<base64 salt>$<base64 hash>
+ * 
+ * or (old files) the plain password. Plain entries still work so nobody
+ * gets locked out, but migrate() should be run once to hash them
+ * (java Main --migrate-credentials).
+ * 
+ * Logging in is one map lookup plus one PBKDF2 hash, and the hashes are
+ * compared with MessageDigest.isEqual so the time doesn't depend on how
+ * many bytes match. Unknown usernames are hashed against a dummy entry so
+ * they take as long as a wrong password. The iteration count for new hashes
+ * comes from -Dmotorph.auth.iterations (stored hashes keep their own count).
+ */
+public class CredentialStore {
+    public static final String ITERATIONS_PROPERTY = "motorph.auth.iterations";
+    public static final int DEFAULT_ITERATIONS = 210_000;
+    
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String HASH_PREFIX = "pbkdf2";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    private final Map<String, StoredPassword> accounts;
+    private final StoredPassword dummyPassword;
+    
+    private CredentialStore(Map<String, StoredPassword> accounts) {
+        this.accounts = accounts;
+        // Only used to burn the same time for unknown usernames
+        this.dummyPassword = StoredPassword.parse(hashPassword("not-a-real-password", getConfiguredIterations()));
+    }
+    
+    /**
+     * Load every account from a credentials file
+     * 
+     * @param filePath Path to the credentials file
+     * @return Store with one entry per valid line
+     * @throws IOException If the file can't be read
+     */
+    public static CredentialStore load(String filePath) throws IOException {
+        Map<String, StoredPassword> accounts = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma <= 0) {
+                    continue; // Blank or broken line
+                }
+                String username = line.substring(0, comma).trim();
+                String password = line.substring(comma + 1).trim();
+                StoredPassword stored = StoredPassword.parse(password);
+                if (stored == null) {
+                    System.out.println("Warning: Skipping bad password hash for user " + username);
+                    continue;
+                }
+                accounts.put(username, stored);
+            }
+        }
+        return new CredentialStore(accounts);
+    }
+    
+    /**
+     * Check a username and password
+     * 
+     * @param username Username typed at the login screen
+     * @param password Password typed at the login screen
+     * @return true if the account exists and the password matches
+     */
+    public boolean authenticate(String username, String password) {
+        StoredPassword stored = accounts.get(username);
+        if (stored == null) {
+            dummyPassword.matches(password); // Same work as a real check
+            return false;
+        }
+        return stored.matches(password);
+    }
+    
+    public int size() {
+        return accounts.size();
+    }
+    
+    /**
+     * Number of accounts still stored as plain text
+     * @return Count of entries that migrate() would hash
+     */
+    public int getPlaintextCount() {
+        int count = 0;
+        for (StoredPassword stored : accounts.values()) {
+            if (stored.plaintext != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Hash a password with a fresh random salt
+     * 
+     * @param password Plain password
+     * @param iterations PBKDF2 iteration count
+     * @return Stored form, e.g. pbkdf2$210000$salt$hash
+     */
+    public static String hashPassword(String password, int iterations) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return HASH_PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+    
+    /**
+     * Iteration count for new hashes from the motorph.auth.iterations property
+     * 
+     * @return Configured iteration count, or DEFAULT_ITERATIONS
+     */
+    public static int getConfiguredIterations() {
+        String configured = System.getProperty(ITERATIONS_PROPERTY);
+        if (configured != null) {
+            try {
+                int iterations = Integer.parseInt(configured.trim());
+                if (iterations >= 1) {
+                    return iterations;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the default below
+            }
+            System.out.println("Warning: Invalid " + ITERATIONS_PROPERTY + " value '" + configured + "', using "
+                               + DEFAULT_ITERATIONS);
+        }
+        return DEFAULT_ITERATIONS;
+    }
+    
+    /**
+     * Rewrite a credentials file with every plain-text password hashed.
+     * Lines that are already hashed (or can't be parsed) are kept as they are.
+     * Goes through AtomicFileWriter, so a crash never leaves a half-written
+     * credentials file.
+     * 
+     * @param filePath Path to the credentials file
+     * @param iterations PBKDF2 iteration count for the new hashes
+     * @return Number of passwords that were hashed
+     * @throws IOException If the file can't be read or written
+     */
+    public static int migrate(String filePath, int iterations) throws IOException {
+        List<String> lines = new ArrayList<>();
+        int migrated = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma > 0) {
+                    String username = line.substring(0, comma).trim();
+                    String password = line.substring(comma + 1).trim();
+                    if (!password.startsWith(HASH_PREFIX + "$")) {
+                        line = username + "," + hashPassword(password, iterations);
+                        migrated++;
+                    }
+                }
+                lines.add(line);
+            }
+        }
+        if (migrated == 0) {
+            return 0; // Nothing to do - leave the file alone
+        }
+        
+        AtomicFileWriter.write(filePath, writer -> {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+        });
+        return migrated;
+    }
+    
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            // PBKDF2WithHmacSHA256 ships with every JDK since 8
+            throw new IllegalStateException("Password hashing not available: " + e.getMessage(), e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+    
+    /**
+     * One account's password - either a PBKDF2 hash or an old plain-text entry
+     */
+    private static class StoredPassword {
+        private final int iterations;
+        private final byte[] salt;
+        private final byte[] hash;
+        private final byte[] plaintext; // Only set for entries that haven't been migrated
+        
+        private StoredPassword(int iterations, byte[] salt, byte[] hash, byte[] plaintext) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+            this.plaintext = plaintext;
+        }
+        
+        // Returns null if the entry looks like a hash but can't be decoded
+        private static StoredPassword parse(String stored) {
+            if (!stored.startsWith(HASH_PREFIX + "$")) {
+                return new StoredPassword(0, null, null, stored.getBytes(StandardCharsets.UTF_8));
+            }
+            String[] parts = stored.split("\\$");
+            if (parts.length != 4) {
+                return null;
+            }
+            try {
+                int iterations = Integer.parseInt(parts[1]);
+                Base64.Decoder decoder = Base64.getDecoder();
+                return iterations >= 1 ? new StoredPassword(iterations, decoder.decode(parts[2]), decoder.decode(parts[3]), null) : null;
+            } catch (IllegalArgumentException e) { // Bad number or bad base64
+                return null;
+            }
+        }
+        
+        private boolean matches(String password) {
+            if (plaintext != null) {
+                return MessageDigest.isEqual(plaintext, password.getBytes(StandardCharsets.UTF_8));
+            }
+            return MessageDigest.isEqual(hash, pbkdf2(password, salt, iterations));
+        }
+    }
+}
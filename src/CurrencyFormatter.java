@@ -0,0 +1,117 @@
+// CurrencyFormatter.java
+import java.text.DecimalFormat;
+
+/**
+ * Formats peso amounts like DecimalFormat("#,##0.00") without creating a
+ * DecimalFormat (or any other object) per call.
+ * 
+ * Amounts are rounded to centavos with the same HALF_EVEN rule DecimalFormat
+ * uses, applied to the exact double value, so the output is character for
+ * character the same. The append methods write into a caller's StringBuilder
+ * so exports can reuse one buffer for millions of values. Static and
+ * stateless, so it's safe to share between threads.
+ */
+public final class CurrencyFormatter {
+    // Above this, centavos + 0.5 stop being exact doubles - just use DecimalFormat (never happens for pay)
+    private static final double MAX_FAST_VALUE = 1e13;
+    
+    private CurrencyFormatter() {
+        // Static helper only
+    }
+    
+    /**
+     * Format with thousands separators, e.g. 1234.5 -> "1,234.50"
+     * 
+     * @param amount Amount to format
+     * @return Formatted amount
+     */
+    public static String format(double amount) {
+        return appendGrouped(new StringBuilder(16), amount).toString();
+    }
+    
+    /**
+     * Append with thousands separators, e.g. 1234.5 -> "1,234.50"
+     * 
+     * @param sb Buffer to append to
+     * @param amount Amount to format
+     * @return The same buffer
+     */
+    public static StringBuilder appendGrouped(StringBuilder sb, double amount) {
+        return append(sb, amount, true);
+    }
+    
+    /**
+     * Append without separators, e.g. 1234.5 -> "1234.50" (for CSV files)
+     * 
+     * @param sb Buffer to append to
+     * @param amount Amount to format
+     * @return The same buffer
+     */
+    public static StringBuilder appendPlain(StringBuilder sb, double amount) {
+        return append(sb, amount, false);
+    }
+    
+    /**
+     * Round an amount to whole centavos using DecimalFormat's HALF_EVEN rule
+     * 
+     * @param amount Amount in pesos (must be finite and below 1e13)
+     * @return Amount in centavos
+     */
+    public static long toCentavos(double amount) {
+        double absolute = Math.abs(amount);
+        long centavos = roundHalfEven(absolute);
+        return amount < 0 ? -centavos : centavos;
+    }
+    
+    private static StringBuilder append(StringBuilder sb, double amount, boolean grouped) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount) || Math.abs(amount) >= MAX_FAST_VALUE) {
+            // Rare fallback - still matches DecimalFormat because it is DecimalFormat
+            return sb.append(new DecimalFormat(grouped ? "#,##0.00" : "0.00").format(amount));
+        }
+        
+        // DecimalFormat keeps the minus sign even when a tiny negative rounds to 0.00
+        if (amount < 0 || (amount == 0.0 && 1.0 / amount < 0)) {
+            sb.append('-');
+        }
+        long centavos = roundHalfEven(Math.abs(amount));
+        long pesos = centavos / 100;
+        int cents = (int) (centavos % 100);
+        
+        appendPesos(sb, pesos, grouped);
+        sb.append('.');
+        sb.append((char) ('0' + cents / 10));
+        sb.append((char) ('0' + cents % 10));
+        return sb;
+    }
+    
+    // Digits of the peso part, with a comma every three digits if grouped
+    private static void appendPesos(StringBuilder sb, long pesos, boolean grouped) {
+        if (pesos < 1000 || !grouped) {
+            sb.append(pesos);
+            return;
+        }
+        appendPesos(sb, pesos / 1000, true);
+        int group = (int) (pesos % 1000);
+        sb.append(',');
+        sb.append((char) ('0' + group / 100));
+        sb.append((char) ('0' + (group / 10) % 10));
+        sb.append((char) ('0' + group % 10));
+    }
+    
+    /**
+     * value * 100 rounded half-even, decided on the exact product.
+     * The multiply can round, so ties are checked with fma, which gives the
+     * exact sign of (value * 100 - (floor + 0.5)). If the multiply rounded up onto
+     * a whole number the exact value is just below it, and floor is still the nearest.
+     */
+    private static long roundHalfEven(double value) {
+        double scaled = value * 100.0;
+        double floor = Math.floor(scaled);
+        double difference = Math.fma(value, 100.0, -(floor + 0.5));
+        long result = (long) floor;
+        if (difference > 0 || (difference == 0 && (result & 1) == 1)) {
+            result++;
+        }
+        return result;
+    }
+}
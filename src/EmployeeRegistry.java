@@ -0,0 +1,297 @@
+// EmployeeRegistry.java
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All employees from employee_data.txt with indexes for fast lookup.
+ * 
+ * Three indexes are built once when the registry is created:
+ *   - ID -> employee hash map for exact ID lookup
+ *   - sorted array of name keys (last name, first name, and "last first")
+ *     for prefix search with a binary search
+ *   - trigram index (every 3-letter piece of "last first" -> employees that
+ *     contain it) for substring search, so "cia" finds "Garcia" without
+ *     scanning the whole list
+ * 
+ * Searches are case-insensitive. The registry doesn't change after it is
+ * built - reload it to pick up edits to the file.
+ */
+public class EmployeeRegistry {
+    private final List<Employee> employees;           // File order
+    private final Map<String, Employee> employeesById;
+    private final String[] nameKeys;                  // Sorted lower-case name keys
+    private final int[] nameKeyOwners;                // Index into employees for each key
+    private final String[] searchNames;               // Lower-case "last first" per employee
+    private final Map<Long, int[]> trigramIndex;      // Trigram -> sorted employee indexes
+    
+    /**
+     * Build a registry over a list of employees
+     * 
+     * @param employees Employees in display order (IDs should be unique; the first one wins)
+     */
+    public EmployeeRegistry(List<Employee> employees) {
+        this.employees = Collections.unmodifiableList(new ArrayList<>(employees));
+        int count = employees.size();
+        
+        employeesById = new HashMap<>(count * 2);
+        for (Employee employee : employees) {
+            employeesById.putIfAbsent(employee.getEmployeeNumber(), employee);
+        }
+        
+        // Prefix index: three keys per employee, sorted together
+        searchNames = new String[count];
+        NameKey[] keys = new NameKey[count * 3];
+        for (int i = 0; i < count; i++) {
+            Employee employee = employees.get(i);
+            String lastName = normalize(employee.getLastName());
+            String firstName = normalize(employee.getFirstName());
+            searchNames[i] = lastName + " " + firstName;
+            keys[i * 3] = new NameKey(lastName, i);
+            keys[i * 3 + 1] = new NameKey(firstName, i);
+            keys[i * 3 + 2] = new NameKey(searchNames[i], i);
+        }
+        Arrays.sort(keys, (a, b) -> {
+            int compare = a.key.compareTo(b.key);
+            return compare != 0 ? compare : Integer.compare(a.owner, b.owner);
+        });
+        nameKeys = new String[keys.length];
+        nameKeyOwners = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            nameKeys[i] = keys[i].key;
+            nameKeyOwners[i] = keys[i].owner;
+        }
+        
+        trigramIndex = buildTrigramIndex(searchNames);
+    }
+    
+    /**
+     * Load employee_data.txt (or another file in the same format):
+     * ID, last name, first name, birthday[, hourly rate]
+     * 
+     * @param filePath Path to the employee file
+     * @return Registry with every valid line
+     * @throws IOException If the file can't be read
+     */
+    public static EmployeeRegistry load(String filePath) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length < 4) {
+                    continue;
+                }
+                
+                String employeeId = parts[0].trim();
+                Employee employee = new Employee(employeeId, parts[1].trim(), parts[2].trim(), parts[3].trim());
+                
+                // Set hourly rate if available
+                if (parts.length >= 5) {
+                    try {
+                        employee.setHourlyRate(Double.parseDouble(parts[4].trim()));
+                    } catch (NumberFormatException e) {
+                        PayrollLog.warn("Invalid hourly rate for employee " + employeeId);
+                    }
+                }
+                
+                employees.add(employee);
+            }
+        }
+        return new EmployeeRegistry(employees);
+    }
+    
+    /**
+     * Every employee in file order
+     * @return Read-only list
+     */
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+    
+    public int size() {
+        return employees.size();
+    }
+    
+    public boolean isEmpty() {
+        return employees.isEmpty();
+    }
+    
+    /**
+     * Exact ID lookup
+     * 
+     * @param employeeId Employee ID (e.g. "10001")
+     * @return The employee, or null if there is none with that ID
+     */
+    public Employee findById(String employeeId) {
+        return employeeId == null ? null : employeesById.get(employeeId.trim());
+    }
+    
+    /**
+     * Employees whose last name, first name or "last first" starts with the prefix
+     * 
+     * @param prefix Start of a name (case-insensitive)
+     * @return Matches in name order, each employee once
+     */
+    public List<Employee> searchByNamePrefix(String prefix) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        // Binary search for the first key >= prefix; every match follows it
+        int low = 0;
+        int high = nameKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (nameKeys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        
+        Set<Integer> matches = new LinkedHashSet<>();
+        for (int i = low; i < nameKeys.length && nameKeys[i].startsWith(key); i++) {
+            matches.add(nameKeyOwners[i]);
+        }
+        return toEmployees(matches);
+    }
+    
+    /**
+     * Employees whose "last first" name contains the text anywhere
+     * 
+     * @param text Part of a name (case-insensitive)
+     * @return Matches in file order
+     */
+    public List<Employee> searchByNameSubstring(String text) {
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<Employee> matches = new ArrayList<>();
+        if (key.length() < 3) {
+            // Too short for the trigram index - just check every name
+            for (int i = 0; i < searchNames.length; i++) {
+                if (searchNames[i].contains(key)) {
+                    matches.add(employees.get(i));
+                }
+            }
+            return matches;
+        }
+        
+        // Use the rarest trigram of the query as the candidate list, then confirm each candidate
+        int[] candidates = null;
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            int[] postings = trigramIndex.get(trigram(key, i));
+            if (postings == null) {
+                return matches; // Some piece of the query appears in no name at all
+            }
+            if (candidates == null || postings.length < candidates.length) {
+                candidates = postings;
+            }
+        }
+        for (int index : candidates) {
+            if (searchNames[index].contains(key)) {
+                matches.add(employees.get(index));
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * General search used by the employee list screen: an exact ID match if
+     * there is one, otherwise name prefix matches followed by any other
+     * names that contain the text
+     * 
+     * @param query ID or part of a name
+     * @return Matching employees, best matches first
+     */
+    public List<Employee> search(String query) {
+        Employee byId = findById(query);
+        if (byId != null) {
+            return Collections.singletonList(byId);
+        }
+        
+        Set<Employee> matches = new LinkedHashSet<>(searchByNamePrefix(query));
+        matches.addAll(searchByNameSubstring(query));
+        return new ArrayList<>(matches);
+    }
+    
+    private List<Employee> toEmployees(Set<Integer> indexes) {
+        List<Employee> result = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            result.add(employees.get(index));
+        }
+        return result;
+    }
+    
+    // Posting lists are built in employee order, so each one comes out sorted
+    private static Map<Long, int[]> buildTrigramIndex(String[] names) {
+        Map<Long, Postings> building = new HashMap<>();
+        for (int index = 0; index < names.length; index++) {
+            String name = names[index];
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                building.computeIfAbsent(trigram(name, i), gram -> new Postings()).add(index);
+            }
+        }
+        
+        // Trim the lists to their real size
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        for (Map.Entry<Long, Postings> entry : building.entrySet()) {
+            Postings list = entry.getValue();
+            postings.put(entry.getKey(), Arrays.copyOf(list.indexes, list.size));
+        }
+        return postings;
+    }
+    
+    // Three chars packed into one long key
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+    
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Growable list of employee indexes for one trigram while the index is built
+     */
+    private static final class Postings {
+        private int[] indexes = new int[4];
+        private int size;
+        
+        private void add(int index) {
+            if (size > 0 && indexes[size - 1] == index) {
+                return; // Same trigram twice in one name
+            }
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+    }
+    
+    /**
+     * One entry of the prefix index before it is split into the two arrays
+     */
+    private static final class NameKey {
+        private final String key;
+        private final int owner;
+        
+        private NameKey(String key, int owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 // FileHandler.java
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class helps us read employee and attendance records from text files.
@@ -11,9 +9,25 @@ import java.util.List;
  */
 public class FileHandler {
 
+    /**
+     * Builds the attendance file name for a week, e.g. "06/03/2024" becomes
+     * "attendance_06_03_2024.txt". Kept in one place so the menu screens and
+     * the batch run always agree on the naming convention.
+     * 
+     * @param weekStartDate Week start date in MM/dd/yyyy format
+     * @return Path to the weekly attendance file
+     */
+    public static String getAttendanceFilePath(String weekStartDate) {
+        // Replace slashes with underscores for filename
+        return "attendance_" + weekStartDate.replace("/", "_") + ".txt";
+    }
+
     /**
      * Reads attendance records for a specific employee from a text file.
      * This method scans each line and checks if the employee ID matches.
+     * Each line is logged at DEBUG level (off by default, see PayrollLog)
+     * and line counts go into the PayrollLog counters.
+     * Uses the compiled .bin copy of the file when it is up to date.
      * 
      * @param filePath Path to the attendance data file
      * @param employeeId Employee ID to filter records
@@ -21,29 +35,46 @@ public class FileHandler {
      * @throws IOException If there's an error reading the file
      */
     public static TimeKeeping[] readAttendanceRecords(String filePath, String employeeId) throws IOException {
-        List<TimeKeeping> records = new ArrayList<>(); // List to store valid records
-        
-        // Open file and start reading line by line
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line; // Stores each line from the file
-            while ((line = reader.readLine()) != null) {
-                System.out.println("Reading line: " + line); // Debugging output
-                String[] parts = line.split(","); // Split line by commas
-                if (parts.length >= 4) { // Ensure there are enough columns
-                    String id = parts[0].trim(); // Get employee ID
-                    if (id.equals(employeeId)) { // Check if it matches
-                        String date = parts[1].trim();
-                        String timeIn = parts[2].trim();
-                        String timeOut = parts[3].trim();
-                        
-                        // Add new attendance record
-                        records.add(new TimeKeeping(employeeId, date, timeIn, timeOut));
-                    }
+        long start = PhaseMetrics.start();
+        try {
+            if (BinaryAttendanceStore.isUpToDate(filePath)) {
+                try {
+                    return BinaryAttendanceStore.readRecords(filePath, employeeId);
+                } catch (IOException e) {
+                    PayrollLog.warn(e.getMessage() + " - reading the text file instead");
+                }
+            }
+            return MappedAttendanceReader.readRecords(filePath, employeeId);
+        } finally {
+            PhaseMetrics.stop(PhaseMetrics.Phase.READ_ATTENDANCE, start);
+        }
+    }
+
+    /**
+     * Reads every attendance record in a weekly file in a single pass and
+     * groups them by employee ID.
+     * The batch payroll run uses this so each weekly file is scanned once
+     * instead of once per employee. If a compiled .bin copy of the file is
+     * up to date (see BinaryAttendanceStore) it is loaded instead of the text;
+     * otherwise the text is scanned on raw bytes by MappedAttendanceReader.
+     * 
+     * @param filePath Path to the attendance data file
+     * @return Records per employee ID, in the order employees first appear in the file
+     * @throws IOException If there's an error reading the file
+     */
+    public static Map<String, List<TimeKeeping>> readAllAttendanceRecords(String filePath) throws IOException {
+        long start = PhaseMetrics.start();
+        try {
+            if (BinaryAttendanceStore.isUpToDate(filePath)) {
+                try {
+                    return BinaryAttendanceStore.readAll(filePath);
+                } catch (IOException e) {
+                    PayrollLog.warn(e.getMessage() + " - reading the text file instead");
                 }
             }
+            return MappedAttendanceReader.readAll(filePath);
+        } finally {
+            PhaseMetrics.stop(PhaseMetrics.Phase.READ_ATTENDANCE, start);
         }
-        
-        // Convert list into an array (Needed to return multiple records)
-        return records.toArray(new TimeKeeping[0]); 
     }
 }
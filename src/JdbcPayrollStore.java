@@ -0,0 +1,332 @@
+// JdbcPayrollStore.java
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PayrollStore on an embedded SQL database, e.g.
+ *   jdbc:h2:./motorph          (H2, file-based, in-process)
+ *   jdbc:sqlite:motorph.db     (SQLite)
+ * 
+ * Only java.sql is used, so no driver is bundled with the project - put the
+ * driver jar on the classpath when running and DriverManager picks it up.
+ * The SQL sticks to what H2 and SQLite both understand.
+ * 
+ * Tables (created on first open):
+ *   employee        employee_id primary key
+ *   attendance      one row per attendance line; primary key (employee_id, week_start, row_no)
+ *                   plus an index on (week_start, time_in_minutes) for week and range scans
+ *   payroll_result  primary key (employee_id, week_start)
+ * 
+ * Week starts are stored as yyyy-MM-dd text so they sort (and range-compare)
+ * by date. Writes are sent in JDBC batches inside one transaction per call.
+ * One connection is shared and every method is synchronized, which is fine
+ * for an embedded database (they serialise writes anyway).
+ */
+public class JdbcPayrollStore implements PayrollStore {
+    public static final String URL_PROPERTY = "motorph.store.url";
+    public static final String USER_PROPERTY = "motorph.store.user";
+    public static final String PASSWORD_PROPERTY = "motorph.store.password";
+    
+    private static final int BATCH_SIZE = 1000;
+    
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS employee ("
+            + "employee_id VARCHAR(16) NOT NULL PRIMARY KEY, last_name VARCHAR(64) NOT NULL, "
+            + "first_name VARCHAR(64) NOT NULL, birthday VARCHAR(10) NOT NULL, hourly_rate DOUBLE NOT NULL, "
+            + "row_no INTEGER NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS attendance ("
+            + "employee_id VARCHAR(16) NOT NULL, week_start VARCHAR(10) NOT NULL, row_no INTEGER NOT NULL, "
+            + "work_day VARCHAR(16) NOT NULL, time_in VARCHAR(16) NOT NULL, time_out VARCHAR(16) NOT NULL, "
+            + "time_in_minutes INTEGER NOT NULL, time_out_minutes INTEGER NOT NULL, "
+            + "PRIMARY KEY (employee_id, week_start, row_no))",
+        "CREATE INDEX IF NOT EXISTS attendance_week_idx ON attendance (week_start, time_in_minutes)",
+        "CREATE TABLE IF NOT EXISTS payroll_result ("
+            + "employee_id VARCHAR(16) NOT NULL, week_start VARCHAR(10) NOT NULL, "
+            + "regular_hours DOUBLE NOT NULL, overtime_hours DOUBLE NOT NULL, late_minutes INTEGER NOT NULL, "
+            + "regular_pay DOUBLE NOT NULL, overtime_pay DOUBLE NOT NULL, gross_pay DOUBLE NOT NULL, "
+            + "sss DOUBLE NOT NULL, philhealth DOUBLE NOT NULL, pagibig DOUBLE NOT NULL, "
+            + "withholding_tax DOUBLE NOT NULL, late_penalty DOUBLE NOT NULL, net_pay DOUBLE NOT NULL, "
+            + "PRIMARY KEY (employee_id, week_start))"
+    };
+    
+    private final Connection connection;
+    private final PreparedStatement selectEmployees;
+    private final PreparedStatement selectAttendance;
+    private final PreparedStatement selectWeek;
+    private final PreparedStatement selectLateDays;
+    
+    /**
+     * Open (and if needed create) a database
+     * 
+     * @param url JDBC URL
+     * @param user User name, or null
+     * @param password Password, or null
+     * @throws IOException If the database can't be opened or the tables can't be created
+     */
+    public JdbcPayrollStore(String url, String user, String password) throws IOException {
+        try {
+            connection = DriverManager.getConnection(url, user, password);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+            connection.setAutoCommit(false);
+            connection.commit();
+            
+            // Prepared once and reused for every read
+            selectEmployees = connection.prepareStatement(
+                "SELECT employee_id, last_name, first_name, birthday, hourly_rate FROM employee ORDER BY row_no");
+            selectAttendance = connection.prepareStatement(
+                "SELECT work_day, time_in, time_out, time_in_minutes, time_out_minutes FROM attendance "
+                + "WHERE employee_id = ? AND week_start = ? ORDER BY row_no");
+            selectWeek = connection.prepareStatement(
+                "SELECT employee_id, work_day, time_in, time_out, time_in_minutes, time_out_minutes FROM attendance "
+                + "WHERE week_start = ? ORDER BY row_no");
+            selectLateDays = connection.prepareStatement(
+                "SELECT employee_id, COUNT(*) FROM attendance "
+                + "WHERE week_start >= ? AND week_start <= ? AND time_in_minutes > ? GROUP BY employee_id");
+        } catch (SQLException e) {
+            throw new IOException("Could not open database " + url + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Open the database named by -Dmotorph.store.url (plus optional .user and .password)
+     * 
+     * @return Open store, or null if the property isn't set
+     * @throws IOException If the database can't be opened
+     */
+    public static JdbcPayrollStore openConfigured() throws IOException {
+        String url = System.getProperty(URL_PROPERTY);
+        if (url == null || url.trim().isEmpty()) {
+            return null;
+        }
+        return new JdbcPayrollStore(url.trim(), System.getProperty(USER_PROPERTY), System.getProperty(PASSWORD_PROPERTY));
+    }
+    
+    @Override
+    public synchronized List<Employee> loadEmployees() throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        try (ResultSet rows = selectEmployees.executeQuery()) {
+            while (rows.next()) {
+                Employee employee = new Employee(rows.getString(1), rows.getString(2), rows.getString(3), rows.getString(4));
+                employee.setHourlyRate(rows.getDouble(5));
+                employees.add(employee);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("read employees", e);
+        }
+        return employees;
+    }
+    
+    @Override
+    public synchronized void saveEmployees(List<Employee> employees) throws IOException {
+        try (Statement delete = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO employee (employee_id, last_name, first_name, birthday, hourly_rate, row_no) "
+                 + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            delete.executeUpdate("DELETE FROM employee");
+            int rowNo = 0;
+            for (Employee employee : employees) {
+                insert.setString(1, employee.getEmployeeNumber());
+                insert.setString(2, employee.getLastName());
+                insert.setString(3, employee.getFirstName());
+                insert.setString(4, employee.getBirthday());
+                insert.setDouble(5, employee.getHourlyRate());
+                insert.setInt(6, rowNo++);
+                insert.addBatch();
+                if (rowNo % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("save employees", e);
+        }
+    }
+    
+    @Override
+    public synchronized List<TimeKeeping> getAttendance(String employeeId, String weekStartDate) throws IOException {
+        List<TimeKeeping> records = new ArrayList<>(7);
+        try {
+            selectAttendance.setString(1, employeeId);
+            selectAttendance.setString(2, toSortableDate(weekStartDate));
+            try (ResultSet rows = selectAttendance.executeQuery()) {
+                while (rows.next()) {
+                    records.add(new TimeKeeping(employeeId, rows.getString(1), rows.getString(2), rows.getString(3),
+                                                rows.getInt(4), rows.getInt(5)));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("read attendance for " + employeeId, e);
+        }
+        return records;
+    }
+    
+    @Override
+    public synchronized Map<String, List<TimeKeeping>> getWeek(String weekStartDate) throws IOException {
+        Map<String, List<TimeKeeping>> recordsByEmployee = new LinkedHashMap<>();
+        try {
+            selectWeek.setString(1, toSortableDate(weekStartDate));
+            try (ResultSet rows = selectWeek.executeQuery()) {
+                while (rows.next()) {
+                    String employeeId = rows.getString(1);
+                    recordsByEmployee.computeIfAbsent(employeeId, id -> new ArrayList<>(7))
+                        .add(new TimeKeeping(employeeId, rows.getString(2), rows.getString(3), rows.getString(4),
+                                             rows.getInt(5), rows.getInt(6)));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("read week " + weekStartDate, e);
+        }
+        return Collections.unmodifiableMap(recordsByEmployee);
+    }
+    
+    @Override
+    public synchronized void saveWeek(String weekStartDate, Map<String, List<TimeKeeping>> recordsByEmployee)
+            throws IOException {
+        String weekStart = toSortableDate(weekStartDate);
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM attendance WHERE week_start = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO attendance (employee_id, week_start, row_no, work_day, time_in, time_out, "
+                 + "time_in_minutes, time_out_minutes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            delete.setString(1, weekStart);
+            delete.executeUpdate();
+            
+            // row_no keeps the original file order for the reads above
+            int rowNo = 0;
+            for (List<TimeKeeping> records : recordsByEmployee.values()) {
+                for (TimeKeeping record : records) {
+                    insert.setString(1, record.getEmployeeId());
+                    insert.setString(2, weekStart);
+                    insert.setInt(3, rowNo++);
+                    insert.setString(4, record.getDate());
+                    insert.setString(5, record.getTimeIn());
+                    insert.setString(6, record.getTimeOut());
+                    insert.setInt(7, record.getTimeInMinutes());
+                    insert.setInt(8, record.getTimeOutMinutes());
+                    insert.addBatch();
+                    if (rowNo % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("save week " + weekStartDate, e);
+        }
+    }
+    
+    @Override
+    public synchronized void savePayrollResults(PayrollResultBatch results) throws IOException {
+        // Delete + insert instead of MERGE / INSERT OR REPLACE, which differ between databases
+        try (PreparedStatement delete = connection.prepareStatement(
+                 "DELETE FROM payroll_result WHERE employee_id = ? AND week_start = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO payroll_result (employee_id, week_start, regular_hours, overtime_hours, late_minutes, "
+                 + "regular_pay, overtime_pay, gross_pay, sss, philhealth, pagibig, withholding_tax, late_penalty, "
+                 + "net_pay) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (int row = 0; row < results.size(); row++) {
+                String employeeId = results.getEmployeeId(row);
+                String weekStart = toSortableDate(results.getWeekStartDate(row));
+                
+                delete.setString(1, employeeId);
+                delete.setString(2, weekStart);
+                delete.addBatch();
+                
+                insert.setString(1, employeeId);
+                insert.setString(2, weekStart);
+                insert.setDouble(3, results.getRegularHours(row));
+                insert.setDouble(4, results.getOvertimeHours(row));
+                insert.setInt(5, results.getLateMinutes(row));
+                insert.setDouble(6, results.getRegularPay(row));
+                insert.setDouble(7, results.getOvertimePay(row));
+                insert.setDouble(8, results.getGrossPay(row));
+                insert.setDouble(9, results.getSssContribution(row));
+                insert.setDouble(10, results.getPhilHealthContribution(row));
+                insert.setDouble(11, results.getPagIbigContribution(row));
+                insert.setDouble(12, results.getWithholdingTax(row));
+                insert.setDouble(13, results.getLatePenalty(row));
+                insert.setDouble(14, results.getNetPay(row));
+                insert.addBatch();
+                
+                if (++pending == BATCH_SIZE) {
+                    delete.executeBatch();
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("save payroll results", e);
+        }
+    }
+    
+    @Override
+    public synchronized Map<String, Integer> countLateDays(LocalDate from, LocalDate to) throws IOException {
+        Map<String, Integer> lateDays = new TreeMap<>();
+        try {
+            // Index range scan on week_start instead of opening every weekly file
+            selectLateDays.setString(1, from.toString());
+            selectLateDays.setString(2, to.toString());
+            selectLateDays.setInt(3, TimeKeeping.DEDUCTION_START_TIME);
+            try (ResultSet rows = selectLateDays.executeQuery()) {
+                while (rows.next()) {
+                    lateDays.put(rows.getString(1), rows.getInt(2));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw rollback("count late days", e);
+        }
+        return lateDays;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            connection.close(); // Also closes the prepared statements
+        } catch (SQLException e) {
+            throw new IOException("Could not close database: " + e.getMessage(), e);
+        }
+    }
+    
+    // MM/dd/yyyy -> yyyy-MM-dd so text comparison matches date order
+    private static String toSortableDate(String weekStartDate) {
+        return LocalDate.parse(weekStartDate, PayCalendar.DATE_FORMAT).toString();
+    }
+    
+    private static IOException fail(String action, SQLException e) {
+        return new IOException("Could not " + action + ": " + e.getMessage(), e);
+    }
+    
+    private IOException rollback(String action, SQLException e) {
+        try {
+            connection.rollback();
+        } catch (SQLException rollbackError) {
+            e.addSuppressed(rollbackError);
+        }
+        return fail(action, e);
+    }
+}
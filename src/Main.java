@@ -1,13 +1,13 @@
 // Main.java
 import java.io.File;
 import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -25,15 +25,96 @@ public class Main {
     private static final String ATTENDANCE_DATA_FILE = "attendance_data.txt";
     private static final String LOGIN_CREDENTIALS_FILE = "login_credentials.txt";
     
-    // Date range for available weeks - hardcoded for the demo but should be dynamic
+    // Default date range for available weeks - override with
+    // -Dmotorph.calendar.start=MM/dd/yyyy and -Dmotorph.calendar.end=MM/dd/yyyy
     private static final String START_DATE = "06/03/2024";
     private static final String END_DATE = "12/30/2024";
+    private static final String CALENDAR_START_PROPERTY = "motorph.calendar.start";
+    private static final String CALENDAR_END_PROPERTY = "motorph.calendar.end";
+    
+    // Every pay week in the range, built once and shared by the screens and batch runs
+    private static final PayCalendar PAY_CALENDAR = createPayCalendar();
+    
+    // Weekly attendance files parsed once and shared by every screen
+    private static final AttendanceIndex ATTENDANCE_INDEX = new AttendanceIndex();
+    
+    // SQL store for the menu screens when -Dmotorph.store.url is set (opened on first use)
+    private static JdbcPayrollStore database;
+    
+    // Set to false to make --batch recompute everything instead of using payroll_cache.dat
+    private static final String CACHE_PROPERTY = "motorph.payroll.cache";
+    
+    // Where --ingest listens for clock events
+    private static final String INGEST_PORT_PROPERTY = "motorph.ingest.port";
+    private static final String INGEST_SPOOL_PROPERTY = "motorph.ingest.spool";
+    
+    // Rows shown on the employee list screen - bigger registries are searched instead
+    private static final int EMPLOYEE_LIST_ROWS = 50;
     
     /**
      * Main method - entry point of application
      * Tried to keep this clean by delegating to helper methods
      */
     public static void main(String[] args) {
+        args = applyMetricsFlag(args);
+        
+        // Headless mode for scheduled runs - skips login and the menu screens
+        // An output directory after --batch also writes the CSV, bank and payslip files
+        if (args.length > 0 && args[0].equals("--batch")) {
+            requireStatutoryRules();
+            runBatchPayroll(args.length > 1 ? args[1] : null);
+            return;
+        }
+        // Scripted runs: --employees, --weeks, --from/--to, --output, --threads, --format
+        // (see PayrollCli) - no login or menus, results on stdout or in the output directory
+        if (args.length > 0 && PayrollCli.isCliOption(args[0])) {
+            int status = new PayrollCli(EMPLOYEE_DATA_FILE, PAY_CALENDAR, ATTENDANCE_INDEX).run(args);
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+        // One-time import: build the binary .bin copies of the attendance files
+        if (args.length > 0 && args[0].equals("--compile-attendance")) {
+            int compiled = BinaryAttendanceStore.compileAll(".");
+            System.out.println("Compiled " + compiled + " attendance file(s) to binary format.");
+            return;
+        }
+        // One-time upgrade: hash any plain-text passwords in login_credentials.txt
+        if (args.length > 0 && args[0].equals("--migrate-credentials")) {
+            migrateCredentials();
+            return;
+        }
+        // Apply journalled attendance/employee changes to the data files and empty the journal
+        if (args.length > 0 && args[0].equals("--apply-journal")) {
+            applyJournal();
+            return;
+        }
+        // Live clock-in feed: events from the local socket and the spool directory go
+        // into payroll.journal, and completed days on into the weekly attendance files
+        if (args.length > 0 && args[0].equals("--ingest")) {
+            runClockIngest();
+            return;
+        }
+        // Copy the text files into the SQL database (-Dmotorph.store.url or the URL given)
+        if (args.length > 0 && args[0].equals("--import-db")) {
+            importToDatabase(args.length > 1 ? args[1] : System.getProperty(JdbcPayrollStore.URL_PROPERTY));
+            return;
+        }
+        // Late days per employee between two dates, e.g. --late-report 07/01/2024 09/30/2024
+        if (args.length > 0 && args[0].equals("--late-report")) {
+            runLateReport(args.length > 1 ? args[1] : START_DATE, args.length > 2 ? args[2] : END_DATE);
+            return;
+        }
+        // Pay per month (default) or per semi-monthly cut-off instead of per week
+        if (args.length > 0 && args[0].equals("--pay-periods")) {
+            boolean semiMonthly = args.length > 1 && args[1].equalsIgnoreCase("semi-monthly");
+            requireStatutoryRules();
+            runPayPeriods(semiMonthly ? PayPeriodEngine.PeriodType.SEMI_MONTHLY : PayPeriodEngine.PeriodType.MONTHLY);
+            return;
+        }
+        
+        requireStatutoryRules();
         Scanner scanner = new Scanner(System.in);
         
         // Step 1: Handle login - exit if login fails
@@ -42,10 +123,14 @@ public class Main {
             System.out.println("Login failed. Exiting system...");
             return; // Early exit pattern - cleaner than nested conditionals
         }
+        
+        // Keep the attendance index loaded in the background - files that land while
+        // the menus are open are parsed before anyone picks their week
+        AttendanceWatcher attendanceWatcher = AttendanceWatcher.startIfEnabled(ATTENDANCE_INDEX);
 
         // Step 2: Display employee list and get selection
-        List<Employee> employeeList = loadEmployeeList();
-        Employee selectedEmployee = showEmployeeListScreen(scanner, employeeList);
+        EmployeeRegistry employeeRegistry = loadEmployeeRegistry();
+        Employee selectedEmployee = showEmployeeListScreen(scanner, employeeRegistry);
         if (selectedEmployee == null) {
             System.out.println("No employee selected. Exiting system...");
             return; // Another early exit for cleaner code
@@ -53,7 +138,7 @@ public class Main {
         
         // Step 3: Generate and display list of available weeks
         // This was tricky to implement with the date calculations
-        List<String> availableWeeks = generateWeeklyDates(START_DATE, END_DATE);
+        List<String> availableWeeks = PAY_CALENDAR.getWeekStartDates();
         
         // Step 4: Show week selection and get user's choice
         String selectedWeek = showWeekListScreen(scanner, selectedEmployee, availableWeeks);
@@ -82,7 +167,7 @@ public class Main {
                     break;
                 case 4:
                     // Change employee/week - reuse selection screens
-                    selectedEmployee = showEmployeeListScreen(scanner, employeeList);
+                    selectedEmployee = showEmployeeListScreen(scanner, employeeRegistry);
                     if (selectedEmployee != null) {
                         selectedWeek = showWeekListScreen(scanner, selectedEmployee, availableWeeks);
                     }
@@ -104,61 +189,427 @@ public class Main {
         }
         
         scanner.close(); //close the scanner, important resource management
+        if (attendanceWatcher != null) {
+            try {
+                attendanceWatcher.close();
+            } catch (IOException e) {
+                // Exiting anyway
+            }
+        }
+        if (database != null) {
+            try {
+                database.close();
+            } catch (IOException e) {
+                System.out.println("Warning: Could not close database: " + e.getMessage());
+            }
+            database = null;
+        }
+        dumpMetrics();
     }
     /**
-     * Generates a list of Monday dates between the specified start and end dates
-     * This was challenging to get right with Java's Date and Calendar APIs
+     * Builds the pay calendar from the configured date range
+     * Falls back to the default range if a configured date can't be parsed
      * 
-     * @param startDateStr Start date in MM/dd/yyyy format
-     * @param endDateStr End date in MM/dd/yyyy format
-     * @return List of Monday dates as strings in MM/dd/yyyy format
+     * @return Pay calendar with every week in the range
      */
-    private static List<String> generateWeeklyDates(String startDateStr, String endDateStr) {
-        List<String> weeklyDates = new ArrayList<>();
-        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
+    private static PayCalendar createPayCalendar() {
+        String startDate = System.getProperty(CALENDAR_START_PROPERTY, START_DATE);
+        String endDate = System.getProperty(CALENDAR_END_PROPERTY, END_DATE);
+        try {
+            return PayCalendar.of(startDate, endDate);
+        } catch (DateTimeParseException e) {
+            System.out.println("Error parsing date: " + e.getMessage() + " - using " + START_DATE + " to " + END_DATE);
+            return PayCalendar.of(START_DATE, END_DATE);
+        }
+    }
+    
+    /**
+     * Loads statutory_rules.txt before any pay is computed, and stops with exit
+     * status 1 if the file is there but broken (without it the built-in rules are used)
+     */
+    private static void requireStatutoryRules() {
+        try {
+            StatutoryRuleEngine.getDefault();
+        } catch (IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Runs payroll for every employee and every available week in one pass
+     * and prints a per-week summary. Each weekly attendance file is read once
+     * and the employees are split across worker threads
+     * (set -Dmotorph.payroll.threads=N to change the worker count).
+     * Results are kept in payroll_cache.dat so the next run only recomputes
+     * employee-weeks whose attendance or hourly rate changed
+     * (-Dmotorph.payroll.cache=false turns this off).
+     * 
+     * @param exportDir Directory for the export files, or null to only print the summary
+     */
+    private static void runBatchPayroll(String exportDir) {
+        List<Employee> employeeList = loadEmployeeList();
+        List<String> availableWeeks = PAY_CALENDAR.getWeekStartDates();
+        
+        long startTime = System.nanoTime();
+        boolean useCache = !"false".equalsIgnoreCase(System.getProperty(CACHE_PROPERTY));
+        PayrollResultCache resultCache = useCache ? PayrollResultCache.load(PayrollResultCache.CACHE_FILE) : null;
+        ParallelPayrollExecutor executor = new ParallelPayrollExecutor(
+            ParallelPayrollExecutor.getDefaultWorkerCount(), ATTENDANCE_INDEX, resultCache);
+        PayrollResultBatch results = executor.run(employeeList, availableWeeks);
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        
+        if (resultCache != null) {
+            resultCache.retainWeeks(availableWeeks);
+            try {
+                resultCache.save(PayrollResultCache.CACHE_FILE);
+            } catch (IOException e) {
+                System.out.println("Warning: Could not save payroll cache: " + e.getMessage());
+            }
+        }
         
+        // Total per week - rows are in employee order so we bucket them by week,
+        // using a LinkedHashMap to keep the weeks in calendar order
+        Map<String, double[]> weeklyTotals = new LinkedHashMap<>();
+        for (String week : availableWeeks) {
+            weeklyTotals.put(week, new double[3]); // employee count, gross, net
+        }
+        for (int row = 0; row < results.size(); row++) {
+            double[] totals = weeklyTotals.get(results.getWeekStartDate(row));
+            totals[0]++;
+            totals[1] += results.getGrossPay(row);
+            totals[2] += results.getNetPay(row);
+        }
+        
+        long renderStart = PhaseMetrics.start();
+        System.out.println("+---------------------------------------+");
+        System.out.println("|          BATCH PAYROLL SUMMARY        |");
+        System.out.println("+---------------------------------------+");
+        System.out.printf("%-12s  %-9s  %-16s  %-16s\n", "Week of", "Employees", "Gross Pay", "Net Pay");
+        for (Map.Entry<String, double[]> week : weeklyTotals.entrySet()) {
+            double[] totals = week.getValue();
+            if (totals[0] > 0) { // Skip weeks with no attendance file
+                System.out.printf("%-12s  %-9d  %-16s  %-16s\n", week.getKey(), (int) totals[0],
+                    CurrencyFormatter.format(totals[1]), CurrencyFormatter.format(totals[2]));
+            }
+        }
+        PhaseMetrics.stop(PhaseMetrics.Phase.RENDER_REPORT, renderStart);
+        
+        System.out.println();
+        System.out.println("Computed " + results.size() + " employee-weeks in " + elapsedMillis + " ms using "
+                           + executor.getWorkerCount() + " worker thread(s)");
+        if (executor.getUnreadableWeeks() > 0) {
+            System.out.println("Warning: Skipped " + executor.getUnreadableWeeks() + " unreadable attendance file(s)");
+        }
+        if (resultCache != null) {
+            System.out.println("Reused " + resultCache.getHits() + " cached result(s), recomputed "
+                               + resultCache.getMisses());
+        }
+        if (exportDir != null) {
+            exportBatchPayroll(results, exportDir);
+        }
+        saveResultsToDatabase(results);
+        System.out.println();
+        PayrollLog.dumpCounters(System.out);
+        dumpMetrics();
+    }
+    
+    /**
+     * Stores the batch results in the SQL database when -Dmotorph.store.url is set
+     * 
+     * @param results Batch results
+     */
+    private static void saveResultsToDatabase(PayrollResultBatch results) {
+        try (JdbcPayrollStore store = JdbcPayrollStore.openConfigured()) {
+            if (store == null) {
+                return; // No database configured
+            }
+            store.savePayrollResults(results);
+            System.out.println("Saved " + results.size() + " results to the database");
+        } catch (IOException e) {
+            System.out.println("Error saving results to database: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes the batch results as payroll.csv, bank_upload.txt and payslips.txt
+     * 
+     * @param results Batch results
+     * @param exportDir Directory to write into (created if missing)
+     */
+    private static void exportBatchPayroll(PayrollResultBatch results, String exportDir) {
+        File dir = new File(exportDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.out.println("Error: Could not create export directory " + exportDir);
+            return;
+        }
+        
+        long startTime = System.nanoTime();
+        long renderStart = PhaseMetrics.start();
+        long rejected;
+        try (PayrollExporter csv = PayrollExporter.toFile(new File(dir, "payroll.csv").getPath(), PayrollExporter.Format.CSV);
+             PayrollExporter bank = PayrollExporter.toFile(new File(dir, "bank_upload.txt").getPath(), PayrollExporter.Format.FIXED_WIDTH);
+             PayrollExporter payslips = PayrollExporter.toFile(new File(dir, "payslips.txt").getPath(), PayrollExporter.Format.PAYSLIP)) {
+            for (int row = 0; row < results.size(); row++) {
+                csv.write(results, row);
+                bank.write(results, row);
+                payslips.write(results, row);
+            }
+            rejected = bank.getRejectedCount();
+        } catch (IOException e) {
+            System.out.println("Error writing export files: " + e.getMessage());
+            return;
+        } finally {
+            PhaseMetrics.stop(PhaseMetrics.Phase.RENDER_REPORT, renderStart);
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println("Exported " + results.size() + " records to " + dir.getPath() + " in " + elapsedMillis + " ms");
+        if (rejected > 0) {
+            System.out.println("Warning: " + rejected + " record(s) left out of bank_upload.txt (see the log)");
+        }
+    }
+    
+    /**
+     * Runs payroll by pay period over all available weeks and prints one line
+     * per period. Deductions are computed on each period's actual gross.
+     * Exits with status 1 if a week's file couldn't be read, since the totals would be short.
+     * 
+     * @param periodType Monthly or semi-monthly periods
+     */
+    private static void runPayPeriods(PayPeriodEngine.PeriodType periodType) {
+        List<Employee> employeeList = loadEmployeeList();
+        List<String> availableWeeks = PAY_CALENDAR.getWeekStartDates();
+        
+        System.out.println("+---------------------------------------+");
+        System.out.println("|        PAY PERIOD PAYROLL SUMMARY     |");
+        System.out.println("+---------------------------------------+");
+        System.out.printf("%-21s  %-9s  %-16s  %-16s  %-16s\n", "Period", "Employees", "Gross Pay", "Deductions", "Net Pay");
+        
+        // Results come out one period at a time, so only the per-period totals are kept
+        DateTimeFormatter periodFormat = PayCalendar.DATE_FORMAT;
+        Map<String, double[]> periodTotals = new LinkedHashMap<>();
+        long startTime = System.nanoTime();
+        PayPeriodEngine engine = new PayPeriodEngine(periodType);
+        engine.run(employeeList, availableWeeks, result -> {
+            String period = result.getPeriodStart().format(periodFormat) + "-" + result.getPeriodEnd().format(periodFormat);
+            double[] totals = periodTotals.computeIfAbsent(period, key -> new double[4]); // employees, gross, deductions, net
+            totals[0]++;
+            totals[1] += result.getGrossPay();
+            totals[2] += result.getResult().getTotalDeductions();
+            totals[3] += result.getNetPay();
+        });
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        
+        for (Map.Entry<String, double[]> period : periodTotals.entrySet()) {
+            double[] totals = period.getValue();
+            System.out.printf("%-21s  %-9d  %-16s  %-16s  %-16s\n", period.getKey(), (int) totals[0],
+                CurrencyFormatter.format(totals[1]), CurrencyFormatter.format(totals[2]), CurrencyFormatter.format(totals[3]));
+        }
+        
+        System.out.println();
+        System.out.println("Computed " + availableWeeks.size() + " weeks of pay periods in " + elapsedMillis + " ms");
+        dumpMetrics();
+        if (engine.getSkippedWeeks() > 0) {
+            // Totals missing a week must not pass for a finished payroll
+            System.out.println("Error: Skipped " + engine.getSkippedWeeks() + " unreadable week(s) - the totals above are incomplete");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Checkpoints payroll.journal into employee_data.txt and the weekly attendance files
+     * (each file is rewritten atomically, then the journal is emptied)
+     */
+    private static void applyJournal() {
         try {
-            // Parse input date strings to Date objects
-            // Had to debug this section a lot - date parsing is tricky
-            Date startDate = dateFormat.parse(startDateStr);
-            Date endDate = dateFormat.parse(endDateStr);
-            
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(startDate);
-            
-            // Adjust to first Monday - this was a bit of a math challenge
-            // Used the Calendar constants as they're more readable than magic numbers
-            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-            if (dayOfWeek != Calendar.MONDAY) {
-                // If not Monday, calculate days to next Monday
-                calendar.add(Calendar.DAY_OF_MONTH, Calendar.MONDAY - dayOfWeek);
-                if (calendar.getTime().before(startDate)) {
-                    // If we went backward before start date, move to next Monday
-                    calendar.add(Calendar.DAY_OF_MONTH, 7);
+            int applied = WriteAheadJournal.checkpoint(WriteAheadJournal.JOURNAL_FILE, new TextPayrollStore(".", ATTENDANCE_INDEX));
+            System.out.println("Applied " + applied + " journal record(s) from " + WriteAheadJournal.JOURNAL_FILE + ".");
+        } catch (IOException e) {
+            System.out.println("Error applying journal: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Runs the clock event ingestor until "quit" or end of input. Port and spool
+     * directory come from -Dmotorph.ingest.port and -Dmotorph.ingest.spool.
+     * Clock-ins and completed days go into payroll.journal first, and completed
+     * days are then written into the weekly attendance files.
+     * Typing "stats" (or just Enter) shows the counters so far.
+     */
+    private static void runClockIngest() {
+        int port = Integer.getInteger(INGEST_PORT_PROPERTY, ClockSocketSource.DEFAULT_PORT);
+        String spoolDirectory = System.getProperty(INGEST_SPOOL_PROPERTY, ClockSpoolSource.DEFAULT_DIRECTORY);
+        
+        try (WriteAheadJournal journal = new WriteAheadJournal(WriteAheadJournal.JOURNAL_FILE)) {
+            ClockEventIngestor ingestor = new ClockEventIngestor(journal, new TextPayrollStore(".", ATTENDANCE_INDEX));
+            if (ingestor.getOpenDayCount() > 0) {
+                System.out.println("Picked up " + ingestor.getOpenDayCount() + " open clock-in(s) from " + WriteAheadJournal.JOURNAL_FILE);
+            }
+            ClockSocketSource socketSource = null;
+            ClockSpoolSource spoolSource = null;
+            try {
+                socketSource = new ClockSocketSource(ingestor, port);
+                spoolSource = new ClockSpoolSource(ingestor, spoolDirectory);
+                System.out.println("Listening for clock events on 127.0.0.1:" + socketSource.getPort()
+                                   + " and in " + spoolDirectory + "/ (type quit to stop)");
+                
+                Scanner scanner = new Scanner(System.in);
+                while (scanner.hasNextLine()) {
+                    String command = scanner.nextLine().trim();
+                    if (command.equalsIgnoreCase("quit")) {
+                        break;
+                    }
+                    printIngestStats(ingestor);
+                }
+            } finally {
+                // Sources first so nothing arrives while the ingestor drains
+                if (socketSource != null) {
+                    socketSource.close();
                 }
+                if (spoolSource != null) {
+                    spoolSource.close();
+                }
+                ingestor.close();
             }
-            
-            // Add all Mondays until end date - using a while loop for clarity
-            // Could use a for loop but the termination condition would be less clear
-            while (calendar.getTime().before(endDate) || calendar.getTime().equals(endDate)) {
-                weeklyDates.add(dateFormat.format(calendar.getTime()));
-                // Move to next Monday
-                calendar.add(Calendar.DAY_OF_MONTH, 7);
+            printIngestStats(ingestor);
+            if (ingestor.getJournalFailureCount() > 0 || ingestor.getPublishedCount() < ingestor.getCompletedCount()) {
+                System.out.println("Some completed days are only in " + WriteAheadJournal.JOURNAL_FILE + " - run --apply-journal to merge them.");
             }
+        } catch (IOException e) {
+            System.out.println("Error running clock ingest: " + e.getMessage());
+        }
+    }
+    
+    private static void printIngestStats(ClockEventIngestor ingestor) {
+        System.out.println("Events: " + ingestor.getReceivedCount() + " received, "
+                           + ingestor.getMalformedCount() + " malformed, "
+                           + ingestor.getCompletedCount() + " days completed, "
+                           + ingestor.getOpenDayCount() + " clocked in, "
+                           + ingestor.getDuplicateInCount() + " duplicate IN, "
+                           + ingestor.getUnmatchedOutCount() + " unmatched OUT, "
+                           + ingestor.getJournalFailureCount() + " journal failures, "
+                           + ingestor.getPublishedCount() + " written to the weekly files");
+    }
+    
+    /**
+     * Imports employee_data.txt and every weekly attendance file into the SQL store
+     * (batched inserts, one transaction per week). Safe to run again - each week is replaced.
+     * 
+     * @param url JDBC URL of the database (the driver jar must be on the classpath)
+     */
+    private static void importToDatabase(String url) {
+        if (url == null) {
+            System.out.println("Error: No database given. Use --import-db <jdbc-url> or -D" + JdbcPayrollStore.URL_PROPERTY);
+            return;
+        }
+        
+        long startTime = System.nanoTime();
+        TextPayrollStore textStore = new TextPayrollStore(".", ATTENDANCE_INDEX);
+        try (JdbcPayrollStore database = new JdbcPayrollStore(url, System.getProperty(JdbcPayrollStore.USER_PROPERTY),
+                                                              System.getProperty(JdbcPayrollStore.PASSWORD_PROPERTY))) {
+            List<Employee> employees = textStore.loadEmployees();
+            database.saveEmployees(employees);
+            System.out.println("Imported " + employees.size() + " employees.");
             
-        } catch (ParseException e) {
-            System.out.println("Error parsing date: " + e.getMessage());
-            // Return default list if there's an error - fallback plan for robustness
-            // I learned about defensive programming in Week 5
-            weeklyDates.add("06/03/2024");
-            weeklyDates.add("06/10/2024");
-            weeklyDates.add("06/17/2024");
-            weeklyDates.add("06/24/2024");
+            int weekCount = 0;
+            long rowCount = 0;
+            for (String weekStartDate : textStore.getStoredWeeks(PAY_CALENDAR)) {
+                Map<String, List<TimeKeeping>> week = textStore.getWeek(weekStartDate);
+                database.saveWeek(weekStartDate, week);
+                for (List<TimeKeeping> records : week.values()) {
+                    rowCount += records.size();
+                }
+                weekCount++;
+            }
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            System.out.println("Imported " + rowCount + " attendance rows from " + weekCount + " weeks in " + elapsedMillis + " ms");
+        } catch (IOException e) {
+            System.out.println("Error importing into database: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Prints how many days each employee arrived after the grace period, for
+     * weeks starting between two dates. Uses the SQL store when
+     * -Dmotorph.store.url is set (one indexed query), otherwise scans the weekly files.
+     * 
+     * @param fromDate First day (MM/dd/yyyy)
+     * @param toDate Last day (MM/dd/yyyy)
+     */
+    private static void runLateReport(String fromDate, String toDate) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(fromDate, PayCalendar.DATE_FORMAT);
+            to = LocalDate.parse(toDate, PayCalendar.DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            System.out.println("Error: Dates must be in MM/dd/yyyy format");
+            return;
         }
         
-        return weeklyDates;
+        try (PayrollStore store = openPayrollStore()) {
+            long startTime = System.nanoTime();
+            Map<String, Integer> lateDays = store.countLateDays(from, to);
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            
+            System.out.println("+---------------------------------------+");
+            System.out.println("|           LATE ARRIVALS REPORT        |");
+            System.out.println("+---------------------------------------+");
+            System.out.println("Weeks starting " + fromDate + " to " + toDate);
+            System.out.printf("%-12s  %-9s\n", "Employee", "Late Days");
+            for (Map.Entry<String, Integer> employee : lateDays.entrySet()) {
+                System.out.printf("%-12s  %-9d\n", employee.getKey(), employee.getValue());
+            }
+            System.out.println();
+            System.out.println(lateDays.size() + " employee(s) with late arrivals, found in " + elapsedMillis + " ms");
+        } catch (IOException e) {
+            System.out.println("Error reading attendance: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * The SQL store if -Dmotorph.store.url is set, otherwise the text files
+     * 
+     * @return Open store (caller closes it)
+     * @throws IOException If the database can't be opened
+     */
+    private static PayrollStore openPayrollStore() throws IOException {
+        PayrollStore database = JdbcPayrollStore.openConfigured();
+        return database != null ? database : new TextPayrollStore(".", ATTENDANCE_INDEX);
+    }
+    
+    /**
+     * Turns on phase metrics if --metrics (table) or --metrics=json is given,
+     * and takes the flag out so the other arguments stay in their usual places
+     * 
+     * @param args Command line arguments
+     * @return Arguments without the metrics flag
+     */
+    private static String[] applyMetricsFlag(String[] args) {
+        List<String> remaining = new ArrayList<>(args.length);
+        for (String arg : args) {
+            if (arg.equals("--metrics")) {
+                PhaseMetrics.configure("table");
+            } else if (arg.startsWith("--metrics=")) {
+                PhaseMetrics.configure(arg.substring("--metrics=".length()));
+            } else {
+                remaining.add(arg);
+            }
+        }
+        return remaining.toArray(new String[0]);
+    }
+    
+    /**
+     * Prints the phase timing summary at the end of a run (only if metrics are on)
+     */
+    private static void dumpMetrics() {
+        if (PhaseMetrics.isEnabled()) {
+            System.out.println();
+            PhaseMetrics.dumpIfEnabled(System.out);
+        }
     }
     
+    
     /**
      * Displays the login screen and handles authentication
      * Spent extra time making this secure with multiple login attempts
@@ -183,6 +634,15 @@ public class Main {
             createDefaultLoginCredentials();
         }
         
+        // Load the accounts once - each attempt is then a map lookup plus one hash
+        CredentialStore credentialStore;
+        try {
+            credentialStore = CredentialStore.load(LOGIN_CREDENTIALS_FILE);
+        } catch (IOException e) {
+            System.out.println("Error reading credentials: " + e.getMessage());
+            return false;
+        }
+        
         // Give user 3 attempts at login - security best practice
         // I actually looked up industry standards for this
         for (int attempt = 1; attempt <= 3; attempt++) {
@@ -192,7 +652,7 @@ public class Main {
             System.out.print("Password: ");
             String password = scanner.nextLine();
             
-            if (validateLogin(username, password)) {
+            if (credentialStore.authenticate(username, password)) {
                 System.out.println("Login successful!");
                 return true;
             } else {
@@ -207,39 +667,15 @@ public class Main {
         return false;
     }
     /**
-     * Validates login credentials against stored credentials file
-     * I enhanced this by using try-with-resources for better file handling
-     * 
-     * @param username Username to validate
-     * @param password Password to validate
-     * @return true if credentials are valid, false otherwise
+     * Hashes the plain-text passwords in the credentials file (safe to run more than once)
      */
-    private static boolean validateLogin(String username, String password) {
+    private static void migrateCredentials() {
         try {
-            File file = new File(LOGIN_CREDENTIALS_FILE);
-            Scanner fileScanner = new Scanner(file);
-            
-            while (fileScanner.hasNextLine()) {
-                String line = fileScanner.nextLine();
-                String[] parts = line.split(",");
-                
-                if (parts.length >= 2) {
-                    String storedUsername = parts[0].trim();
-                    String storedPassword = parts[1].trim();
-                    
-                    if (username.equals(storedUsername) && password.equals(storedPassword)) {
-                        fileScanner.close();
-                        return true;
-                    }
-                }
-            }
-            
-            fileScanner.close();
+            int migrated = CredentialStore.migrate(LOGIN_CREDENTIALS_FILE, CredentialStore.getConfiguredIterations());
+            System.out.println("Hashed " + migrated + " plain-text password(s) in " + LOGIN_CREDENTIALS_FILE + ".");
         } catch (IOException e) {
-            System.out.println("Error reading credentials: " + e.getMessage());
+            System.out.println("Error migrating credentials: " + e.getMessage());
         }
-        
-        return false;
     }
     
     /**
@@ -248,11 +684,9 @@ public class Main {
      */
     private static void createDefaultLoginCredentials() {
         try {
-            // NOTE: In a real system, we'd encrypt passwords
-            // But for this project, plain text is acceptable
-            java.io.PrintWriter writer = new java.io.PrintWriter(LOGIN_CREDENTIALS_FILE);
-            writer.println("admin,admin123");
-            writer.close();
+            // Stored as a salted PBKDF2 hash, never in plain text
+            String adminLine = "admin," + CredentialStore.hashPassword("admin123", CredentialStore.getConfiguredIterations());
+            AtomicFileWriter.write(LOGIN_CREDENTIALS_FILE, writer -> writer.write(adminLine + System.lineSeparator()));
             System.out.println("Default login credentials created.");
         } catch (IOException e) {
             System.out.println("Error creating credentials file: " + e.getMessage());
@@ -262,12 +696,17 @@ public class Main {
     /**
      * Shows the employee list screen and handles employee selection
      * I spent extra time on the UI formatting to make it more readable
+     * Typing a name or employee ID instead of a number searches the registry.
+     * An exact employee ID wins over a list number, and only the first
+     * EMPLOYEE_LIST_ROWS employees are listed so a big registry doesn't
+     * scroll for minutes
      * 
      * @param scanner Scanner for input
-     * @param employeeList List of available employees
+     * @param employeeRegistry All available employees
      * @return Selected employee or null if selection failed
      */
-    private static Employee showEmployeeListScreen(Scanner scanner, List<Employee> employeeList) {
+    private static Employee showEmployeeListScreen(Scanner scanner, EmployeeRegistry employeeRegistry) {
+        List<Employee> employeeList = employeeRegistry.getEmployees();
         System.out.println("+-------------------------+");
         System.out.println("|      EMPLOYEE LIST      |");
         System.out.println("+-------------------------+");
@@ -276,19 +715,77 @@ public class Main {
         
         // Display employee list with numbers for selection
         // Interesting challenge: using i+1 for display but i for indexing
-        for (int i = 0; i < employeeList.size(); i++) {
+        int shown = Math.min(employeeList.size(), EMPLOYEE_LIST_ROWS);
+        for (int i = 0; i < shown; i++) {
             Employee emp = employeeList.get(i);
             System.out.println((i + 1) + " - " + emp.getLastName() + ", " + emp.getFirstName());
         }
+        if (shown < employeeList.size()) {
+            System.out.println("... and " + (employeeList.size() - shown) + " more");
+        }
         
         System.out.println();
-        System.out.print("Select Employee [1-" + employeeList.size() + "]: ");
+        System.out.println("(Or type a name or employee ID to search)");
+        System.out.print("Select Employee [1-" + shown + "]: ");
         
+        String input = scanner.nextLine().trim();
+        // Check IDs first - otherwise with 10,001+ employees "10001" would be a list number
+        if (employeeRegistry.findById(input) != null) {
+            return showEmployeeSearchResults(scanner, employeeRegistry, input);
+        }
         try {
-            int choice = Integer.parseInt(scanner.nextLine());
+            int choice = Integer.parseInt(input);
             
-            if (choice >= 1 && choice <= employeeList.size()) {
+            if (choice >= 1 && choice <= shown) {
                 return employeeList.get(choice - 1);
+            }
+        } catch (NumberFormatException e) {
+            // Not a list number - treat it as a search below
+        }
+        
+        if (input.isEmpty()) {
+            System.out.println("Invalid input. Please enter a number.");
+            return null;
+        }
+        return showEmployeeSearchResults(scanner, employeeRegistry, input);
+    }
+    
+    /**
+     * Searches by ID or name and lets the user pick from the matches
+     * 
+     * @param scanner Scanner for input
+     * @param employeeRegistry All available employees
+     * @param query Employee ID or part of a name
+     * @return Selected employee or null if nothing matched or the selection failed
+     */
+    private static Employee showEmployeeSearchResults(Scanner scanner, EmployeeRegistry employeeRegistry, String query) {
+        List<Employee> matches = employeeRegistry.search(query);
+        if (matches.isEmpty()) {
+            System.out.println("No employees match '" + query + "'.");
+            return null;
+        }
+        if (matches.size() == 1) {
+            Employee match = matches.get(0);
+            System.out.println("Found: " + match.getLastName() + ", " + match.getFirstName()
+                               + " (ID: " + match.getEmployeeNumber() + ")");
+            return match;
+        }
+        
+        System.out.println();
+        System.out.println("Employees matching '" + query + "':");
+        for (int i = 0; i < matches.size(); i++) {
+            Employee emp = matches.get(i);
+            System.out.println((i + 1) + " - " + emp.getLastName() + ", " + emp.getFirstName()
+                               + " (ID: " + emp.getEmployeeNumber() + ")");
+        }
+        System.out.println();
+        System.out.print("Select Employee [1-" + matches.size() + "]: ");
+        
+        try {
+            int choice = Integer.parseInt(scanner.nextLine().trim());
+            
+            if (choice >= 1 && choice <= matches.size()) {
+                return matches.get(choice - 1);
             } else {
                 System.out.println("Invalid selection.");
                 return null;
@@ -379,9 +876,8 @@ public class Main {
      * @return User's menu choice
      */
     private static int showMainMenu(Scanner scanner, Employee employee, String weekStart) {
-        // Calculate end of week (simple calculation - just add 4 days)
-        // This was tricky to get right with dates!
-        String weekEnd = calculateWeekEnd(weekStart);
+        // End of week (Friday) comes precomputed from the pay calendar
+        String weekEnd = PAY_CALENDAR.getWeekEnd(weekStart);
         
         // Display menu header
         System.out.println("+----------------------------+");
@@ -407,59 +903,6 @@ public class Main {
         }
     }
     
-    /**
-     * Helper method to calculate week end date from week start date
-     * Fixed the original version that had problems with month boundaries
-     * 
-     * @param weekStart Week start date in MM/dd/yyyy format
-     * @return Week end date in MM/dd/yyyy format
-     */
-    private static String calculateWeekEnd(String weekStart) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy");
-        try {
-            // Used the Calendar class to handle date arithmetic properly
-            // Much better than trying to manually calculate with days and months!
-            Date startDate = dateFormat.parse(weekStart);
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(startDate);
-            
-            // Add 4 days to get to Friday (assuming Monday start)
-            // Using Calendar.DAY_OF_MONTH is cleaner than direct number manipulation
-            calendar.add(Calendar.DAY_OF_MONTH, 4);
-            
-            return dateFormat.format(calendar.getTime());
-        } catch (ParseException e) {
-            System.out.println("Error calculating week end date: " + e.getMessage());
-            // Fallback to the original simple calculation
-            // This isn't perfect but works for most cases
-            String[] parts = weekStart.split("/");
-            if (parts.length != 3) return weekStart;
-            
-            int month = Integer.parseInt(parts[0]);
-            int day = Integer.parseInt(parts[1]) + 4; // Add 4 days for a 5-day work week
-            int year = Integer.parseInt(parts[2]);
-            
-            // Simple adjustment for month end (not handling all edge cases)
-            // This is a basic algorithm for month lengths
-            int daysInMonth = 30;
-            if (month == 2) {
-                daysInMonth = 28;
-            } else if (month == 1 || month == 3 || month == 5 || month == 7 || month == 8 || month == 10 || month == 12) {
-                daysInMonth = 31;
-            }
-            
-            if (day > daysInMonth) {
-                day = day - daysInMonth;
-                month++;
-                if (month > 12) {
-                    month = 1;
-                    year++;
-                }
-            }
-            
-            return String.format("%02d/%02d/%d", month, day, year);
-        }
-    }
     /**
      * Loads the list of employees from the employee data file
      * Added better error handling and sample data creation
@@ -467,43 +910,27 @@ public class Main {
      * @return List of Employee objects
      */
     private static List<Employee> loadEmployeeList() {
-        List<Employee> employees = new ArrayList<>();
-        
+        return loadEmployeeRegistry().getEmployees();
+    }
+    
+    /**
+     * Loads the employee data file into an EmployeeRegistry (ID and name indexes)
+     * Falls back to the sample employees if the file is missing or empty
+     * 
+     * @return Registry of employees
+     */
+    private static EmployeeRegistry loadEmployeeRegistry() {
         try {
             // Check if employee data file exists
             File employeeFile = new File(EMPLOYEE_DATA_FILE);
             if (employeeFile.exists()) {
-                // Read all employees from file
-                Scanner fileScanner = new Scanner(employeeFile);
-                while (fileScanner.hasNextLine()) {
-                    String line = fileScanner.nextLine();
-                    String[] parts = line.split(",");
-                    
-                    if (parts.length >= 4) {
-                        String employeeId = parts[0].trim();
-                        String lastName = parts[1].trim();
-                        String firstName = parts[2].trim();
-                        String birthday = parts[3].trim();
-                        
-                        Employee employee = new Employee(employeeId, lastName, firstName, birthday);
-                        
-                        // Set hourly rate if available
-                        if (parts.length >= 5) {
-                            try {
-                                double hourlyRate = Double.parseDouble(parts[4].trim());
-                                employee.setHourlyRate(hourlyRate);
-                            } catch (NumberFormatException e) {
-                                // Use warning instead of error - non-critical issue
-                                System.out.println("Warning: Invalid hourly rate for employee " + employeeId);
-                            }
-                        }
-                        
-                        employees.add(employee);
-                    }
+                long start = PhaseMetrics.start();
+                EmployeeRegistry registry = EmployeeRegistry.load(EMPLOYEE_DATA_FILE);
+                PhaseMetrics.stop(PhaseMetrics.Phase.LOAD_EMPLOYEES, start);
+                System.out.println("Loaded " + registry.size() + " employees from file.");
+                if (!registry.isEmpty()) {
+                    return registry;
                 }
-                fileScanner.close();
-                
-                System.out.println("Loaded " + employees.size() + " employees from file.");
             }
         } catch (IOException e) {
             System.out.println("Error reading employee data: " + e.getMessage());
@@ -511,24 +938,23 @@ public class Main {
         
         // If no employees were loaded from file, add sample data
         // This ensures the app always has data to work with - defensive programming!
-        if (employees.isEmpty()) {
-            System.out.println("No employees found in file. Using sample data.");
-            
-            // Sample employees adapted from MotorPH data files
-            employees.add(new Employee("10001", "Garcia", "Manuel III", "10/11/1983"));
-            employees.get(0).setHourlyRate(535.71);  // ~PHP 90,000 monthly
-            
-            employees.add(new Employee("10002", "Lim", "Antonio", "06/19/1988"));
-            employees.get(1).setHourlyRate(357.14);  // ~PHP 60,000 monthly
-            
-            employees.add(new Employee("10003", "Aquino", "Bianca Sofia", "08/04/1989"));
-            employees.get(2).setHourlyRate(357.14);  // ~PHP 60,000 monthly
-            
-            // Create sample employee data file for future use
-            createSampleEmployeeDataFile(employees);
-        }
+        System.out.println("No employees found in file. Using sample data.");
+        List<Employee> employees = new ArrayList<>();
+        
+        // Sample employees adapted from MotorPH data files
+        employees.add(new Employee("10001", "Garcia", "Manuel III", "10/11/1983"));
+        employees.get(0).setHourlyRate(535.71);  // ~PHP 90,000 monthly
         
-        return employees;
+        employees.add(new Employee("10002", "Lim", "Antonio", "06/19/1988"));
+        employees.get(1).setHourlyRate(357.14);  // ~PHP 60,000 monthly
+        
+        employees.add(new Employee("10003", "Aquino", "Bianca Sofia", "08/04/1989"));
+        employees.get(2).setHourlyRate(357.14);  // ~PHP 60,000 monthly
+        
+        // Create sample employee data file for future use
+        createSampleEmployeeDataFile(employees);
+        
+        return new EmployeeRegistry(employees);
     }
     
     /**
@@ -558,7 +984,9 @@ public class Main {
         WeeklyAttendance weeklyAttendance = getWeeklyAttendance(employee.getEmployeeNumber(), weekStartDate);
         
         // Display weekly attendance details
+        long renderStart = PhaseMetrics.start();
         weeklyAttendance.displayWeeklyDetails();
+        PhaseMetrics.stop(PhaseMetrics.Phase.RENDER_REPORT, renderStart);
     }
     
     /**
@@ -584,32 +1012,31 @@ public class Main {
 
         // Calculate salary using PayrollCalculator
         // This class was really helpful for organizing the complex calculations
-        PayrollCalculator payrollCalculator = new PayrollCalculator();
+        // (the statutory rules are the ones in effect for the selected week)
+        PayrollCalculator payrollCalculator = StatutoryRuleEngine.getDefault().calculatorForWeek(weekStartDate);
 
         // Pass the hasLateness flag to handle overtime eligibility
         boolean prorateDeductions = true; // Set to true for fair weekly deductions
-        double[] salaryDetails = payrollCalculator.calculateFullSalaryDetails(
+        PayrollResult salaryDetails = payrollCalculator.calculatePayrollResult(
             regularHours, overtimeHours, hourlyRate, hasLateness, prorateDeductions);
 
         // Calculate late penalty if needed - my enhancement to the requirements
         double latePenalty = 0.0;
         if (hasLateness) {
-            latePenalty = payrollCalculator.calculateLatePenalty(salaryDetails[7], lateMinutes);
-            // Adjust net salary by subtracting the late penalty
-            salaryDetails[6] -= latePenalty;
+            latePenalty = payrollCalculator.calculateLatePenalty(salaryDetails.getRegularPay(), lateMinutes);
+            // Net pay in the result has the late penalty subtracted
+            salaryDetails = salaryDetails.withLatePenalty(latePenalty);
         }
 
-        // Format values for display - makes the numbers look nicer with commas
-        DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
-
         // Display the salary information in a professional format
         // Spent a lot of time on this to match the wireframe layout
+        long renderStart = PhaseMetrics.start();
         System.out.println("+---------------------------------------+");
         System.out.println("|         WEEKLY SALARY REPORT          |");
         System.out.println("+---------------------------------------+");
         System.out.println("Employee:           " + employee.getFullName() + " (ID: " + employee.getEmployeeNumber() + ")");
         System.out.println("Week of:            " + weekStartDate);
-        System.out.println("Hourly Rate:        PHP " + currencyFormat.format(hourlyRate));
+        System.out.println("Hourly Rate:        PHP " + CurrencyFormatter.format(hourlyRate));
         System.out.println();
 
         System.out.println("ATTENDANCE SUMMARY");
@@ -636,42 +1063,42 @@ public class Main {
         System.out.println();
         System.out.println("EARNINGS");
         System.out.println("---------------------------------------");
-        System.out.println("Regular Pay:        PHP " + currencyFormat.format(salaryDetails[7]));
+        System.out.println("Regular Pay:        PHP " + CurrencyFormatter.format(salaryDetails.getRegularPay()));
         if (overtimeHours > 0) {
-            System.out.println("Overtime Pay:       PHP " + currencyFormat.format(salaryDetails[8]));
+            System.out.println("Overtime Pay:       PHP " + CurrencyFormatter.format(salaryDetails.getOvertimePay()));
         }
-        System.out.println("GROSS PAY:          PHP " + currencyFormat.format(salaryDetails[0]));
+        System.out.println("GROSS PAY:          PHP " + CurrencyFormatter.format(salaryDetails.getGrossPay()));
 
         // Show deductions section (statutory deductions always apply)
         System.out.println();
         System.out.println("DEDUCTIONS");
         System.out.println("---------------------------------------");
         // Get the monthly values (multiply weekly by 4 since we're prorating by dividing by 4)
-        double monthlySSSContribution = salaryDetails[1] * 4;
-        double monthlyPhilHealth = salaryDetails[2] * 4;
-        double monthlyPagIBIG = salaryDetails[3] * 4;
-        double monthlyTax = salaryDetails[5] * 4;
+        double monthlySSSContribution = salaryDetails.getSssContribution() * 4;
+        double monthlyPhilHealth = salaryDetails.getPhilHealthContribution() * 4;
+        double monthlyPagIBIG = salaryDetails.getPagIbigContribution() * 4;
+        double monthlyTax = salaryDetails.getWithholdingTax() * 4;
 
-        System.out.println("SSS:                PHP " + currencyFormat.format(salaryDetails[1]) + " (weekly) / PHP " + currencyFormat.format(monthlySSSContribution) + " (monthly)");
-        System.out.println("PhilHealth:         PHP " + currencyFormat.format(salaryDetails[2]) + " (weekly) / PHP " + currencyFormat.format(monthlyPhilHealth) + " (monthly)" );
-        System.out.println("Pag-IBIG:           PHP " + currencyFormat.format(salaryDetails[3]) + " (weekly) / PHP " + currencyFormat.format(monthlyPagIBIG) + " (monthly)" );
-        System.out.println("Withholding Tax:    PHP " + currencyFormat.format(salaryDetails[5]) + " (weekly) / PHP " + currencyFormat.format(monthlyTax) + " (monthly)" );
+        System.out.println("SSS:                PHP " + CurrencyFormatter.format(salaryDetails.getSssContribution()) + " (weekly) / PHP " + CurrencyFormatter.format(monthlySSSContribution) + " (monthly)");
+        System.out.println("PhilHealth:         PHP " + CurrencyFormatter.format(salaryDetails.getPhilHealthContribution()) + " (weekly) / PHP " + CurrencyFormatter.format(monthlyPhilHealth) + " (monthly)" );
+        System.out.println("Pag-IBIG:           PHP " + CurrencyFormatter.format(salaryDetails.getPagIbigContribution()) + " (weekly) / PHP " + CurrencyFormatter.format(monthlyPagIBIG) + " (monthly)" );
+        System.out.println("Withholding Tax:    PHP " + CurrencyFormatter.format(salaryDetails.getWithholdingTax()) + " (weekly) / PHP " + CurrencyFormatter.format(monthlyTax) + " (monthly)" );
         // If we're using the optional late penalty
         if (latePenalty > 0) {
-            System.out.println("Late Penalty:       PHP " + currencyFormat.format(latePenalty));
+            System.out.println("Late Penalty:       PHP " + CurrencyFormatter.format(latePenalty));
         }
 
-        double totalDeductions = salaryDetails[1] + salaryDetails[2] + salaryDetails[3] + salaryDetails[5] + latePenalty;
-        System.out.println("TOTAL DEDUCTIONS:   PHP " + currencyFormat.format(totalDeductions));
+        double totalDeductions = salaryDetails.getTotalDeductions();
+        System.out.println("TOTAL DEDUCTIONS:   PHP " + CurrencyFormatter.format(totalDeductions));
 
         System.out.println();
         System.out.println("PAYMENT SUMMARY");
         System.out.println("---------------------------------------");
-        System.out.println("Gross Pay:          PHP " + currencyFormat.format(salaryDetails[0]));
+        System.out.println("Gross Pay:          PHP " + CurrencyFormatter.format(salaryDetails.getGrossPay()));
 
-        System.out.println("Total Deductions:   PHP " + currencyFormat.format(totalDeductions));
+        System.out.println("Total Deductions:   PHP " + CurrencyFormatter.format(totalDeductions));
 
-        System.out.println("NET PAY:            PHP " + currencyFormat.format(salaryDetails[6]));
+        System.out.println("NET PAY:            PHP " + CurrencyFormatter.format(salaryDetails.getNetPay()));
 
         // Display any applicable notes
         System.out.println();
@@ -697,22 +1124,22 @@ public class Main {
             }
 
             System.out.println("* Late penalty calculation: 10% of regular pay (PHP " + 
-                              currencyFormat.format(salaryDetails[7]) + ") x " + 
+                              CurrencyFormatter.format(salaryDetails.getRegularPay()) + ") x " + 
                               String.format("%.2f", percentOfWorkday * 100) + "% of workday");
-            System.out.println("* Formula: PHP " + currencyFormat.format(salaryDetails[7]) + " x 0.10 x " + 
+            System.out.println("* Formula: PHP " + CurrencyFormatter.format(salaryDetails.getRegularPay()) + " x 0.10 x " + 
                               String.format("%.4f", percentOfWorkday) + " = PHP " + 
-                              currencyFormat.format(latePenalty));
+                              CurrencyFormatter.format(latePenalty));
 
             // If the cap was applied, show that information
-            double uncappedPenalty = salaryDetails[7] * 0.10 * percentOfWorkday;
-            double penaltyCap = salaryDetails[7] * 0.20;
+            double uncappedPenalty = salaryDetails.getRegularPay() * 0.10 * percentOfWorkday;
+            double penaltyCap = salaryDetails.getRegularPay() * 0.20;
             if (uncappedPenalty > penaltyCap) {
                 System.out.println("* Penalty exceeds 20% cap: Reduced from PHP " + 
-                                  currencyFormat.format(uncappedPenalty) + " to PHP " + 
-                                  currencyFormat.format(latePenalty));
+                                  CurrencyFormatter.format(uncappedPenalty) + " to PHP " + 
+                                  CurrencyFormatter.format(latePenalty));
             } else {
                 System.out.println("* Maximum possible penalty (20% of regular pay): PHP " + 
-                                  currencyFormat.format(penaltyCap));
+                                  CurrencyFormatter.format(penaltyCap));
             }
         } else {
             System.out.println("* Employee had perfect attendance this week");
@@ -729,6 +1156,30 @@ public class Main {
                               String.format("%.2f", potentialOvertimeHours) + 
                               " hours, but is ineligible due to tardiness this week");
         }
+        PhaseMetrics.stop(PhaseMetrics.Phase.RENDER_REPORT, renderStart);
+    }
+    
+    /**
+     * Reads one employee-week from the SQL store (prepared statement on the primary key)
+     * 
+     * @param employeeId Employee ID
+     * @param weekStartDate Week start date
+     * @return Rows from the database, or an empty list if no store is configured or it has none
+     */
+    private static List<TimeKeeping> readAttendanceFromDatabase(String employeeId, String weekStartDate) {
+        if (System.getProperty(JdbcPayrollStore.URL_PROPERTY) == null || weekStartDate.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            if (database == null) {
+                database = JdbcPayrollStore.openConfigured();
+            }
+            return database.getAttendance(employeeId, weekStartDate);
+        } catch (IOException e) {
+            System.out.println("Error reading attendance from database: " + e.getMessage());
+            System.out.println("Using the attendance files instead.");
+            return new ArrayList<>();
+        }
     }
     
     /**
@@ -742,28 +1193,38 @@ public class Main {
     private static WeeklyAttendance getWeeklyAttendance(String employeeId, String weekStartDate) {
         WeeklyAttendance weeklyAttendance = new WeeklyAttendance(employeeId, weekStartDate);
         
+        // Indexed lookup in the SQL store if one is configured
+        List<TimeKeeping> storedRecords = readAttendanceFromDatabase(employeeId, weekStartDate);
+        if (!storedRecords.isEmpty()) {
+            for (TimeKeeping record : storedRecords) {
+                weeklyAttendance.addDailyAttendance(record);
+            }
+            System.out.println("Attendance data loaded successfully from database.");
+            return weeklyAttendance;
+        }
+        
         // Construct attendance file path with week date
         // Using file naming convention based on week start date
         String attendanceFilePath = ATTENDANCE_DATA_FILE;
         if (!weekStartDate.isEmpty()) {
-            // Replace slashes with underscores for filename
-            String weekDateFormatted = weekStartDate.replace("/", "_");
-            attendanceFilePath = "attendance_" + weekDateFormatted + ".txt";
+            attendanceFilePath = PAY_CALENDAR.getAttendanceFilePath(weekStartDate);
         }
         
         // Try to read attendance records from file
+        boolean readFailed = false;
         try {
             // Check if attendance data file exists
             File attendanceFile = new File(attendanceFilePath);
             if (attendanceFile.exists()) {
-                TimeKeeping[] records = FileHandler.readAttendanceRecords(attendanceFilePath, employeeId);
+                // Index lookup - the file is only scanned again if it changed on disk
+                List<TimeKeeping> records = ATTENDANCE_INDEX.getRecords(attendanceFilePath, employeeId);
                 
                 // Add records to weekly attendance
                 for (TimeKeeping record : records) {
                     weeklyAttendance.addDailyAttendance(record);
                 }
                 
-                if (records.length > 0) {
+                if (!records.isEmpty()) {
                     System.out.println("Attendance data loaded successfully from file.");
                     return weeklyAttendance;
                 } else {
@@ -774,7 +1235,8 @@ public class Main {
             }
         } catch (IOException e) {
             System.out.println("Error reading attendance data: " + e.getMessage());
-            System.out.println("Using sample data instead.");
+            System.out.println("Using sample data instead (not saved).");
+            readFailed = true;
         }
         
         // If no file or empty records, use sample data based on the employee ID
@@ -795,8 +1257,11 @@ public class Main {
             weeklyAttendance.addDailyAttendance(new TimeKeeping(employeeId, "Fri", "8:10", "18:00"));
         }
         
-        // Create sample attendance data file for future use
-        createSampleAttendanceDataFile(employeeId, weekStartDate);
+        // Create sample attendance data file for future use - but never after a read
+        // error, we don't know what is in that file
+        if (!readFailed) {
+            createSampleAttendanceDataFile(employeeId, weekStartDate);
+        }
         
         return weeklyAttendance;
     }
@@ -808,14 +1273,14 @@ public class Main {
      */
     private static void createSampleEmployeeDataFile(List<Employee> employees) {
         try {
-            java.io.PrintWriter writer = new java.io.PrintWriter(EMPLOYEE_DATA_FILE);
-            
-            for (Employee emp : employees) {
-                writer.println(emp.getEmployeeNumber() + "," + emp.getLastName() + "," + 
-                               emp.getFirstName() + "," + emp.getBirthday() + "," + emp.getHourlyRate());
-            }
-            
-            writer.close();
+            // Temp file + atomic rename, so a crash can't leave half an employee file behind
+            AtomicFileWriter.write(EMPLOYEE_DATA_FILE, writer -> {
+                for (Employee emp : employees) {
+                    writer.write(emp.getEmployeeNumber() + "," + emp.getLastName() + "," + 
+                                 emp.getFirstName() + "," + emp.getBirthday() + "," + emp.getHourlyRate());
+                    writer.write(System.lineSeparator());
+                }
+            });
             System.out.println("Sample employee data file created.");
         } catch (IOException e) {
             System.out.println("Error creating sample file: " + e.getMessage());
@@ -823,37 +1288,41 @@ public class Main {
     }
     
     /**
-     * Creates sample attendance data file for testing
+     * Creates sample attendance data file for testing. Only for a week that has no
+     * file yet - a real week (maybe with live clock rows for people who haven't
+     * clocked out) is never touched, the sample rows are just shown for it.
      * 
      * @param employeeId Employee ID for the attendance records
      * @param weekStartDate Start date of the week
      */
     private static void createSampleAttendanceDataFile(String employeeId, String weekStartDate) {
+        if (new File(FileHandler.getAttendanceFilePath(weekStartDate)).exists()) {
+            return;
+        }
         try {
-            // Replace slashes with underscores for filename
-            String weekDateFormatted = weekStartDate.replace("/", "_");
-            String filePath = "attendance_" + weekDateFormatted + ".txt";
-            
-            java.io.PrintWriter writer = new java.io.PrintWriter(filePath);
-            
+            String[] rows;
             if (employeeId.equals("10001")) {
                 // Sample data for Garcia
-                writer.println(employeeId + ",Mon,8:59,18:31");
-                writer.println(employeeId + ",Tue,9:47,19:07");
-                writer.println(employeeId + ",Wed,10:57,21:32");
-                writer.println(employeeId + ",Thu,9:32,19:15");
-                writer.println(employeeId + ",Fri,9:46,19:15");
+                rows = new String[] { "Mon,8:59,18:31", "Tue,9:47,19:07", "Wed,10:57,21:32", "Thu,9:32,19:15", "Fri,9:46,19:15" };
             } else {
                 // Generic sample data
-                writer.println(employeeId + ",Mon,8:05,17:00");
-                writer.println(employeeId + ",Tue,8:00,17:30");
-                writer.println(employeeId + ",Wed,8:15,17:45");
-                writer.println(employeeId + ",Thu,8:02,17:15");
-                writer.println(employeeId + ",Fri,8:10,18:00");
+                rows = new String[] { "Mon,8:05,17:00", "Tue,8:00,17:30", "Wed,8:15,17:45", "Thu,8:02,17:15", "Fri,8:10,18:00" };
             }
             
-            writer.close();
-            System.out.println("Sample attendance data file created: " + filePath);
+            // Merged into whatever is there by now (--ingest may have created the week
+            // since the check above), so no other employee's rows are lost
+            TextPayrollStore store = new TextPayrollStore(".", ATTENDANCE_INDEX);
+            Map<String, List<TimeKeeping>> week = WriteAheadJournal.copyWeek(store.getWeek(weekStartDate));
+            List<TimeKeeping> records = week.computeIfAbsent(employeeId, id -> new ArrayList<>());
+            if (!records.isEmpty()) {
+                return;
+            }
+            for (String row : rows) {
+                String[] fields = row.split(",");
+                records.add(new TimeKeeping(employeeId, fields[0], fields[1], fields[2]));
+            }
+            store.saveWeek(weekStartDate, week);
+            System.out.println("Sample attendance data file created: " + FileHandler.getAttendanceFilePath(weekStartDate));
         } catch (IOException e) {
             System.out.println("Error creating sample file: " + e.getMessage());
         }
@@ -0,0 +1,278 @@
+// MappedAttendanceReader.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Attendance file reader that works on raw bytes instead of lines of text.
+ * 
+ * The BufferedReader + split(",") approach creates a String, a String[] and
+ * four trimmed substrings for every row, even rows for other employees.
+ * Here the file is memory-mapped (or read into one buffer if it's small) and
+ * the commas are found directly in the bytes. The employee ID column is
+ * compared byte-by-byte, and Strings are only created for rows we keep.
+ * 
+ * Rows are accepted the same way the old BufferedReader version did it:
+ * at least four columns (trailing empty columns don't count, same as split)
+ * and every column trimmed.
+ * 
+ * Lines read / matched / malformed are added to the PayrollLog counters once
+ * per file, and each line can be logged at DEBUG level (sampled).
+ */
+public class MappedAttendanceReader {
+    // Files smaller than this are read into a heap buffer instead of being mapped.
+    // Mapping has a fixed setup cost, and on Windows a mapped file can't be rewritten
+    // until the mapping is garbage collected - the sample data writer needs that.
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+    
+    // Day names are shared instead of creating a new String for every row
+    private static final String[] DAY_NAMES = { "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" };
+    
+    // Same charset FileReader uses, so Strings come out identical
+    private static final Charset CHARSET = Charset.defaultCharset();
+    
+    /**
+     * Read the rows for one employee
+     * 
+     * @param filePath Path to the attendance data file
+     * @param employeeId Employee ID to filter records
+     * @return Records for that employee, in file order
+     * @throws IOException If there's an error reading the file
+     */
+    public static TimeKeeping[] readRecords(String filePath, String employeeId) throws IOException {
+        List<TimeKeeping> records = new ArrayList<>();
+        byte[] idBytes = employeeId.getBytes(CHARSET);
+        ByteBuffer buffer = open(filePath);
+        
+        int[] fields = new int[8]; // start/end of the first four columns
+        boolean debug = PayrollLog.isDebugEnabled(); // checked once per file, not per line
+        long linesRead = 0;
+        long malformedLines = 0;
+        int position = 0;
+        int limit = buffer.limit();
+        while (position < limit) {
+            int lineEnd = findLineEnd(buffer, position, limit);
+            if (lineEnd > position) { // skip the empty "line" between \r and \n
+                linesRead++;
+                if (debug && PayrollLog.sampleDebug()) {
+                    PayrollLog.debug("Reading line: " + decode(buffer, position, lineEnd));
+                }
+                if (!splitLine(buffer, position, lineEnd, fields)) {
+                    malformedLines++;
+                } else if (bytesEqual(buffer, fields[0], fields[1], idBytes)) {
+                    records.add(new TimeKeeping(employeeId,
+                        dayName(buffer, fields[2], fields[3]),
+                        decode(buffer, fields[4], fields[5]),
+                        decode(buffer, fields[6], fields[7])));
+                }
+            }
+            position = lineEnd + 1;
+        }
+        
+        PayrollLog.count(PayrollLog.Counter.LINES_READ, linesRead);
+        PayrollLog.count(PayrollLog.Counter.LINES_MATCHED, records.size());
+        PayrollLog.count(PayrollLog.Counter.MALFORMED_LINES, malformedLines);
+        return records.toArray(new TimeKeeping[0]);
+    }
+    
+    /**
+     * Read every row in the file, grouped by employee ID
+     * 
+     * @param filePath Path to the attendance data file
+     * @return Records per employee ID, in the order employees first appear in the file
+     * @throws IOException If there's an error reading the file
+     */
+    public static Map<String, List<TimeKeeping>> readAll(String filePath) throws IOException {
+        Map<String, List<TimeKeeping>> recordsByEmployee = new LinkedHashMap<>();
+        ByteBuffer buffer = open(filePath);
+        
+        int[] fields = new int[8];
+        int position = 0;
+        int limit = buffer.limit();
+        
+        // Rows are normally grouped by employee, so remember the last ID we saw
+        // and skip the String + map lookup when the next row has the same bytes
+        int lastIdStart = -1;
+        int lastIdEnd = -1;
+        String lastId = null;
+        List<TimeKeeping> lastList = null;
+        
+        boolean debug = PayrollLog.isDebugEnabled();
+        long linesRead = 0;
+        long linesMatched = 0;
+        long malformedLines = 0;
+        
+        while (position < limit) {
+            int lineEnd = findLineEnd(buffer, position, limit);
+            if (lineEnd > position) {
+                linesRead++;
+                if (debug && PayrollLog.sampleDebug()) {
+                    PayrollLog.debug("Reading line: " + decode(buffer, position, lineEnd));
+                }
+                if (!splitLine(buffer, position, lineEnd, fields)) {
+                    malformedLines++;
+                } else {
+                    if (lastId == null || !sameBytes(buffer, fields[0], fields[1], lastIdStart, lastIdEnd)) {
+                        lastId = decode(buffer, fields[0], fields[1]);
+                        lastList = recordsByEmployee.computeIfAbsent(lastId, key -> new ArrayList<>());
+                        lastIdStart = fields[0];
+                        lastIdEnd = fields[1];
+                    }
+                    lastList.add(new TimeKeeping(lastId,
+                        dayName(buffer, fields[2], fields[3]),
+                        decode(buffer, fields[4], fields[5]),
+                        decode(buffer, fields[6], fields[7])));
+                    linesMatched++;
+                }
+            }
+            position = lineEnd + 1;
+        }
+        
+        PayrollLog.count(PayrollLog.Counter.LINES_READ, linesRead);
+        PayrollLog.count(PayrollLog.Counter.LINES_MATCHED, linesMatched);
+        PayrollLog.count(PayrollLog.Counter.MALFORMED_LINES, malformedLines);
+        return recordsByEmployee;
+    }
+    
+    // Map big files, read small ones into a plain buffer
+    private static ByteBuffer open(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Attendance file is too large (over 2 GB): " + filePath);
+            }
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+    
+    // Lines end at \n or \r like BufferedReader.readLine (a \r\n pair just gives an empty line, which is skipped)
+    private static int findLineEnd(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return limit;
+    }
+    
+    /**
+     * Finds the first four columns of a line and trims them.
+     * fields gets start/end pairs: [0,1] = ID, [2,3] = date, [4,5] = time in, [6,7] = time out.
+     * 
+     * @return true if the line has at least four columns (same rule as String.split)
+     */
+    private static boolean splitLine(ByteBuffer buffer, int start, int end, int[] fields) {
+        int column = 0;
+        int columnStart = start;
+        for (int i = start; i < end && column < 3; i++) {
+            if (buffer.get(i) == ',') {
+                fields[column * 2] = columnStart;
+                fields[column * 2 + 1] = i;
+                column++;
+                columnStart = i + 1;
+            }
+        }
+        if (column < 3) {
+            return false; // Fewer than four columns
+        }
+        
+        // Fourth column runs to the next comma or the end of the line
+        int fourthEnd = columnStart;
+        while (fourthEnd < end && buffer.get(fourthEnd) != ',') {
+            fourthEnd++;
+        }
+        fields[6] = columnStart;
+        fields[7] = fourthEnd;
+        
+        // split(",") drops trailing empty columns, so the row only counts if
+        // something other than commas follows the third comma
+        boolean hasFourthColumn = false;
+        for (int i = columnStart; i < end; i++) {
+            if (buffer.get(i) != ',') {
+                hasFourthColumn = true;
+                break;
+            }
+        }
+        if (!hasFourthColumn) {
+            return false;
+        }
+        
+        // Trim like String.trim() - anything <= space at either end
+        for (int f = 0; f < 8; f += 2) {
+            int s = fields[f];
+            int e = fields[f + 1];
+            while (s < e && (buffer.get(s) & 0xFF) <= ' ') {
+                s++;
+            }
+            while (e > s && (buffer.get(e - 1) & 0xFF) <= ' ') {
+                e--;
+            }
+            fields[f] = s;
+            fields[f + 1] = e;
+        }
+        return true;
+    }
+    
+    private static boolean bytesEqual(ByteBuffer buffer, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean sameBytes(ByteBuffer buffer, int start, int end, int otherStart, int otherEnd) {
+        if (end - start != otherEnd - otherStart) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (buffer.get(start + i) != buffer.get(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Returns one of the shared day name constants when the column is a standard day
+    private static String dayName(ByteBuffer buffer, int start, int end) {
+        if (end - start == 3) {
+            for (String day : DAY_NAMES) {
+                if (buffer.get(start) == day.charAt(0) && buffer.get(start + 1) == day.charAt(1)
+                        && buffer.get(start + 2) == day.charAt(2)) {
+                    return day;
+                }
+            }
+        }
+        return decode(buffer, start, end);
+    }
+    
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, CHARSET);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes); // absolute bulk get, doesn't move the buffer position
+        return new String(bytes, CHARSET);
+    }
+}
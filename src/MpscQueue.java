@@ -0,0 +1,75 @@
+// MpscQueue.java
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free multi-producer, single-consumer queue (the linked-node design
+ * from Dmitry Vyukov's MPSC queue).
+ * 
+ * Producers only do one atomic getAndSet on the tail, so thousands of
+ * threads handing in clock events at 8:00 AM never block each other or
+ * the consumer. Only one thread may call poll() - that's what makes the
+ * consumer side free of atomics too.
+ * 
+ * A producer that has swapped the tail but not linked its node yet makes
+ * the queue look empty for a moment; poll() just returns null and the
+ * consumer picks the item up on its next try.
+ */
+public class MpscQueue<E> {
+    private final AtomicReference<Node<E>> tail;
+    private Node<E> head; // Consumer thread only
+    
+    public MpscQueue() {
+        Node<E> stub = new Node<>(null);
+        head = stub;
+        tail = new AtomicReference<>(stub);
+    }
+    
+    /**
+     * Add an item (any thread, never blocks)
+     * 
+     * @param item Item to add, not null
+     */
+    public void offer(E item) {
+        if (item == null) {
+            throw new NullPointerException("MpscQueue doesn't take nulls");
+        }
+        Node<E> node = new Node<>(item);
+        Node<E> previous = tail.getAndSet(node);
+        previous.next = node; // Publishes the node to the consumer
+    }
+    
+    /**
+     * Take the oldest item (consumer thread only)
+     * 
+     * @return Oldest item, or null if nothing is ready yet
+     */
+    public E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            return null;
+        }
+        E item = next.item;
+        next.item = null; // The node becomes the new stub - don't keep the item reachable
+        head = next;
+        return item;
+    }
+    
+    /**
+     * Check for items that have been offered but not polled, including ones
+     * still being linked in (consumer thread only)
+     * 
+     * @return true if nothing is left
+     */
+    public boolean isEmpty() {
+        return head == tail.get();
+    }
+    
+    private static final class Node<E> {
+        private E item;
+        private volatile Node<E> next;
+        
+        private Node(E item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+// ParallelPayrollExecutor.java
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the batch payroll on several cores at once.
+ * 
+ * Pay for one employee-week doesn't depend on any other employee-week, so
+ * the employee list is split across a ForkJoinPool. The weekly attendance
+ * files are loaded in parallel first (through the shared AttendanceIndex),
+ * then the employees are cut into a few slices per worker and each slice
+ * fills its own PayrollResultBatch (columns, not an object per row). The
+ * slices are joined in order, so results always come back in employee ID
+ * order, then week order, no matter how many workers were used.
+ * 
+ * With a PayrollResultCache, unchanged weekly files aren't read at all and
+ * only employee-weeks whose rows or hourly rate changed are recomputed.
+ */
+public class ParallelPayrollExecutor {
+    // System property for the worker count, e.g. -Dmotorph.payroll.threads=32
+    public static final String THREADS_PROPERTY = "motorph.payroll.threads";
+    
+    // More slices than workers so a slow slice doesn't leave the others idle
+    private static final int SLICES_PER_WORKER = 4;
+    
+    // Employee IDs as numbers ("9999" before "10001"), IDs that aren't plain numbers after them as text
+    private static final Comparator<Employee> BY_EMPLOYEE_ID = (a, b) -> compareIds(a.getEmployeeNumber(), b.getEmployeeNumber());
+    
+    private final int workerCount;
+    private final AttendanceIndex attendanceIndex;
+    private final PayrollBatchRunner batchRunner;
+    private final PayrollResultCache resultCache; // null = always recompute
+    private final AtomicInteger unreadableWeeks = new AtomicInteger();
+    
+    /**
+     * Create an executor using the configured (or default) worker count
+     * 
+     * @param attendanceIndex Index used to look up weekly attendance
+     */
+    public ParallelPayrollExecutor(AttendanceIndex attendanceIndex) {
+        this(getDefaultWorkerCount(), attendanceIndex);
+    }
+    
+    /**
+     * Create an executor with an explicit worker count
+     * 
+     * @param workerCount Number of worker threads (at least 1)
+     * @param attendanceIndex Index used to look up weekly attendance
+     */
+    public ParallelPayrollExecutor(int workerCount, AttendanceIndex attendanceIndex) {
+        this(workerCount, attendanceIndex, null);
+    }
+    
+    /**
+     * Create an executor that reuses results from a previous run where the inputs didn't change
+     * 
+     * @param workerCount Number of worker threads (at least 1)
+     * @param attendanceIndex Index used to look up weekly attendance
+     * @param resultCache Cache of earlier results (updated by run), or null
+     */
+    public ParallelPayrollExecutor(int workerCount, AttendanceIndex attendanceIndex, PayrollResultCache resultCache) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workerCount);
+        }
+        this.workerCount = workerCount;
+        this.attendanceIndex = attendanceIndex;
+        this.batchRunner = new PayrollBatchRunner();
+        this.resultCache = resultCache;
+    }
+    
+    /**
+     * Worker count from the motorph.payroll.threads property, or one per CPU core
+     * 
+     * @return Default number of worker threads
+     */
+    public static int getDefaultWorkerCount() {
+        String configured = System.getProperty(THREADS_PROPERTY);
+        if (configured != null) {
+            try {
+                int threads = Integer.parseInt(configured.trim());
+                if (threads >= 1) {
+                    return threads;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the default below
+            }
+            PayrollLog.warn("Invalid " + THREADS_PROPERTY + " value '" + configured + "', using CPU count");
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+    
+    public int getWorkerCount() {
+        return workerCount;
+    }
+    
+    /**
+     * Weekly files that couldn't be read in the last run (they were skipped like missing weeks)
+     * @return Unreadable week count
+     */
+    public int getUnreadableWeeks() {
+        return unreadableWeeks.get();
+    }
+    
+    /**
+     * Compute payroll for every (employee, week) pair that has attendance.
+     * Weeks without an attendance file are skipped, as are employees with no
+     * rows in a week (there is nothing to pay). A file that can't be read skips
+     * that week too and is counted in getUnreadableWeeks.
+     * 
+     * @param employees Employees to pay
+     * @param weekStartDates Week start dates in MM/dd/yyyy format
+     * @return Rows ordered by employee ID, then by the order of weekStartDates
+     */
+    public PayrollResultBatch run(List<Employee> employees, List<String> weekStartDates) {
+        // Sort a copy so the merge order is fixed regardless of the input list order
+        List<Employee> sortedEmployees = new ArrayList<>(employees);
+        sortedEmployees.sort(BY_EMPLOYEE_ID);
+        unreadableWeeks.set(0);
+        
+        ForkJoinPool pool = new ForkJoinPool(workerCount);
+        try {
+            // Step 1: load every weekly file once, in parallel (I/O + parsing).
+            // Weeks the cache says are unchanged come back as null and aren't read
+            List<Map<String, List<TimeKeeping>>> weeks = pool.submit(() ->
+                weekStartDates.parallelStream()
+                    .map(this::loadWeek)
+                    .collect(Collectors.toList())
+            ).get();
+            
+            // Step 2: split employees into slices - parallel streams keep encounter
+            // order when collecting, so joining the slices' batches is deterministic
+            int employeeCount = sortedEmployees.size();
+            int sliceCount = Math.min(employeeCount, workerCount * SLICES_PER_WORKER);
+            List<PayrollResultBatch> slices = pool.submit(() ->
+                IntStream.range(0, sliceCount).parallel()
+                    .mapToObj(slice -> computeSlice(sortedEmployees.subList(
+                        (int) ((long) slice * employeeCount / sliceCount),
+                        (int) ((long) (slice + 1) * employeeCount / sliceCount)), weekStartDates, weeks))
+                    .collect(Collectors.toList())
+            ).get();
+            
+            int rowCount = 0;
+            for (PayrollResultBatch slice : slices) {
+                rowCount += slice.size();
+            }
+            PayrollResultBatch results = new PayrollResultBatch(rowCount);
+            for (PayrollResultBatch slice : slices) {
+                results.addAll(slice);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Payroll run was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Payroll run failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    // Loads one week through the index - missing or unreadable files give an empty week,
+    // files unchanged since the cached results give null
+    private Map<String, List<TimeKeeping>> loadWeek(String weekStartDate) {
+        String attendanceFilePath = FileHandler.getAttendanceFilePath(weekStartDate);
+        File attendanceFile = new File(attendanceFilePath);
+        if (!attendanceFile.exists()) {
+            return Collections.emptyMap();
+        }
+        if (resultCache == null) {
+            Map<String, List<TimeKeeping>> recordsByEmployee = readWeek(attendanceFilePath);
+            return (recordsByEmployee != null) ? recordsByEmployee : Collections.emptyMap();
+        }
+        
+        // Take the stamp before reading - if the file changes in between we just re-read it next run
+        long lastModified = attendanceFile.lastModified();
+        long length = attendanceFile.length();
+        if (resultCache.isWeekCurrent(weekStartDate, lastModified, length)) {
+            return null;
+        }
+        Map<String, List<TimeKeeping>> recordsByEmployee = readWeek(attendanceFilePath);
+        if (recordsByEmployee == null) {
+            return Collections.emptyMap(); // Not remembered, so the next run tries the file again
+        }
+        resultCache.updateWeek(weekStartDate, lastModified, length, recordsByEmployee.keySet());
+        return recordsByEmployee;
+    }
+    
+    // One bad file skips that week instead of stopping the run. Returns null if the file can't be read
+    private Map<String, List<TimeKeeping>> readWeek(String attendanceFilePath) {
+        try {
+            return attendanceIndex.getWeek(attendanceFilePath);
+        } catch (IOException e) {
+            unreadableWeeks.incrementAndGet();
+            PayrollLog.warn("Error reading attendance data " + attendanceFilePath + ": " + e.getMessage() + " - skipping that week");
+            return null;
+        }
+    }
+    
+    // Numeric IDs by value (leading zeros ignored, then as written so "01" and "1" still have an order)
+    static int compareIds(String a, String b) {
+        boolean aNumeric = isDigits(a);
+        boolean bNumeric = isDigits(b);
+        if (aNumeric != bNumeric) {
+            return aNumeric ? -1 : 1;
+        }
+        if (aNumeric) {
+            String aValue = stripLeadingZeros(a);
+            String bValue = stripLeadingZeros(b);
+            // Same number of digits compares as text; more digits is a bigger number
+            int compare = (aValue.length() != bValue.length()) ? Integer.compare(aValue.length(), bValue.length())
+                                                                : aValue.compareTo(bValue);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return a.compareTo(b);
+    }
+    
+    private static boolean isDigits(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String stripLeadingZeros(String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return digits.substring(start);
+    }
+    
+    // All weeks for a run of employees - this is the unit of work each worker picks up
+    private PayrollResultBatch computeSlice(List<Employee> employees, List<String> weekStartDates,
+                                            List<Map<String, List<TimeKeeping>>> weeks) {
+        PayrollResultBatch batch = new PayrollResultBatch(employees.size());
+        for (Employee employee : employees) {
+            computeEmployee(employee, weekStartDates, weeks, batch);
+        }
+        return batch;
+    }
+    
+    // All weeks for one employee, added to the slice's batch
+    private void computeEmployee(Employee employee, List<String> weekStartDates,
+                                 List<Map<String, List<TimeKeeping>>> weeks, PayrollResultBatch batch) {
+        String employeeId = employee.getEmployeeNumber();
+        for (int i = 0; i < weekStartDates.size(); i++) {
+            String weekStartDate = weekStartDates.get(i);
+            Map<String, List<TimeKeeping>> week = weeks.get(i);
+            
+            if (week == null) {
+                // File unchanged since the cached run - only its hourly rate can have changed
+                if (!resultCache.hasRows(weekStartDate, employeeId)) {
+                    continue;
+                }
+                if (resultCache.lookup(employee, weekStartDate, batch)) {
+                    continue;
+                }
+                week = readWeek(FileHandler.getAttendanceFilePath(weekStartDate));
+                List<TimeKeeping> records = (week != null) ? week.get(employeeId) : null;
+                if (records != null && !records.isEmpty()) {
+                    computeAndCache(batch, employee, weekStartDate, records, PayrollResultCache.hashRows(records));
+                }
+                continue;
+            }
+            
+            List<TimeKeeping> records = week.get(employeeId);
+            if (records == null || records.isEmpty()) {
+                continue;
+            }
+            if (resultCache == null) {
+                batchRunner.computeInto(batch, employee, weekStartDate, records);
+                continue;
+            }
+            
+            // File changed - recompute only if this employee's rows (or rate) are different
+            long rowsHash = PayrollResultCache.hashRows(records);
+            if (!resultCache.lookup(employee, weekStartDate, rowsHash, batch)) {
+                computeAndCache(batch, employee, weekStartDate, records, rowsHash);
+            }
+        }
+    }
+    
+    private void computeAndCache(PayrollResultBatch batch, Employee employee, String weekStartDate,
+                                 List<TimeKeeping> records, long rowsHash) {
+        int row = batchRunner.computeInto(batch, employee, weekStartDate, records);
+        resultCache.put(batch, row, rowsHash);
+    }
+}
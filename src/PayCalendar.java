@@ -0,0 +1,150 @@
+// PayCalendar.java
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every pay week (Monday start) in a date range, worked out once.
+ * 
+ * Replaces the SimpleDateFormat/Calendar code in Main: the weeks are built
+ * with java.time when the calendar is created, and the week end date and
+ * attendance file name of each week are stored with it, so the menus and
+ * the batch runs look them up instead of parsing dates again.
+ * 
+ * A PayCalendar never changes after it is built, so it can be shared by
+ * any number of threads.
+ */
+public final class PayCalendar {
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    
+    // Work week is Monday to Friday
+    private static final int WORK_DAYS_AFTER_START = 4;
+    
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final List<String> weekStartDates;  // MM/dd/yyyy, in date order
+    private final Map<String, PayWeek> weeks;   // Week start text -> precomputed details
+    
+    /**
+     * Build the calendar for every Monday from the start date to the end date
+     * 
+     * @param startDate First day of the range (the first week is the first Monday on or after it)
+     * @param endDate Last day of the range (inclusive)
+     */
+    public PayCalendar(LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        
+        List<String> starts = new ArrayList<>();
+        Map<String, PayWeek> byStart = new HashMap<>();
+        for (LocalDate monday = startDate.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+             !monday.isAfter(endDate); monday = monday.plusWeeks(1)) {
+            PayWeek week = new PayWeek(monday);
+            starts.add(week.startText);
+            byStart.put(week.startText, week);
+        }
+        
+        this.weekStartDates = Collections.unmodifiableList(starts);
+        this.weeks = Collections.unmodifiableMap(byStart);
+    }
+    
+    /**
+     * Build a calendar from MM/dd/yyyy dates
+     * 
+     * @param startDate Start date in MM/dd/yyyy format
+     * @param endDate End date in MM/dd/yyyy format
+     * @return New calendar
+     * @throws java.time.format.DateTimeParseException If a date isn't in MM/dd/yyyy format
+     */
+    public static PayCalendar of(String startDate, String endDate) {
+        return new PayCalendar(LocalDate.parse(startDate, DATE_FORMAT), LocalDate.parse(endDate, DATE_FORMAT));
+    }
+    
+    /**
+     * All week start dates in the range
+     * @return Read-only list of Monday dates in MM/dd/yyyy format
+     */
+    public List<String> getWeekStartDates() {
+        return weekStartDates;
+    }
+    
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    /**
+     * Check whether a week start date is one of this calendar's weeks
+     * 
+     * @param weekStartDate Week start in MM/dd/yyyy format
+     * @return true if it is in the range
+     */
+    public boolean contains(String weekStartDate) {
+        return weeks.containsKey(weekStartDate);
+    }
+    
+    /**
+     * Friday of the week that starts on the given Monday
+     * 
+     * @param weekStartDate Week start in MM/dd/yyyy format
+     * @return Week end in MM/dd/yyyy format
+     * @throws java.time.format.DateTimeParseException If the week isn't in the calendar and isn't a valid date
+     */
+    public String getWeekEnd(String weekStartDate) {
+        PayWeek week = weeks.get(weekStartDate);
+        if (week != null) {
+            return week.endText;
+        }
+        // Not one of our weeks - work it out directly (java.time handles month and year ends)
+        return LocalDate.parse(weekStartDate, DATE_FORMAT).plusDays(WORK_DAYS_AFTER_START).format(DATE_FORMAT);
+    }
+    
+    /**
+     * Attendance file for a week (same naming as FileHandler.getAttendanceFilePath)
+     * 
+     * @param weekStartDate Week start in MM/dd/yyyy format
+     * @return Path to the weekly attendance file
+     */
+    public String getAttendanceFilePath(String weekStartDate) {
+        PayWeek week = weeks.get(weekStartDate);
+        return week != null ? week.attendanceFilePath : FileHandler.getAttendanceFilePath(weekStartDate);
+    }
+    
+    /**
+     * Start of a week as a date
+     * 
+     * @param weekStartDate Week start in MM/dd/yyyy format
+     * @return Week start date
+     * @throws java.time.format.DateTimeParseException If the week isn't in the calendar and isn't a valid date
+     */
+    public LocalDate getWeekStart(String weekStartDate) {
+        PayWeek week = weeks.get(weekStartDate);
+        return week != null ? week.start : LocalDate.parse(weekStartDate, DATE_FORMAT);
+    }
+    
+    /**
+     * One pay week with everything the screens and batch runs ask for
+     */
+    private static final class PayWeek {
+        private final LocalDate start;
+        private final String startText;
+        private final String endText;
+        private final String attendanceFilePath;
+        
+        private PayWeek(LocalDate start) {
+            this.start = start;
+            this.startText = start.format(DATE_FORMAT);
+            this.endText = start.plusDays(WORK_DAYS_AFTER_START).format(DATE_FORMAT);
+            this.attendanceFilePath = FileHandler.getAttendanceFilePath(startText);
+        }
+    }
+}
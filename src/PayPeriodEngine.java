@@ -0,0 +1,317 @@
+// PayPeriodEngine.java
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Computes pay per calendar month or semi-monthly cut-off instead of per week.
+ * 
+ * The weekly screens treat a week as a quarter of a month (gross x 4 for the
+ * contribution tables, tax / 4), which is off for months with 4.3 weeks and
+ * for weeks that cross a month end. This engine puts every attendance row on
+ * its real date (week start + day of week), adds up the pay for each period,
+ * and works out SSS, PhilHealth, Pag-IBIG and withholding tax once on the
+ * period's actual gross. The deductions are then split back over the weeks
+ * in the period in proportion to what each week earned.
+ * 
+ * Weekly files are read one at a time in date order and a period is finished
+ * (and handed to the caller) as soon as no later week can touch it, so a
+ * whole year runs in one pass with only the open periods in memory.
+ * 
+ * Same pay rules as the weekly batch: no overtime pay for a week with any late
+ * minutes, and the late penalty on regular pay. Unlike the weekly screen,
+ * contributions and tax always apply (not only when the employee was late).
+ * 
+ * A week whose date can't be read or whose file can't be read is left out of
+ * its period; getSkippedWeeks says how many, so the caller can refuse totals
+ * that are missing a week.
+ */
+public class PayPeriodEngine {
+    
+    /** How the year is cut into pay periods */
+    public enum PeriodType {
+        MONTHLY(1),       // 1st to end of month
+        SEMI_MONTHLY(2);  // 1st-15th and 16th to end of month
+        
+        private final int periodsPerMonth;
+        
+        PeriodType(int periodsPerMonth) {
+            this.periodsPerMonth = periodsPerMonth;
+        }
+    }
+    
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    
+    private final PeriodType periodType;
+    private final StatutoryRuleEngine statutoryRules = StatutoryRuleEngine.getDefault();
+    private int skippedWeeks; // Invalid or unreadable weeks in the last run
+    
+    public PayPeriodEngine(PeriodType periodType) {
+        this.periodType = periodType;
+    }
+    
+    /**
+     * Run the pay periods and collect every result
+     * 
+     * @param employees Employees to pay
+     * @param weekStartDates Week start dates in MM/dd/yyyy format
+     * @return Results ordered by period, then employee list order
+     */
+    public List<PayPeriodResult> run(List<Employee> employees, List<String> weekStartDates) {
+        List<PayPeriodResult> results = new ArrayList<>();
+        run(employees, weekStartDates, results::add);
+        return results;
+    }
+    
+    /**
+     * Run the pay periods, handing each finished period to a callback as soon
+     * as it is complete (so results don't have to be kept for the whole year)
+     * 
+     * @param employees Employees to pay
+     * @param weekStartDates Week start dates in MM/dd/yyyy format (any order)
+     * @param sink Receives results ordered by period, then employee list order
+     */
+    public void run(List<Employee> employees, List<String> weekStartDates, Consumer<PayPeriodResult> sink) {
+        skippedWeeks = 0;
+        Map<String, Employee> employeesById = new HashMap<>(employees.size() * 2);
+        for (Employee employee : employees) {
+            employeesById.put(employee.getEmployeeNumber(), employee);
+        }
+        
+        // Streaming only works in date order - a period is closed once a later week starts after it
+        List<LocalDate> weeks = new ArrayList<>();
+        Map<LocalDate, String> weekLabels = new HashMap<>();
+        for (String weekStartDate : weekStartDates) {
+            try {
+                LocalDate weekStart = LocalDate.parse(weekStartDate, WEEK_FORMAT);
+                weeks.add(weekStart);
+                weekLabels.put(weekStart, weekStartDate);
+            } catch (DateTimeParseException e) {
+                skippedWeeks++;
+                PayrollLog.warn("Skipping invalid week start date " + weekStartDate);
+            }
+        }
+        weeks.sort(Comparator.naturalOrder());
+        
+        // Period start -> open period (at most two or three are open at a time)
+        TreeMap<LocalDate, OpenPeriod> openPeriods = new TreeMap<>();
+        
+        for (LocalDate weekStart : weeks) {
+            closePeriodsEndingBefore(weekStart, openPeriods, employees, sink);
+            
+            String weekStartDate = weekLabels.get(weekStart);
+            String attendanceFilePath = FileHandler.getAttendanceFilePath(weekStartDate);
+            if (!new File(attendanceFilePath).exists()) {
+                continue; // No data for this week
+            }
+            
+            Map<String, List<TimeKeeping>> recordsByEmployee;
+            try {
+                // Read directly, not through AttendanceIndex - no point caching a whole year
+                recordsByEmployee = FileHandler.readAllAttendanceRecords(attendanceFilePath);
+            } catch (IOException e) {
+                skippedWeeks++;
+                PayrollLog.warn("Error reading attendance data " + attendanceFilePath + ": " + e.getMessage() + " - skipping that week");
+                continue;
+            }
+            
+            for (Map.Entry<String, List<TimeKeeping>> entry : recordsByEmployee.entrySet()) {
+                if (employeesById.containsKey(entry.getKey())) {
+                    addWeek(entry.getKey(), weekStartDate, weekStart, entry.getValue(), openPeriods);
+                }
+            }
+        }
+        
+        closePeriodsEndingBefore(LocalDate.MAX, openPeriods, employees, sink);
+    }
+    
+    /**
+     * Weeks left out of the last run because their date or file couldn't be read
+     * (weeks that simply have no file yet aren't counted)
+     * @return Skipped week count
+     */
+    public int getSkippedWeeks() {
+        return skippedWeeks;
+    }
+    
+    /**
+     * First day of the period a date falls in
+     * 
+     * @param date Any date
+     * @return Period start date
+     */
+    public LocalDate getPeriodStart(LocalDate date) {
+        if (periodType == PeriodType.SEMI_MONTHLY && date.getDayOfMonth() > 15) {
+            return date.withDayOfMonth(16);
+        }
+        return date.withDayOfMonth(1);
+    }
+    
+    /**
+     * Last day of the period that starts on a given date
+     * 
+     * @param periodStart Period start from getPeriodStart
+     * @return Period end date (inclusive)
+     */
+    public LocalDate getPeriodEnd(LocalDate periodStart) {
+        if (periodType == PeriodType.SEMI_MONTHLY && periodStart.getDayOfMonth() == 1) {
+            return periodStart.withDayOfMonth(15);
+        }
+        return periodStart.with(TemporalAdjusters.lastDayOfMonth());
+    }
+    
+    // Put each row of one employee-week into the period its real date falls in
+    private void addWeek(String employeeId, String weekStartDate, LocalDate weekStart, List<TimeKeeping> records,
+                         TreeMap<LocalDate, OpenPeriod> openPeriods) {
+        // Weekly rule from Main: any late minutes in the week means no overtime pay for the week
+        int weekLateMinutes = 0;
+        for (TimeKeeping record : records) {
+            weekLateMinutes += TimeKeeping.calculateLateMinutes(record.getTimeInMinutes());
+        }
+        boolean overtimeAllowed = weekLateMinutes == 0;
+        
+        for (TimeKeeping record : records) {
+            int day = BinaryAttendanceStore.dayIndex(record.getDate());
+            if (day < 0) {
+                PayrollLog.warn("Unknown day '" + record.getDate() + "' for " + employeeId + " in week of "
+                                + weekStartDate + ", counting it on the week start");
+                day = 0;
+            }
+            LocalDate periodStart = getPeriodStart(weekStart.plusDays(day));
+            OpenPeriod period = openPeriods.computeIfAbsent(periodStart, start -> new OpenPeriod(start, getPeriodEnd(start)));
+            WeekSlice slice = period.getSlice(employeeId, weekStartDate);
+            
+            int in = record.getTimeInMinutes();
+            int out = record.getTimeOutMinutes();
+            slice.regularHours += TimeKeeping.calculateRegularHours(in, out);
+            if (overtimeAllowed) {
+                slice.overtimeHours += TimeKeeping.calculateOvertimeHours(in, out);
+            }
+            slice.lateMinutes += TimeKeeping.calculateLateMinutes(in);
+        }
+    }
+    
+    // Finish every open period that ends before the given date
+    private void closePeriodsEndingBefore(LocalDate date, TreeMap<LocalDate, OpenPeriod> openPeriods,
+                                          List<Employee> employees, Consumer<PayPeriodResult> sink) {
+        while (!openPeriods.isEmpty() && openPeriods.firstEntry().getValue().periodEnd.isBefore(date)) {
+            OpenPeriod period = openPeriods.pollFirstEntry().getValue();
+            for (Employee employee : employees) {
+                List<WeekSlice> slices = period.slicesByEmployee.get(employee.getEmployeeNumber());
+                if (slices != null) {
+                    sink.accept(computePeriod(employee, period, slices));
+                }
+            }
+        }
+    }
+    
+    // Pay for one employee-period: weekly pay pieces first, then deductions once on the total
+    private PayPeriodResult computePeriod(Employee employee, OpenPeriod period, List<WeekSlice> slices) {
+        // Deductions follow the rules in effect on the pay date (the last day of the period)
+        PayrollCalculator payrollCalculator = statutoryRules.calculatorFor(period.periodEnd);
+        double hourlyRate = employee.getHourlyRate();
+        double regularHours = 0;
+        double overtimeHours = 0;
+        int lateMinutes = 0;
+        double regularPay = 0;
+        double overtimePay = 0;
+        double latePenalty = 0;
+        
+        double[] sliceGross = new double[slices.size()];
+        double[] slicePenalty = new double[slices.size()];
+        for (int i = 0; i < slices.size(); i++) {
+            WeekSlice slice = slices.get(i);
+            // Rounded to 2 decimals like WeeklyAttendance does for a week
+            double sliceRegularHours = Math.round(slice.regularHours * 100.0) / 100.0;
+            double sliceOvertimeHours = Math.round(slice.overtimeHours * 100.0) / 100.0;
+            double sliceRegularPay = sliceRegularHours * hourlyRate;
+            double sliceOvertimePay = sliceOvertimeHours > 0 ? payrollCalculator.calculateOvertimePay(sliceOvertimeHours, hourlyRate) : 0;
+            
+            sliceGross[i] = sliceRegularPay + sliceOvertimePay;
+            slicePenalty[i] = payrollCalculator.calculateLatePenalty(sliceRegularPay, slice.lateMinutes);
+            
+            regularHours += sliceRegularHours;
+            overtimeHours += sliceOvertimeHours;
+            lateMinutes += slice.lateMinutes;
+            regularPay += sliceRegularPay;
+            overtimePay += sliceOvertimePay;
+            latePenalty += slicePenalty[i];
+        }
+        double grossPay = regularPay + overtimePay;
+        
+        // Tables are monthly - a semi-monthly cut-off is scaled to a month and the result halved
+        int periodsPerMonth = periodType.periodsPerMonth;
+        double monthlyGross = grossPay * periodsPerMonth;
+        double sss = payrollCalculator.calculateMonthlySSS(monthlyGross) / periodsPerMonth;
+        double philHealth = payrollCalculator.calculateMonthlyPhilHealth(monthlyGross) / periodsPerMonth;
+        double pagIbig = payrollCalculator.calculateMonthlyPagIbig(monthlyGross) / periodsPerMonth;
+        double taxableIncome = grossPay - sss - philHealth - pagIbig;
+        double tax = payrollCalculator.calculateMonthlyTax(taxableIncome * periodsPerMonth) / periodsPerMonth;
+        double netPay = taxableIncome - tax - latePenalty;
+        
+        PayrollResult result = new PayrollResult(grossPay, sss, philHealth, pagIbig, taxableIncome, tax, netPay,
+                                                 regularPay, overtimePay, latePenalty);
+        
+        // Split the deductions back over the weeks by gross (evenly if nothing was earned)
+        double deductions = sss + philHealth + pagIbig + tax;
+        List<PayPeriodResult.WeekAllocation> allocations = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            double share = grossPay > 0 ? sliceGross[i] / grossPay : 1.0 / slices.size();
+            allocations.add(new PayPeriodResult.WeekAllocation(slices.get(i).weekStartDate, sliceGross[i],
+                                                               deductions * share, slicePenalty[i]));
+        }
+        
+        return new PayPeriodResult(employee, period.periodStart, period.periodEnd, regularHours, overtimeHours,
+                                   lateMinutes, result, allocations);
+    }
+    
+    /**
+     * A period that can still receive rows, with per-employee running totals
+     */
+    private static final class OpenPeriod {
+        private final LocalDate periodStart;
+        private final LocalDate periodEnd;
+        private final Map<String, List<WeekSlice>> slicesByEmployee = new LinkedHashMap<>();
+        
+        private OpenPeriod(LocalDate periodStart, LocalDate periodEnd) {
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+        }
+        
+        // Weeks come in order, so the slice for this week is always the last one if it exists
+        private WeekSlice getSlice(String employeeId, String weekStartDate) {
+            List<WeekSlice> slices = slicesByEmployee.computeIfAbsent(employeeId, id -> new ArrayList<>(5));
+            WeekSlice last = slices.isEmpty() ? null : slices.get(slices.size() - 1);
+            if (last == null || !last.weekStartDate.equals(weekStartDate)) {
+                last = new WeekSlice(weekStartDate);
+                slices.add(last);
+            }
+            return last;
+        }
+    }
+    
+    /**
+     * The days of one week that fall inside one period, for one employee
+     */
+    private static final class WeekSlice {
+        private final String weekStartDate;
+        private double regularHours;
+        private double overtimeHours;
+        private int lateMinutes;
+        
+        private WeekSlice(String weekStartDate) {
+            this.weekStartDate = weekStartDate;
+        }
+    }
+}
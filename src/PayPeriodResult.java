@@ -0,0 +1,116 @@
+// PayPeriodResult.java
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pay for one employee over one pay period (a calendar month or a
+ * semi-monthly cut-off), from PayPeriodEngine.
+ * 
+ * Contributions and tax are worked out once on the period's real gross pay.
+ * The allocations split the period's deductions back over the weeks (or
+ * parts of weeks) that fell inside the period, in proportion to their gross.
+ */
+public class PayPeriodResult {
+    private final Employee employee;         // Who was paid
+    private final LocalDate periodStart;     // First day of the period
+    private final LocalDate periodEnd;       // Last day of the period (inclusive)
+    private final double regularHours;       // Hours inside the 8am-5pm window
+    private final double overtimeHours;      // Hours after 5pm (zero for weeks with lateness)
+    private final int lateMinutes;           // Late minutes on days inside the period
+    private final PayrollResult result;      // Period pay breakdown, late penalty included
+    private final List<WeekAllocation> allocations;
+    
+    public PayPeriodResult(Employee employee, LocalDate periodStart, LocalDate periodEnd, double regularHours,
+                           double overtimeHours, int lateMinutes, PayrollResult result, List<WeekAllocation> allocations) {
+        this.employee = employee;
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.regularHours = regularHours;
+        this.overtimeHours = overtimeHours;
+        this.lateMinutes = lateMinutes;
+        this.result = result;
+        this.allocations = Collections.unmodifiableList(allocations);
+    }
+    
+    public Employee getEmployee() {
+        return employee;
+    }
+    
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+    
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+    
+    public double getRegularHours() {
+        return regularHours;
+    }
+    
+    public double getOvertimeHours() {
+        return overtimeHours;
+    }
+    
+    public int getLateMinutes() {
+        return lateMinutes;
+    }
+    
+    public PayrollResult getResult() {
+        return result;
+    }
+    
+    public double getGrossPay() {
+        return result.getGrossPay();
+    }
+    
+    public double getNetPay() {
+        return result.getNetPay();
+    }
+    
+    /**
+     * Per-week share of this period, in week order
+     * @return Read-only list of allocations
+     */
+    public List<WeekAllocation> getAllocations() {
+        return allocations;
+    }
+    
+    /**
+     * The part of a period's pay that came from one week
+     */
+    public static final class WeekAllocation {
+        private final String weekStartDate;  // MM/dd/yyyy, same as the attendance file name
+        private final double grossPay;       // Gross earned on this week's days inside the period
+        private final double deductions;     // Share of the period's contributions and tax
+        private final double latePenalty;    // Late penalty for this week's days inside the period
+        
+        public WeekAllocation(String weekStartDate, double grossPay, double deductions, double latePenalty) {
+            this.weekStartDate = weekStartDate;
+            this.grossPay = grossPay;
+            this.deductions = deductions;
+            this.latePenalty = latePenalty;
+        }
+        
+        public String getWeekStartDate() {
+            return weekStartDate;
+        }
+        
+        public double getGrossPay() {
+            return grossPay;
+        }
+        
+        public double getDeductions() {
+            return deductions;
+        }
+        
+        public double getLatePenalty() {
+            return latePenalty;
+        }
+        
+        public double getNetPay() {
+            return grossPay - deductions - latePenalty;
+        }
+    }
+}
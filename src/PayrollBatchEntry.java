@@ -0,0 +1,57 @@
+// PayrollBatchEntry.java
+/**
+ * One computed payroll line from a batch run - a single employee for a single week.
+ * 
+ * The late penalty is already taken off the net pay in the result
+ * (same as the weekly salary screen).
+ */
+public class PayrollBatchEntry {
+    private final Employee employee;       // Who was paid
+    private final String weekStartDate;    // Week the pay is for (MM/dd/yyyy)
+    private final double regularHours;     // Hours inside the 8am-5pm window
+    private final double overtimeHours;    // Hours after 5pm (zero if late)
+    private final int lateMinutes;         // Total late minutes for the week
+    private final PayrollResult result;    // Pay breakdown, late penalty included
+    
+    public PayrollBatchEntry(Employee employee, String weekStartDate, double regularHours, double overtimeHours,
+                             int lateMinutes, PayrollResult result) {
+        this.employee = employee;
+        this.weekStartDate = weekStartDate;
+        this.regularHours = regularHours;
+        this.overtimeHours = overtimeHours;
+        this.lateMinutes = lateMinutes;
+        this.result = result;
+    }
+    
+    public Employee getEmployee() {
+        return employee;
+    }
+    
+    public String getWeekStartDate() {
+        return weekStartDate;
+    }
+    
+    public double getRegularHours() {
+        return regularHours;
+    }
+    
+    public double getOvertimeHours() {
+        return overtimeHours;
+    }
+    
+    public int getLateMinutes() {
+        return lateMinutes;
+    }
+    
+    public PayrollResult getResult() {
+        return result;
+    }
+    
+    public double getGrossPay() {
+        return result.getGrossPay();
+    }
+    
+    public double getNetPay() {
+        return result.getNetPay();
+    }
+}
@@ -0,0 +1,78 @@
+// PayrollBatchRunner.java
+import java.util.List;
+
+/**
+ * Pay for one employee-week from already loaded attendance rows, using the
+ * same rules as the weekly salary screen.
+ * 
+ * ParallelPayrollExecutor owns the loop over employees and weeks (loading,
+ * skipping missing or unreadable weeks, the result cache); this class only
+ * does the per-row calculation, either into a PayrollResultBatch or as a
+ * single PayrollBatchEntry.
+ */
+public class PayrollBatchRunner {
+    // Statutory rules per pay date - a run can span a rate change
+    private final StatutoryRuleEngine statutoryRules = StatutoryRuleEngine.getDefault();
+    
+    /**
+     * Compute pay for one employee-week and append it to a batch
+     * (same rules as computeEntry)
+     * 
+     * @param batch Batch to add the row to
+     * @param employee Employee being paid
+     * @param weekStartDate Week start date
+     * @param records Attendance rows for this employee and week
+     * @return Row index in the batch
+     */
+    public int computeInto(PayrollResultBatch batch, Employee employee, String weekStartDate, List<TimeKeeping> records) {
+        WeeklyAttendance weeklyAttendance = new WeeklyAttendance(employee.getEmployeeNumber(), weekStartDate);
+        for (TimeKeeping record : records) {
+            weeklyAttendance.addDailyAttendance(record);
+        }
+        
+        double regularHours = weeklyAttendance.calculateRegularHours();
+        double overtimeHours = weeklyAttendance.calculateOvertimeHours();
+        int lateMinutes = weeklyAttendance.getTotalLateMinutes();
+        boolean hasLateness = lateMinutes > 0;
+        
+        PayrollCalculator payrollCalculator = statutoryRules.calculatorForWeek(weekStartDate);
+        int row = payrollCalculator.calculateInto(batch, employee, weekStartDate,
+            regularHours, overtimeHours, lateMinutes, employee.getHourlyRate(), hasLateness, true);
+        if (hasLateness) {
+            batch.applyLatePenalty(row, payrollCalculator.calculateLatePenalty(batch.getRegularPay(row), lateMinutes));
+        }
+        return row;
+    }
+    
+    /**
+     * Compute pay for one employee-week from already loaded attendance rows.
+     * Mirrors Main.calculateWeeklySalary: prorated deductions, no overtime
+     * when late, and the late penalty taken off the net pay.
+     * 
+     * @param employee Employee being paid
+     * @param weekStartDate Week start date
+     * @param records Attendance rows for this employee and week
+     * @return Computed payroll entry
+     */
+    public PayrollBatchEntry computeEntry(Employee employee, String weekStartDate, List<TimeKeeping> records) {
+        WeeklyAttendance weeklyAttendance = new WeeklyAttendance(employee.getEmployeeNumber(), weekStartDate);
+        for (TimeKeeping record : records) {
+            weeklyAttendance.addDailyAttendance(record);
+        }
+        
+        double regularHours = weeklyAttendance.calculateRegularHours();
+        double overtimeHours = weeklyAttendance.calculateOvertimeHours();
+        int lateMinutes = weeklyAttendance.getTotalLateMinutes();
+        boolean hasLateness = lateMinutes > 0;
+        
+        PayrollCalculator payrollCalculator = statutoryRules.calculatorForWeek(weekStartDate);
+        PayrollResult result = payrollCalculator.calculatePayrollResult(
+            regularHours, overtimeHours, employee.getHourlyRate(), hasLateness, true);
+        
+        if (hasLateness) {
+            result = result.withLatePenalty(payrollCalculator.calculateLatePenalty(result.getRegularPay(), lateMinutes));
+        }
+        
+        return new PayrollBatchEntry(employee, weekStartDate, regularHours, overtimeHours, lateMinutes, result);
+    }
+}
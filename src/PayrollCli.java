@@ -0,0 +1,383 @@
+// PayrollCli.java
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-interactive payroll run for scripts and scheduled jobs.
+ * 
+ * Skips the login, employee list and week list screens and goes straight
+ * to the parallel batch computation and the exporters:
+ * 
+ *   --employees 10001,10002   only these employee IDs (default: everyone)
+ *   --weeks 06/03/2024,...    only these week start dates
+ *   --from MM/dd/yyyy         first week to include (default: calendar start)
+ *   --to MM/dd/yyyy           last day to include (default: calendar end)
+ *   --output DIR              write export files into DIR instead of stdout
+ *   --format csv|bank|payslip output format (default: csv on stdout, all three files with --output)
+ *   --threads N               worker threads (default: motorph.payroll.threads or CPU count)
+ *   --no-cache                recompute everything instead of using payroll_cache.dat
+ * 
+ * Results go to stdout (or the output directory) and everything else goes
+ * to stderr, so "java Main --employees 10001 > pay.csv" gives a clean file.
+ * With -Dmotorph.store.url set the results are also saved to that database.
+ * Exit status is 0 on success, 1 if the run failed and 2 for bad arguments.
+ */
+public class PayrollCli {
+    private static final String EXPORT_CSV_FILE = "payroll.csv";
+    private static final String EXPORT_BANK_FILE = "bank_upload.txt";
+    private static final String EXPORT_PAYSLIP_FILE = "payslips.txt";
+    // Accepts 6/3/2024 as well as 06/03/2024 - easier to type in cron entries
+    private static final DateTimeFormatter INPUT_DATE_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
+    
+    private final String employeeDataFile;
+    private final PayCalendar defaultCalendar;
+    private final AttendanceIndex attendanceIndex;
+    
+    // Parsed options - null means "not given"
+    private Set<String> employeeIds;
+    private Set<String> weekStartDates;
+    private String fromDate;
+    private String toDate;
+    private String outputDir;
+    private PayrollExporter.Format format;
+    private int threads;
+    private boolean useCache = true;
+    
+    /**
+     * Create a command-line runner
+     * 
+     * @param employeeDataFile Employee data file to load
+     * @param defaultCalendar Pay weeks used when --from/--to aren't given
+     * @param attendanceIndex Index used to read the weekly attendance files
+     */
+    public PayrollCli(String employeeDataFile, PayCalendar defaultCalendar, AttendanceIndex attendanceIndex) {
+        this.employeeDataFile = employeeDataFile;
+        this.defaultCalendar = defaultCalendar;
+        this.attendanceIndex = attendanceIndex;
+    }
+    
+    /**
+     * Check whether an argument starts a command-line run (so Main can skip the menus)
+     * 
+     * @param arg First command line argument
+     * @return true for any of the options this class understands
+     */
+    public static boolean isCliOption(String arg) {
+        switch (arg) {
+            case "--run":
+            case "--employees":
+            case "--weeks":
+            case "--from":
+            case "--to":
+            case "--output":
+            case "--format":
+            case "--threads":
+            case "--no-cache":
+            case "--help":
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Parse the arguments, compute payroll and write the results
+     * 
+     * @param args Command line arguments
+     * @return Exit status (0 ok, 1 run failed, 2 bad arguments)
+     */
+    public int run(String[] args) {
+        try {
+            if (!parseArguments(args)) {
+                printUsage();
+                return 0;
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            return 2;
+        }
+        
+        try {
+            StatutoryRuleEngine.getDefault(); // A broken rules file fails the run up front
+            // Step 1: employees and weeks to pay
+            List<Employee> employees = selectEmployees();
+            List<String> weeks = selectWeeks();
+            
+            // Step 2: compute - same executor and cache as --batch
+            long startTime = System.nanoTime();
+            PayrollResultCache resultCache = useCache ? PayrollResultCache.load(PayrollResultCache.CACHE_FILE) : null;
+            int workerCount = threads > 0 ? threads : ParallelPayrollExecutor.getDefaultWorkerCount();
+            ParallelPayrollExecutor executor = new ParallelPayrollExecutor(workerCount, attendanceIndex, resultCache);
+            PayrollResultBatch results = executor.run(employees, weeks);
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            if (resultCache != null) {
+                // No retainWeeks here - a run over a few weeks shouldn't throw away the rest
+                try {
+                    resultCache.save(PayrollResultCache.CACHE_FILE);
+                } catch (IOException e) {
+                    System.err.println("Warning: Could not save payroll cache: " + e.getMessage());
+                }
+            }
+            // Keep the results in the SQL database too when one is configured
+            try (JdbcPayrollStore store = JdbcPayrollStore.openConfigured()) {
+                if (store != null) {
+                    store.savePayrollResults(results);
+                    System.err.println("Saved " + results.size() + " results to the database");
+                }
+            }
+            
+            // Step 3: write the results
+            long renderStart = PhaseMetrics.start();
+            try {
+                writeResults(results);
+            } finally {
+                PhaseMetrics.stop(PhaseMetrics.Phase.RENDER_REPORT, renderStart);
+            }
+            System.err.println("Computed " + results.size() + " employee-weeks for " + employees.size()
+                               + " employee(s) over " + weeks.size() + " week(s) in " + elapsedMillis + " ms");
+            if (executor.getUnreadableWeeks() > 0) {
+                System.err.println("Warning: Skipped " + executor.getUnreadableWeeks() + " unreadable attendance file(s)");
+            }
+            PhaseMetrics.dumpIfEnabled(System.err);
+            return 0;
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return 2;
+        }
+    }
+    
+    /**
+     * Read the options into the fields above
+     * 
+     * @param args Command line arguments
+     * @return false if only the usage should be printed
+     */
+    private boolean parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--run":
+                    break; // Just "run with the defaults"
+                case "--help":
+                    return false;
+                case "--no-cache":
+                    useCache = false;
+                    break;
+                case "--employees":
+                    employeeIds = addValues(employeeIds, requireValue(args, ++i, arg));
+                    break;
+                case "--weeks":
+                    weekStartDates = addValues(weekStartDates, requireValue(args, ++i, arg));
+                    break;
+                case "--from":
+                    fromDate = requireValue(args, ++i, arg);
+                    break;
+                case "--to":
+                    toDate = requireValue(args, ++i, arg);
+                    break;
+                case "--output":
+                    outputDir = requireValue(args, ++i, arg);
+                    break;
+                case "--format":
+                    format = parseFormat(requireValue(args, ++i, arg));
+                    break;
+                case "--threads":
+                    threads = parseThreads(requireValue(args, ++i, arg));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        return true;
+    }
+    
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length || args[index].startsWith("--")) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[index];
+    }
+    
+    // Comma-separated values, and the option can be repeated
+    private static Set<String> addValues(Set<String> values, String list) {
+        Set<String> result = values != null ? values : new LinkedHashSet<>();
+        for (String value : list.split(",")) {
+            if (!value.trim().isEmpty()) {
+                result.add(value.trim());
+            }
+        }
+        return result;
+    }
+    
+    private static PayrollExporter.Format parseFormat(String value) {
+        switch (value.toLowerCase()) {
+            case "csv":
+                return PayrollExporter.Format.CSV;
+            case "bank":
+            case "fixed-width":
+                return PayrollExporter.Format.FIXED_WIDTH;
+            case "payslip":
+            case "payslips":
+                return PayrollExporter.Format.PAYSLIP;
+            default:
+                throw new IllegalArgumentException("Unknown format '" + value + "' (use csv, bank or payslip)");
+        }
+    }
+    
+    private static int parseThreads(String value) {
+        try {
+            int count = Integer.parseInt(value.trim());
+            if (count >= 1) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("--threads needs a positive number, got '" + value + "'");
+    }
+    
+    /**
+     * Load the employee file and keep the requested IDs (all of them if --employees wasn't given).
+     * Unlike the menu path there is no sample-data fallback - a scheduled job should fail loudly.
+     */
+    private List<Employee> selectEmployees() throws IOException {
+        if (!new File(employeeDataFile).exists()) {
+            throw new IOException("Employee data file " + employeeDataFile + " not found");
+        }
+        long start = PhaseMetrics.start();
+        EmployeeRegistry registry = EmployeeRegistry.load(employeeDataFile);
+        PhaseMetrics.stop(PhaseMetrics.Phase.LOAD_EMPLOYEES, start);
+        if (employeeIds == null) {
+            return registry.getEmployees();
+        }
+        
+        List<Employee> selected = new ArrayList<>(employeeIds.size());
+        for (String employeeId : employeeIds) {
+            Employee employee = registry.findById(employeeId);
+            if (employee == null) {
+                throw new IllegalArgumentException("Unknown employee ID " + employeeId);
+            }
+            selected.add(employee);
+        }
+        return selected;
+    }
+    
+    /**
+     * Pay weeks from --from/--to (or the default calendar), narrowed down by --weeks
+     */
+    private List<String> selectWeeks() {
+        PayCalendar calendar = defaultCalendar;
+        if (fromDate != null || toDate != null) {
+            LocalDate start = fromDate != null ? parseDate(fromDate) : defaultCalendar.getStartDate();
+            LocalDate end = toDate != null ? parseDate(toDate) : defaultCalendar.getEndDate();
+            if (end.isBefore(start)) {
+                throw new IllegalArgumentException("--to " + toDate + " is before the first week");
+            }
+            calendar = new PayCalendar(start, end);
+        }
+        if (weekStartDates == null) {
+            return calendar.getWeekStartDates();
+        }
+        
+        List<String> selected = new ArrayList<>(weekStartDates.size());
+        for (String week : weekStartDates) {
+            // Normalise 6/3/2024 style input to the MM/dd/yyyy form the files use
+            String weekStart = parseDate(week).format(PayCalendar.DATE_FORMAT);
+            if (!calendar.contains(weekStart)) {
+                throw new IllegalArgumentException(week + " is not a pay week start between "
+                    + calendar.getStartDate().format(PayCalendar.DATE_FORMAT) + " and "
+                    + calendar.getEndDate().format(PayCalendar.DATE_FORMAT));
+            }
+            selected.add(weekStart);
+        }
+        return selected;
+    }
+    
+    private static LocalDate parseDate(String text) {
+        try {
+            return LocalDate.parse(text.trim(), INPUT_DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date '" + text + "' (expected MM/dd/yyyy)");
+        }
+    }
+    
+    /**
+     * Stdout gets one format (CSV unless --format says otherwise).
+     * An output directory gets the chosen format, or all three files like --batch.
+     */
+    private void writeResults(PayrollResultBatch results) throws IOException {
+        if (outputDir == null) {
+            Writer stdout = new FilterWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) {
+                @Override
+                public void close() throws IOException {
+                    flush(); // Leave System.out open for whoever prints next
+                }
+            };
+            PayrollExporter.Format stdoutFormat = format != null ? format : PayrollExporter.Format.CSV;
+            try (PayrollExporter exporter = new PayrollExporter(new BufferedWriter(stdout, 64 * 1024), stdoutFormat)) {
+                exporter.writeAll(results);
+                warnRejected(exporter.getRejectedCount(), "output");
+            }
+            return;
+        }
+        
+        File dir = new File(outputDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create output directory " + outputDir);
+        }
+        PayrollExporter.Format[] formats = format != null ? new PayrollExporter.Format[] {format}
+                                                         : PayrollExporter.Format.values();
+        for (PayrollExporter.Format fileFormat : formats) {
+            File outputFile = new File(dir, getExportFileName(fileFormat));
+            long written;
+            long rejected;
+            try (PayrollExporter exporter = PayrollExporter.toFile(outputFile.getPath(), fileFormat)) {
+                exporter.writeAll(results);
+                written = exporter.getRecordCount();
+                rejected = exporter.getRejectedCount();
+            }
+            System.err.println("Wrote " + written + " records to " + outputFile.getPath());
+            warnRejected(rejected, outputFile.getPath());
+        }
+    }
+    
+    private static void warnRejected(long rejected, String target) {
+        if (rejected > 0) {
+            System.err.println("Warning: " + rejected + " record(s) left out of " + target + " (see the log)");
+        }
+    }
+    
+    // Same file names as --batch so existing pickup scripts keep working
+    private static String getExportFileName(PayrollExporter.Format format) {
+        switch (format) {
+            case FIXED_WIDTH:
+                return EXPORT_BANK_FILE;
+            case PAYSLIP:
+                return EXPORT_PAYSLIP_FILE;
+            default:
+                return EXPORT_CSV_FILE;
+        }
+    }
+    
+    private static void printUsage() {
+        System.err.println("Usage: java Main [--employees ID,...] [--weeks MM/dd/yyyy,...] [--from MM/dd/yyyy] [--to MM/dd/yyyy]");
+        System.err.println("                 [--output DIR] [--format csv|bank|payslip] [--threads N] [--no-cache] [--metrics[=json]]");
+        System.err.println("       java Main --batch [DIR]    (summary table, all employees and weeks)");
+    }
+}
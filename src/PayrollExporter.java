@@ -0,0 +1,303 @@
+// PayrollExporter.java
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams payroll results for a whole run to one output file.
+ * 
+ * Formats:
+ *   CSV          one row per employee-week with every pay component
+ *   FIXED_WIDTH  bank upload file, 80-character records:
+ *                D record: "D", employee ID (10), name (30), pay date yyyyMMdd (8),
+ *                          net pay in centavos zero-padded (15), filler
+ *                T record: "T", record count (9), total centavos (15), filler
+ *                An ID longer than 10 characters can't be paid safely, so that
+ *                record is left out and logged; a name longer than 30 is cut
+ *                to fit (the bank matches on the ID) and logged too.
+ *   PAYSLIP      plain-text payslips, one after another
+ * 
+ * Everything goes through one BufferedWriter and one reused StringBuilder,
+ * and amounts use CurrencyFormatter, so writing 10k payslips doesn't create a
+ * DecimalFormat or hit the console lock per line.
+ */
+public class PayrollExporter implements Closeable {
+    
+    /** Output formats */
+    public enum Format { CSV, FIXED_WIDTH, PAYSLIP }
+    
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int RECORD_LENGTH = 80; // fixed-width bank records
+    private static final int BANK_ID_WIDTH = 10;
+    private static final int BANK_NAME_WIDTH = 30;
+    private static final DateTimeFormatter WEEK_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    private static final DateTimeFormatter BANK_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    private final Writer out;
+    private final Format format;
+    private final StringBuilder line = new StringBuilder(256);   // reused for every record
+    private final Map<String, String> payDates = new HashMap<>(); // week start -> yyyyMMdd week end
+    private long recordCount;
+    private long rejectedCount;
+    private long totalCentavos;
+    
+    /**
+     * Create an exporter on an existing writer (the exporter closes it)
+     * 
+     * @param out Where to write
+     * @param format Output format
+     * @throws IOException If the CSV header can't be written
+     */
+    public PayrollExporter(Writer out, Format format) throws IOException {
+        this.out = out;
+        this.format = format;
+        if (format == Format.CSV) {
+            out.write("employee_id,last_name,first_name,week_start,regular_hours,overtime_hours,late_minutes,"
+                      + "regular_pay,overtime_pay,gross_pay,sss,philhealth,pagibig,withholding_tax,late_penalty,net_pay\n");
+        }
+    }
+    
+    /**
+     * Open an exporter that writes to a file through a large buffer
+     * 
+     * @param filePath Output file (overwritten)
+     * @param format Output format
+     * @return New exporter
+     * @throws IOException If the file can't be created
+     */
+    public static PayrollExporter toFile(String filePath, Format format) throws IOException {
+        Writer writer = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(filePath), StandardCharsets.UTF_8), BUFFER_SIZE);
+        return new PayrollExporter(writer, format);
+    }
+    
+    /**
+     * Write one batch entry
+     * 
+     * @param entry Entry to write
+     * @throws IOException If writing fails
+     */
+    public void write(PayrollBatchEntry entry) throws IOException {
+        PayrollResult result = entry.getResult();
+        writeRecord(entry.getEmployee(), entry.getWeekStartDate(), entry.getRegularHours(), entry.getOvertimeHours(),
+                    entry.getLateMinutes(), result.getRegularPay(), result.getOvertimePay(), result.getGrossPay(),
+                    result.getSssContribution(), result.getPhilHealthContribution(), result.getPagIbigContribution(),
+                    result.getWithholdingTax(), result.getLatePenalty(), result.getNetPay());
+    }
+    
+    /**
+     * Write one row of a columnar batch
+     * 
+     * @param batch Batch holding the row
+     * @param row Row index
+     * @throws IOException If writing fails
+     */
+    public void write(PayrollResultBatch batch, int row) throws IOException {
+        writeRecord(batch.getEmployee(row), batch.getWeekStartDate(row), batch.getRegularHours(row),
+                    batch.getOvertimeHours(row), batch.getLateMinutes(row), batch.getRegularPay(row),
+                    batch.getOvertimePay(row), batch.getGrossPay(row), batch.getSssContribution(row),
+                    batch.getPhilHealthContribution(row), batch.getPagIbigContribution(row),
+                    batch.getWithholdingTax(row), batch.getLatePenalty(row), batch.getNetPay(row));
+    }
+    
+    /**
+     * Write every row of a run, read straight from the batch's columns
+     * 
+     * @param batch Rows to write, in order
+     * @throws IOException If writing fails
+     */
+    public void writeAll(PayrollResultBatch batch) throws IOException {
+        for (int row = 0; row < batch.size(); row++) {
+            write(batch, row);
+        }
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * Records left out because they don't fit the format (bank IDs too long for their field)
+     * @return Rejected record count
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+    
+    /**
+     * Finish the file (bank files get their trailer record) and close it
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (format == Format.FIXED_WIDTH) {
+                line.setLength(0);
+                line.append('T');
+                padLeft(line, recordCount, 9);
+                padLeft(line, totalCentavos, 15);
+                padTo(line, RECORD_LENGTH);
+                line.append('\n');
+                out.append(line);
+            }
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+    
+    private void writeRecord(Employee employee, String weekStartDate, double regularHours, double overtimeHours,
+                             int lateMinutes, double regularPay, double overtimePay, double grossPay, double sss,
+                             double philHealth, double pagIbig, double tax, double latePenalty, double netPay) throws IOException {
+        line.setLength(0);
+        switch (format) {
+            case CSV:
+                appendCsvField(employee.getEmployeeNumber()).append(',');
+                appendCsvField(employee.getLastName()).append(',');
+                appendCsvField(employee.getFirstName()).append(',');
+                line.append(weekStartDate).append(',');
+                CurrencyFormatter.appendPlain(line, regularHours).append(',');
+                CurrencyFormatter.appendPlain(line, overtimeHours).append(',');
+                line.append(lateMinutes).append(',');
+                CurrencyFormatter.appendPlain(line, regularPay).append(',');
+                CurrencyFormatter.appendPlain(line, overtimePay).append(',');
+                CurrencyFormatter.appendPlain(line, grossPay).append(',');
+                CurrencyFormatter.appendPlain(line, sss).append(',');
+                CurrencyFormatter.appendPlain(line, philHealth).append(',');
+                CurrencyFormatter.appendPlain(line, pagIbig).append(',');
+                CurrencyFormatter.appendPlain(line, tax).append(',');
+                CurrencyFormatter.appendPlain(line, latePenalty).append(',');
+                CurrencyFormatter.appendPlain(line, netPay).append('\n');
+                break;
+            case FIXED_WIDTH:
+                long centavos = CurrencyFormatter.toCentavos(netPay);
+                if (centavos < 0) {
+                    // Banks can't credit a negative amount - pay nothing and flag it
+                    PayrollLog.warn("Negative net pay for " + employee.getEmployeeNumber() + " week of "
+                                    + weekStartDate + " written as 0 in bank file");
+                    centavos = 0;
+                }
+                String employeeId = employee.getEmployeeNumber();
+                if (employeeId.length() > BANK_ID_WIDTH) {
+                    // A cut-down ID could credit somebody else's account
+                    PayrollLog.warn("Employee ID " + employeeId + " is longer than " + BANK_ID_WIDTH
+                                    + " characters - week of " + weekStartDate + " left out of bank file");
+                    rejectedCount++;
+                    return;
+                }
+                String name = (employee.getLastName() + ", " + employee.getFirstName()).toUpperCase();
+                if (name.length() > BANK_NAME_WIDTH) {
+                    PayrollLog.warn("Name for " + employeeId + " is longer than " + BANK_NAME_WIDTH
+                                    + " characters, cut to \"" + name.substring(0, BANK_NAME_WIDTH) + "\" in bank file");
+                }
+                line.append('D');
+                padRight(line, employeeId, BANK_ID_WIDTH);
+                padRight(line, name, BANK_NAME_WIDTH);
+                line.append(getPayDate(weekStartDate));
+                padLeft(line, centavos, 15);
+                padTo(line, RECORD_LENGTH);
+                line.append('\n');
+                totalCentavos += centavos;
+                break;
+            case PAYSLIP:
+                appendPayslip(employee, weekStartDate, regularHours, overtimeHours, lateMinutes, regularPay,
+                              overtimePay, grossPay, sss, philHealth, pagIbig, tax, latePenalty, netPay);
+                break;
+        }
+        out.append(line);
+        recordCount++;
+    }
+    
+    // Same wording as the weekly salary screen in Main, trimmed down for bulk printing
+    private void appendPayslip(Employee employee, String weekStartDate, double regularHours, double overtimeHours,
+                               int lateMinutes, double regularPay, double overtimePay, double grossPay, double sss,
+                               double philHealth, double pagIbig, double tax, double latePenalty, double netPay) {
+        line.append("+---------------------------------------+\n");
+        line.append("|                PAYSLIP                |\n");
+        line.append("+---------------------------------------+\n");
+        line.append("Employee:           ").append(employee.getFullName())
+            .append(" (ID: ").append(employee.getEmployeeNumber()).append(")\n");
+        line.append("Week of:            ").append(weekStartDate).append('\n');
+        line.append("Regular Hours:      ");
+        CurrencyFormatter.appendPlain(line, regularHours).append(" hrs\n");
+        line.append("Overtime Hours:     ");
+        CurrencyFormatter.appendPlain(line, overtimeHours).append(" hrs\n");
+        line.append("Late Minutes:       ").append(lateMinutes).append('\n');
+        appendAmount("Regular Pay:        PHP ", regularPay);
+        appendAmount("Overtime Pay:       PHP ", overtimePay);
+        appendAmount("GROSS PAY:          PHP ", grossPay);
+        appendAmount("SSS:                PHP ", sss);
+        appendAmount("PhilHealth:         PHP ", philHealth);
+        appendAmount("Pag-IBIG:           PHP ", pagIbig);
+        appendAmount("Withholding Tax:    PHP ", tax);
+        if (latePenalty > 0) {
+            appendAmount("Late Penalty:       PHP ", latePenalty);
+        }
+        appendAmount("TOTAL DEDUCTIONS:   PHP ", sss + philHealth + pagIbig + tax + latePenalty);
+        appendAmount("NET PAY:            PHP ", netPay);
+        line.append('\n');
+    }
+    
+    private void appendAmount(String label, double amount) {
+        line.append(label);
+        CurrencyFormatter.appendGrouped(line, amount).append('\n');
+    }
+    
+    // Quote a CSV value only if it has a comma, quote or line break
+    private StringBuilder appendCsvField(String value) {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                              || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"'); // CSV escapes a quote by doubling it
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+    
+    // Week end (start + 4 days) as yyyyMMdd - parsed once per week, not per record
+    private String getPayDate(String weekStartDate) {
+        String payDate = payDates.get(weekStartDate);
+        if (payDate == null) {
+            payDate = LocalDate.parse(weekStartDate, WEEK_FORMAT).plusDays(4).format(BANK_DATE_FORMAT);
+            payDates.put(weekStartDate, payDate);
+        }
+        return payDate;
+    }
+    
+    private static void padRight(StringBuilder sb, String value, int width) {
+        int length = Math.min(value.length(), width);
+        sb.append(value, 0, length);
+        for (int i = length; i < width; i++) {
+            sb.append(' ');
+        }
+    }
+    
+    private static void padLeft(StringBuilder sb, long value, int width) {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(digits);
+    }
+    
+    // Fill with spaces up to the fixed record length (the line may already hold other text)
+    private static void padTo(StringBuilder sb, int length) {
+        while (sb.length() < length) {
+            sb.append(' ');
+        }
+    }
+}
@@ -0,0 +1,183 @@
+// PayrollLog.java
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small logging and diagnostics helper for the payroll hot paths.
+ * 
+ * Replaces the "Reading line: ..." println that ran for every line of every
+ * attendance file. Messages have levels and debug output is off by default,
+ * so the hot path only pays for one level check per file. When debug is on,
+ * sampling can keep just 1 in N debug messages. Counters (lines read, lines
+ * matched, malformed lines, ...) are cheap to update and can be printed at
+ * the end of a run.
+ * 
+ * Settings (system properties):
+ *   motorph.log.level   OFF, ERROR, WARN, INFO or DEBUG (default WARN)
+ *   motorph.log.sample  log 1 in N debug messages (default 1 = all)
+ * 
+ * Log output goes to System.err so it never mixes with reports on System.out.
+ */
+public class PayrollLog {
+    
+    /** Log levels, from quietest to noisiest */
+    public enum Level { OFF, ERROR, WARN, INFO, DEBUG }
+    
+    /** Things we count during a run */
+    public enum Counter {
+        LINES_READ("Lines read"),
+        LINES_MATCHED("Lines matched"),
+        MALFORMED_LINES("Malformed lines"),
+        INVALID_TIMES("Invalid times");
+        
+        private final String label;
+        private final LongAdder total = new LongAdder(); // LongAdder - cheap when several threads update it
+        
+        Counter(String label) {
+            this.label = label;
+        }
+        
+        public long get() {
+            return total.sum();
+        }
+    }
+    
+    private static volatile Level level = parseLevel(System.getProperty("motorph.log.level"), Level.WARN);
+    private static volatile int sampleRate = parseSampleRate(System.getProperty("motorph.log.sample"));
+    private static final AtomicLong debugMessages = new AtomicLong();
+    private static volatile PrintStream out = System.err;
+    
+    private PayrollLog() {
+        // Static helper only
+    }
+    
+    public static Level getLevel() {
+        return level;
+    }
+    
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+    
+    /**
+     * Keep only 1 in every n debug messages (1 = keep all)
+     * 
+     * @param n Sampling rate
+     */
+    public static void setSampleRate(int n) {
+        sampleRate = Math.max(1, n);
+    }
+    
+    public static void setOutput(PrintStream stream) {
+        out = stream;
+    }
+    
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel != Level.OFF && messageLevel.ordinal() <= level.ordinal();
+    }
+    
+    /**
+     * Hot-path check - callers should read this once per file, not once per line
+     * 
+     * @return true if debug messages are logged
+     */
+    public static boolean isDebugEnabled() {
+        return level == Level.DEBUG;
+    }
+    
+    /**
+     * Decide whether the next debug message is kept under the sampling rate.
+     * Call this before building the message so skipped messages cost nothing.
+     * 
+     * @return true if the caller should log its debug message
+     */
+    public static boolean sampleDebug() {
+        if (level != Level.DEBUG) {
+            return false;
+        }
+        int rate = sampleRate;
+        return rate == 1 || debugMessages.getAndIncrement() % rate == 0;
+    }
+    
+    public static void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+    
+    public static void info(String message) {
+        log(Level.INFO, message);
+    }
+    
+    public static void warn(String message) {
+        log(Level.WARN, message);
+    }
+    
+    public static void error(String message) {
+        log(Level.ERROR, message);
+    }
+    
+    private static void log(Level messageLevel, String message) {
+        if (isEnabled(messageLevel)) {
+            out.println("[" + messageLevel + "] " + message);
+        }
+    }
+    
+    /**
+     * Add to a counter. Readers count locally and add once per file,
+     * so this isn't called per line.
+     * 
+     * @param counter Counter to update
+     * @param amount Amount to add
+     */
+    public static void count(Counter counter, long amount) {
+        if (amount != 0) {
+            counter.total.add(amount);
+        }
+    }
+    
+    /**
+     * Reset every counter to zero (e.g. between runs in the same process)
+     */
+    public static void resetCounters() {
+        for (Counter counter : Counter.values()) {
+            counter.total.reset();
+        }
+    }
+    
+    /**
+     * Print all counters as a small table
+     * 
+     * @param stream Where to print
+     */
+    public static void dumpCounters(PrintStream stream) {
+        stream.println("DIAGNOSTICS");
+        stream.println("---------------------------------------");
+        for (Counter counter : Counter.values()) {
+            stream.printf("%-20s%d\n", counter.label + ":", counter.get());
+        }
+    }
+    
+    private static Level parseLevel(String value, Level fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Unknown log level '" + value + "', using " + fallback);
+            return fallback;
+        }
+    }
+    
+    private static int parseSampleRate(String value) {
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            System.err.println("Warning: Invalid log sample rate '" + value + "', logging every message");
+            return 1;
+        }
+    }
+}
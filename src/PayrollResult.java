@@ -0,0 +1,138 @@
+// PayrollResult.java
+/**
+ * Immutable result of one payroll calculation.
+ * 
+ * Replaces reading the double[9] from calculateFullSalaryDetails by position
+ * (index 6 = net, 7 = regular pay, ...). The index constants below document
+ * that old layout for code that still works with arrays.
+ */
+public final class PayrollResult {
+    // Positions in the legacy calculateFullSalaryDetails array
+    public static final int GROSS_PAY = 0;
+    public static final int SSS = 1;
+    public static final int PHILHEALTH = 2;
+    public static final int PAGIBIG = 3;
+    public static final int TAXABLE_INCOME = 4;
+    public static final int WITHHOLDING_TAX = 5;
+    public static final int NET_PAY = 6;
+    public static final int REGULAR_PAY = 7;
+    public static final int OVERTIME_PAY = 8;
+    public static final int ARRAY_LENGTH = 9;
+    
+    private final double grossPay;
+    private final double sssContribution;
+    private final double philHealthContribution;
+    private final double pagIbigContribution;
+    private final double taxableIncome;
+    private final double withholdingTax;
+    private final double netPay;          // Already has the late penalty taken off
+    private final double regularPay;
+    private final double overtimePay;
+    private final double latePenalty;
+    
+    public PayrollResult(double grossPay, double sssContribution, double philHealthContribution,
+                         double pagIbigContribution, double taxableIncome, double withholdingTax,
+                         double netPay, double regularPay, double overtimePay, double latePenalty) {
+        this.grossPay = grossPay;
+        this.sssContribution = sssContribution;
+        this.philHealthContribution = philHealthContribution;
+        this.pagIbigContribution = pagIbigContribution;
+        this.taxableIncome = taxableIncome;
+        this.withholdingTax = withholdingTax;
+        this.netPay = netPay;
+        this.regularPay = regularPay;
+        this.overtimePay = overtimePay;
+        this.latePenalty = latePenalty;
+    }
+    
+    /**
+     * Build a result from the legacy array layout (no late penalty)
+     * 
+     * @param details Array in calculateFullSalaryDetails order
+     * @return Result with the same values
+     */
+    public static PayrollResult fromArray(double[] details) {
+        return new PayrollResult(details[GROSS_PAY], details[SSS], details[PHILHEALTH], details[PAGIBIG],
+                                 details[TAXABLE_INCOME], details[WITHHOLDING_TAX], details[NET_PAY],
+                                 details[REGULAR_PAY], details[OVERTIME_PAY], 0.0);
+    }
+    
+    /**
+     * Copy of this result with a late penalty deducted from net pay.
+     * This is what Main used to do with salaryDetails[6] -= latePenalty.
+     * 
+     * @param penalty Late penalty amount
+     * @return New result with the penalty recorded and net pay reduced
+     */
+    public PayrollResult withLatePenalty(double penalty) {
+        return new PayrollResult(grossPay, sssContribution, philHealthContribution, pagIbigContribution,
+                                 taxableIncome, withholdingTax, netPay - penalty, regularPay, overtimePay,
+                                 latePenalty + penalty);
+    }
+    
+    /**
+     * Values in the legacy double[9] layout (fresh array every call)
+     * @return Array in calculateFullSalaryDetails order
+     */
+    public double[] toArray() {
+        double[] details = new double[ARRAY_LENGTH];
+        details[GROSS_PAY] = grossPay;
+        details[SSS] = sssContribution;
+        details[PHILHEALTH] = philHealthContribution;
+        details[PAGIBIG] = pagIbigContribution;
+        details[TAXABLE_INCOME] = taxableIncome;
+        details[WITHHOLDING_TAX] = withholdingTax;
+        details[NET_PAY] = netPay;
+        details[REGULAR_PAY] = regularPay;
+        details[OVERTIME_PAY] = overtimePay;
+        return details;
+    }
+    
+    public double getGrossPay() {
+        return grossPay;
+    }
+    
+    public double getSssContribution() {
+        return sssContribution;
+    }
+    
+    public double getPhilHealthContribution() {
+        return philHealthContribution;
+    }
+    
+    public double getPagIbigContribution() {
+        return pagIbigContribution;
+    }
+    
+    public double getTaxableIncome() {
+        return taxableIncome;
+    }
+    
+    public double getWithholdingTax() {
+        return withholdingTax;
+    }
+    
+    public double getNetPay() {
+        return netPay;
+    }
+    
+    public double getRegularPay() {
+        return regularPay;
+    }
+    
+    public double getOvertimePay() {
+        return overtimePay;
+    }
+    
+    public double getLatePenalty() {
+        return latePenalty;
+    }
+    
+    /**
+     * Total of government deductions, tax and late penalty
+     * @return Total deductions
+     */
+    public double getTotalDeductions() {
+        return sssContribution + philHealthContribution + pagIbigContribution + withholdingTax + latePenalty;
+    }
+}
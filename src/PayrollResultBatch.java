@@ -0,0 +1,279 @@
+// PayrollResultBatch.java
+import java.util.Arrays;
+
+/**
+ * Column-oriented store for many payroll results.
+ * 
+ * Instead of one PayrollResult (or one double[9]) per employee-week, every
+ * field is kept in its own primitive array, so 100k results cost a handful
+ * of large arrays rather than 100k small objects. Employees and week dates
+ * are stored as references to the existing objects, not copies.
+ * 
+ * This is what batch runs hand around: ParallelPayrollExecutor fills one
+ * batch per worker and joins them, and the exporters and stores read the
+ * rows straight from the columns.
+ */
+public class PayrollResultBatch {
+    private static final int DEFAULT_CAPACITY = 64;
+    
+    private int size;
+    private Employee[] employees;
+    private String[] weekStartDates;
+    private double[] regularHours;
+    private double[] overtimeHours;
+    private int[] lateMinutes;
+    private double[] grossPay;
+    private double[] sssContribution;
+    private double[] philHealthContribution;
+    private double[] pagIbigContribution;
+    private double[] taxableIncome;
+    private double[] withholdingTax;
+    private double[] netPay;
+    private double[] regularPay;
+    private double[] overtimePay;
+    private double[] latePenalty;
+    
+    public PayrollResultBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Create a batch sized for an expected number of rows
+     * (it still grows if more are added)
+     * 
+     * @param initialCapacity Expected number of rows
+     */
+    public PayrollResultBatch(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        employees = new Employee[capacity];
+        weekStartDates = new String[capacity];
+        regularHours = new double[capacity];
+        overtimeHours = new double[capacity];
+        lateMinutes = new int[capacity];
+        grossPay = new double[capacity];
+        sssContribution = new double[capacity];
+        philHealthContribution = new double[capacity];
+        pagIbigContribution = new double[capacity];
+        taxableIncome = new double[capacity];
+        withholdingTax = new double[capacity];
+        netPay = new double[capacity];
+        regularPay = new double[capacity];
+        overtimePay = new double[capacity];
+        latePenalty = new double[capacity];
+    }
+    
+    /**
+     * Append a row from a PayrollResult
+     * 
+     * @return Index of the new row
+     */
+    public int add(Employee employee, String weekStartDate, double rowRegularHours, double rowOvertimeHours,
+                   int rowLateMinutes, PayrollResult result) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        employees[row] = employee;
+        weekStartDates[row] = weekStartDate;
+        regularHours[row] = rowRegularHours;
+        overtimeHours[row] = rowOvertimeHours;
+        lateMinutes[row] = rowLateMinutes;
+        grossPay[row] = result.getGrossPay();
+        sssContribution[row] = result.getSssContribution();
+        philHealthContribution[row] = result.getPhilHealthContribution();
+        pagIbigContribution[row] = result.getPagIbigContribution();
+        taxableIncome[row] = result.getTaxableIncome();
+        withholdingTax[row] = result.getWithholdingTax();
+        netPay[row] = result.getNetPay();
+        regularPay[row] = result.getRegularPay();
+        overtimePay[row] = result.getOvertimePay();
+        latePenalty[row] = result.getLatePenalty();
+        return row;
+    }
+    
+    /**
+     * Append every row of another batch (used to join the workers' batches in order)
+     * 
+     * @param other Batch to copy the rows from
+     */
+    public void addAll(PayrollResultBatch other) {
+        ensureCapacity(size + other.size);
+        int count = other.size;
+        System.arraycopy(other.employees, 0, employees, size, count);
+        System.arraycopy(other.weekStartDates, 0, weekStartDates, size, count);
+        System.arraycopy(other.regularHours, 0, regularHours, size, count);
+        System.arraycopy(other.overtimeHours, 0, overtimeHours, size, count);
+        System.arraycopy(other.lateMinutes, 0, lateMinutes, size, count);
+        System.arraycopy(other.grossPay, 0, grossPay, size, count);
+        System.arraycopy(other.sssContribution, 0, sssContribution, size, count);
+        System.arraycopy(other.philHealthContribution, 0, philHealthContribution, size, count);
+        System.arraycopy(other.pagIbigContribution, 0, pagIbigContribution, size, count);
+        System.arraycopy(other.taxableIncome, 0, taxableIncome, size, count);
+        System.arraycopy(other.withholdingTax, 0, withholdingTax, size, count);
+        System.arraycopy(other.netPay, 0, netPay, size, count);
+        System.arraycopy(other.regularPay, 0, regularPay, size, count);
+        System.arraycopy(other.overtimePay, 0, overtimePay, size, count);
+        System.arraycopy(other.latePenalty, 0, latePenalty, size, count);
+        size += count;
+    }
+    
+    /**
+     * Deduct a late penalty from a row's net pay (batch version of PayrollResult.withLatePenalty)
+     * 
+     * @param row Row index
+     * @param penalty Late penalty amount
+     */
+    public void applyLatePenalty(int row, double penalty) {
+        checkRow(row);
+        latePenalty[row] += penalty;
+        netPay[row] -= penalty;
+    }
+    
+    /**
+     * Build a PayrollResult for one row (allocates - meant for display, not bulk work)
+     * 
+     * @param row Row index
+     * @return Result for that row
+     */
+    public PayrollResult getResult(int row) {
+        checkRow(row);
+        return new PayrollResult(grossPay[row], sssContribution[row], philHealthContribution[row],
+                                 pagIbigContribution[row], taxableIncome[row], withholdingTax[row],
+                                 netPay[row], regularPay[row], overtimePay[row], latePenalty[row]);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public Employee getEmployee(int row) {
+        checkRow(row);
+        return employees[row];
+    }
+    
+    public String getEmployeeId(int row) {
+        checkRow(row);
+        return employees[row].getEmployeeNumber();
+    }
+    
+    public String getWeekStartDate(int row) {
+        checkRow(row);
+        return weekStartDates[row];
+    }
+    
+    public double getRegularHours(int row) {
+        checkRow(row);
+        return regularHours[row];
+    }
+    
+    public double getOvertimeHours(int row) {
+        checkRow(row);
+        return overtimeHours[row];
+    }
+    
+    public int getLateMinutes(int row) {
+        checkRow(row);
+        return lateMinutes[row];
+    }
+    
+    public double getGrossPay(int row) {
+        checkRow(row);
+        return grossPay[row];
+    }
+    
+    public double getSssContribution(int row) {
+        checkRow(row);
+        return sssContribution[row];
+    }
+    
+    public double getPhilHealthContribution(int row) {
+        checkRow(row);
+        return philHealthContribution[row];
+    }
+    
+    public double getPagIbigContribution(int row) {
+        checkRow(row);
+        return pagIbigContribution[row];
+    }
+    
+    public double getTaxableIncome(int row) {
+        checkRow(row);
+        return taxableIncome[row];
+    }
+    
+    public double getWithholdingTax(int row) {
+        checkRow(row);
+        return withholdingTax[row];
+    }
+    
+    public double getNetPay(int row) {
+        checkRow(row);
+        return netPay[row];
+    }
+    
+    public double getRegularPay(int row) {
+        checkRow(row);
+        return regularPay[row];
+    }
+    
+    public double getOvertimePay(int row) {
+        checkRow(row);
+        return overtimePay[row];
+    }
+    
+    public double getLatePenalty(int row) {
+        checkRow(row);
+        return latePenalty[row];
+    }
+    
+    /**
+     * Sum of gross pay over all rows
+     * @return Total gross pay
+     */
+    public double getTotalGrossPay() {
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += grossPay[i];
+        }
+        return total;
+    }
+    
+    /**
+     * Sum of net pay over all rows
+     * @return Total net pay
+     */
+    public double getTotalNetPay() {
+        double total = 0.0;
+        for (int i = 0; i < size; i++) {
+            total += netPay[i];
+        }
+        return total;
+    }
+    
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range for batch of size " + size);
+        }
+    }
+    
+    // Grow all columns together (1.5x) so they always have the same length
+    private void ensureCapacity(int needed) {
+        if (needed <= grossPay.length) {
+            return;
+        }
+        int capacity = Math.max(needed, grossPay.length + (grossPay.length >> 1));
+        employees = Arrays.copyOf(employees, capacity);
+        weekStartDates = Arrays.copyOf(weekStartDates, capacity);
+        regularHours = Arrays.copyOf(regularHours, capacity);
+        overtimeHours = Arrays.copyOf(overtimeHours, capacity);
+        lateMinutes = Arrays.copyOf(lateMinutes, capacity);
+        grossPay = Arrays.copyOf(grossPay, capacity);
+        sssContribution = Arrays.copyOf(sssContribution, capacity);
+        philHealthContribution = Arrays.copyOf(philHealthContribution, capacity);
+        pagIbigContribution = Arrays.copyOf(pagIbigContribution, capacity);
+        taxableIncome = Arrays.copyOf(taxableIncome, capacity);
+        withholdingTax = Arrays.copyOf(withholdingTax, capacity);
+        netPay = Arrays.copyOf(netPay, capacity);
+        regularPay = Arrays.copyOf(regularPay, capacity);
+        overtimePay = Arrays.copyOf(overtimePay, capacity);
+        latePenalty = Arrays.copyOf(latePenalty, capacity);
+    }
+}
@@ -0,0 +1,352 @@
+// PayrollResultCache.java
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers computed pay per (employee ID, week start) so a rerun only
+ * recomputes the employee-weeks whose inputs changed.
+ * 
+ * Each entry keeps a hash of the employee's attendance rows for that week
+ * plus the hourly rate it was computed with. On a rerun:
+ *   - if the weekly file has the same size and modification time as last
+ *     time, the file isn't even read - entries are reused as long as the
+ *     employee's hourly rate is the same
+ *   - if the file changed, it is read again, but only employees whose rows
+ *     hash differently (or whose rate changed) are recomputed
+ * 
+ * The cache is saved to payroll_cache.dat between runs. Bump VERSION when
+ * the pay rules in the code change so old results are thrown away. Changes to
+ * statutory_rules.txt are caught by the rules fingerprint saved with the cache.
+ */
+public class PayrollResultCache {
+    public static final String CACHE_FILE = "payroll_cache.dat";
+    
+    private static final int MAGIC = 0x4D504843; // "MPHC"
+    private static final short VERSION = 2; // 2: rules fingerprint after the version
+    
+    // Week start date -> what we know about that week's file and its results
+    private final Map<String, CachedWeek> weeks = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * Load a saved cache. A missing, old or damaged file just gives an empty
+     * cache (everything gets recomputed once).
+     * 
+     * @param filePath Path of the cache file
+     * @return Loaded cache, or an empty one
+     */
+    public static PayrollResultCache load(String filePath) {
+        PayrollResultCache cache = new PayrollResultCache();
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            return cache;
+        }
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                PayrollLog.info("Ignoring payroll cache " + filePath + " from an older version");
+                return cache;
+            }
+            if (in.readLong() != StatutoryRuleEngine.getDefault().fingerprint()) {
+                PayrollLog.info("Ignoring payroll cache " + filePath + " - the statutory rules changed");
+                return cache;
+            }
+            int weekCount = in.readInt();
+            for (int w = 0; w < weekCount; w++) {
+                String weekStartDate = in.readUTF();
+                CachedWeek week = new CachedWeek(in.readLong(), in.readLong(), readIds(in));
+                int entryCount = in.readInt();
+                for (int e = 0; e < entryCount; e++) {
+                    String employeeId = in.readUTF();
+                    long rowsHash = in.readLong();
+                    double hourlyRate = in.readDouble();
+                    double regularHours = in.readDouble();
+                    double overtimeHours = in.readDouble();
+                    int lateMinutes = in.readInt();
+                    double[] details = new double[PayrollResult.ARRAY_LENGTH];
+                    for (int i = 0; i < details.length; i++) {
+                        details[i] = in.readDouble();
+                    }
+                    // Stored net pay already has the penalty taken off, so don't use withLatePenalty here
+                    PayrollResult result = new PayrollResult(details[PayrollResult.GROSS_PAY],
+                        details[PayrollResult.SSS], details[PayrollResult.PHILHEALTH], details[PayrollResult.PAGIBIG],
+                        details[PayrollResult.TAXABLE_INCOME], details[PayrollResult.WITHHOLDING_TAX],
+                        details[PayrollResult.NET_PAY], details[PayrollResult.REGULAR_PAY],
+                        details[PayrollResult.OVERTIME_PAY], in.readDouble());
+                    week.entries.put(employeeId, new CachedEntry(rowsHash, hourlyRate, regularHours,
+                                                                 overtimeHours, lateMinutes, result));
+                }
+                cache.weeks.put(weekStartDate, week);
+            }
+        } catch (EOFException e) {
+            PayrollLog.warn("Payroll cache " + filePath + " is truncated, starting with an empty cache");
+            return new PayrollResultCache();
+        } catch (IOException e) {
+            PayrollLog.warn("Could not read payroll cache " + filePath + ": " + e.getMessage());
+            return new PayrollResultCache();
+        }
+        return cache;
+    }
+    
+    /**
+     * Save the cache, writing a temp file first so a crash never leaves half a cache
+     * 
+     * @param filePath Path of the cache file
+     * @throws IOException If the file can't be written
+     */
+    public void save(String filePath) throws IOException {
+        Path cachePath = Paths.get(filePath);
+        Path tempPath = Paths.get(filePath + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempPath.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(StatutoryRuleEngine.getDefault().fingerprint());
+            out.writeInt(weeks.size());
+            for (Map.Entry<String, CachedWeek> weekEntry : weeks.entrySet()) {
+                CachedWeek week = weekEntry.getValue();
+                out.writeUTF(weekEntry.getKey());
+                out.writeLong(week.lastModified);
+                out.writeLong(week.length);
+                out.writeInt(week.employeeIds.size());
+                for (String employeeId : week.employeeIds) {
+                    out.writeUTF(employeeId);
+                }
+                out.writeInt(week.entries.size());
+                for (Map.Entry<String, CachedEntry> entry : week.entries.entrySet()) {
+                    CachedEntry cached = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(cached.rowsHash);
+                    out.writeDouble(cached.hourlyRate);
+                    out.writeDouble(cached.regularHours);
+                    out.writeDouble(cached.overtimeHours);
+                    out.writeInt(cached.lateMinutes);
+                    for (double value : cached.result.toArray()) {
+                        out.writeDouble(value);
+                    }
+                    out.writeDouble(cached.result.getLatePenalty());
+                }
+            }
+        }
+        Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Check whether a week's attendance file is unchanged since the cached results were made
+     * 
+     * @param weekStartDate Week start date
+     * @param lastModified Current modification time of the weekly file
+     * @param length Current size of the weekly file
+     * @return true if cached results for this week can be used without reading the file
+     */
+    public boolean isWeekCurrent(String weekStartDate, long lastModified, long length) {
+        CachedWeek week = weeks.get(weekStartDate);
+        return week != null && week.lastModified == lastModified && week.length == length;
+    }
+    
+    /**
+     * Check whether an employee has rows in a week the cache knows about
+     * (only meaningful when isWeekCurrent is true)
+     * 
+     * @param weekStartDate Week start date
+     * @param employeeId Employee ID
+     * @return true if the weekly file has rows for the employee
+     */
+    public boolean hasRows(String weekStartDate, String employeeId) {
+        CachedWeek week = weeks.get(weekStartDate);
+        return week != null && week.employeeIds.contains(employeeId);
+    }
+    
+    /**
+     * Record that a week's file was (re)read. Entries for employees that are
+     * no longer in the file are dropped; the rest stay and are checked by hash.
+     * 
+     * @param weekStartDate Week start date
+     * @param lastModified Modification time of the file that was read
+     * @param length Size of the file that was read
+     * @param employeeIds Employees with rows in the file
+     */
+    public void updateWeek(String weekStartDate, long lastModified, long length, Set<String> employeeIds) {
+        CachedWeek previous = weeks.get(weekStartDate);
+        CachedWeek week = new CachedWeek(lastModified, length, Collections.unmodifiableSet(new HashSet<>(employeeIds)));
+        if (previous != null) {
+            for (Map.Entry<String, CachedEntry> entry : previous.entries.entrySet()) {
+                if (employeeIds.contains(entry.getKey())) {
+                    week.entries.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        weeks.put(weekStartDate, week);
+    }
+    
+    /**
+     * Drop every week the current run doesn't cover any more
+     * 
+     * @param weekStartDates Weeks that should be kept
+     */
+    public void retainWeeks(List<String> weekStartDates) {
+        weeks.keySet().retainAll(new HashSet<>(weekStartDates));
+    }
+    
+    /**
+     * Look up a cached result for an employee-week whose file hasn't changed
+     * and add it to a batch
+     * 
+     * @param employee Employee being paid (the hourly rate must still match)
+     * @param weekStartDate Week start date
+     * @param batch Batch to add the cached row to
+     * @return true if it was added, false if it has to be recomputed
+     */
+    public boolean lookup(Employee employee, String weekStartDate, PayrollResultBatch batch) {
+        CachedEntry cached = getEntry(employee.getEmployeeNumber(), weekStartDate);
+        if (cached == null || Double.compare(cached.hourlyRate, employee.getHourlyRate()) != 0) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        cached.addTo(batch, employee, weekStartDate);
+        return true;
+    }
+    
+    /**
+     * Look up a cached result after the weekly file was re-read and add it to a batch
+     * 
+     * @param employee Employee being paid
+     * @param weekStartDate Week start date
+     * @param rowsHash Hash of the employee's current rows (see hashRows)
+     * @param batch Batch to add the cached row to
+     * @return true if it was added, false if the rows or rate changed
+     */
+    public boolean lookup(Employee employee, String weekStartDate, long rowsHash, PayrollResultBatch batch) {
+        CachedEntry cached = getEntry(employee.getEmployeeNumber(), weekStartDate);
+        if (cached == null || cached.rowsHash != rowsHash
+                || Double.compare(cached.hourlyRate, employee.getHourlyRate()) != 0) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        cached.addTo(batch, employee, weekStartDate);
+        return true;
+    }
+    
+    /**
+     * Store a freshly computed row
+     * 
+     * @param batch Batch holding the row
+     * @param row Row index
+     * @param rowsHash Hash of the rows it was computed from
+     */
+    public void put(PayrollResultBatch batch, int row, long rowsHash) {
+        CachedWeek week = weeks.get(batch.getWeekStartDate(row));
+        if (week == null) {
+            return; // updateWeek wasn't called for this week - nothing to attach it to
+        }
+        Employee employee = batch.getEmployee(row);
+        week.entries.put(employee.getEmployeeNumber(), new CachedEntry(rowsHash, employee.getHourlyRate(),
+            batch.getRegularHours(row), batch.getOvertimeHours(row), batch.getLateMinutes(row), batch.getResult(row)));
+    }
+    
+    /**
+     * 64-bit FNV-1a hash of an employee's rows for one week.
+     * Covers the day and both times, in file order.
+     * 
+     * @param records Attendance rows
+     * @return Hash of the rows
+     */
+    public static long hashRows(List<TimeKeeping> records) {
+        long hash = 0xcbf29ce484222325L;
+        for (TimeKeeping record : records) {
+            String date = record.getDate();
+            for (int i = 0; i < date.length(); i++) {
+                hash = (hash ^ date.charAt(i)) * 0x100000001b3L;
+            }
+            hash = (hash ^ record.getTimeInMinutes()) * 0x100000001b3L;
+            hash = (hash ^ record.getTimeOutMinutes()) * 0x100000001b3L;
+        }
+        return hash;
+    }
+    
+    /** Number of lookups answered from the cache since it was created or loaded */
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    /** Number of lookups that needed a recompute */
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    private CachedEntry getEntry(String employeeId, String weekStartDate) {
+        CachedWeek week = weeks.get(weekStartDate);
+        return week == null ? null : week.entries.get(employeeId);
+    }
+    
+    private static Set<String> readIds(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Set<String> employeeIds = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            employeeIds.add(in.readUTF());
+        }
+        return Collections.unmodifiableSet(employeeIds);
+    }
+    
+    /**
+     * File stamp and employee list of one weekly file, plus the results computed from it
+     */
+    private static final class CachedWeek {
+        private final long lastModified;
+        private final long length;
+        private final Set<String> employeeIds;
+        private final Map<String, CachedEntry> entries = new ConcurrentHashMap<>();
+        
+        private CachedWeek(long lastModified, long length, Set<String> employeeIds) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.employeeIds = employeeIds;
+        }
+    }
+    
+    /**
+     * One cached employee-week: the inputs it depends on and what they produced
+     */
+    private static final class CachedEntry {
+        private final long rowsHash;
+        private final double hourlyRate;
+        private final double regularHours;
+        private final double overtimeHours;
+        private final int lateMinutes;
+        private final PayrollResult result;
+        
+        private CachedEntry(long rowsHash, double hourlyRate, double regularHours, double overtimeHours,
+                            int lateMinutes, PayrollResult result) {
+            this.rowsHash = rowsHash;
+            this.hourlyRate = hourlyRate;
+            this.regularHours = regularHours;
+            this.overtimeHours = overtimeHours;
+            this.lateMinutes = lateMinutes;
+            this.result = result;
+        }
+        
+        private void addTo(PayrollResultBatch batch, Employee employee, String weekStartDate) {
+            batch.add(employee, weekStartDate, regularHours, overtimeHours, lateMinutes, result);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+// PayrollStore.java
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where employees, weekly attendance and computed pay are kept.
+ * 
+ * Two implementations:
+ *   TextPayrollStore  the original flat files (employee_data.txt, attendance_MM_DD_YYYY.txt)
+ *   JdbcPayrollStore  an embedded SQL database (H2, SQLite, ...) with indexes on
+ *                     employee ID and week start
+ * 
+ * Week start dates are MM/dd/yyyy strings everywhere, same as the rest of the app.
+ */
+public interface PayrollStore extends Closeable {
+    
+    /**
+     * @return Every employee, in the order they were saved
+     * @throws IOException If the store can't be read
+     */
+    List<Employee> loadEmployees() throws IOException;
+    
+    /**
+     * Replace the stored employees
+     * 
+     * @param employees Employees to keep
+     * @throws IOException If the store can't be written
+     */
+    void saveEmployees(List<Employee> employees) throws IOException;
+    
+    /**
+     * One employee's rows for one week
+     * 
+     * @param employeeId Employee ID
+     * @param weekStartDate Week start (MM/dd/yyyy)
+     * @return Rows in file order, empty if there are none
+     * @throws IOException If the store can't be read
+     */
+    List<TimeKeeping> getAttendance(String employeeId, String weekStartDate) throws IOException;
+    
+    /**
+     * Every employee's rows for one week
+     * 
+     * @param weekStartDate Week start (MM/dd/yyyy)
+     * @return Employee ID -> rows, empty if the week has no attendance
+     * @throws IOException If the store can't be read
+     */
+    Map<String, List<TimeKeeping>> getWeek(String weekStartDate) throws IOException;
+    
+    /**
+     * Replace all attendance for one week
+     * 
+     * @param weekStartDate Week start (MM/dd/yyyy)
+     * @param recordsByEmployee Employee ID -> rows
+     * @throws IOException If the store can't be written
+     */
+    void saveWeek(String weekStartDate, Map<String, List<TimeKeeping>> recordsByEmployee) throws IOException;
+    
+    /**
+     * Store computed pay (replaces earlier results for the same employee-weeks)
+     * 
+     * @param results Batch results
+     * @throws IOException If the store can't be written
+     */
+    void savePayrollResults(PayrollResultBatch results) throws IOException;
+    
+    /**
+     * Count late days (arrivals after the 8:10 grace period) per employee
+     * for every week that starts between two dates
+     * 
+     * @param from First day of the range
+     * @param to Last day of the range (inclusive)
+     * @return Employee ID -> number of late days, sorted by employee ID, only employees with at least one
+     * @throws IOException If the store can't be read
+     */
+    Map<String, Integer> countLateDays(LocalDate from, LocalDate to) throws IOException;
+}
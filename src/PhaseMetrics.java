@@ -0,0 +1,266 @@
+// PhaseMetrics.java
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers for the main phases of a payroll run, so we can see where the
+ * time goes: loading employees, reading attendance, weekly aggregation,
+ * computing pay and rendering reports.
+ * 
+ * Each phase keeps a call count, total time, the slowest call and a latency
+ * histogram with power-of-two buckets (1us, 2us, 4us, ...). Percentiles are
+ * read off the histogram, so they are upper bounds within a factor of two.
+ * 
+ * Usage around a hot path:
+ *   long start = PhaseMetrics.start();
+ *   ... work ...
+ *   PhaseMetrics.stop(PhaseMetrics.Phase.COMPUTE_PAY, start);
+ * 
+ * When metrics are off, start() is a single volatile read and stop() returns
+ * straight away - no clock calls, no counters touched.
+ * 
+ * Settings (system property, or the --metrics / --metrics=json flag):
+ *   motorph.metrics   off (default), table or json
+ */
+public final class PhaseMetrics {
+    
+    /** Phases of a payroll run that are timed */
+    public enum Phase {
+        LOAD_EMPLOYEES("Load employees"),
+        READ_ATTENDANCE("Read attendance"),
+        AGGREGATE_WEEK("Weekly aggregation"),
+        COMPUTE_PAY("Compute pay"),
+        RENDER_REPORT("Render report");
+        
+        private static final int BUCKETS = 64; // bucket b holds times in [2^b, 2^(b+1)) ns
+        
+        private final String label;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+        
+        Phase(String label) {
+            this.label = label;
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+        
+        public long getCount() {
+            return count.sum();
+        }
+        
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+        
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+        
+        /**
+         * Latency at a percentile, read from the histogram
+         * 
+         * @param percentile Between 0 and 1 (e.g. 0.99)
+         * @return Upper edge of the bucket holding that percentile, in nanoseconds (0 if no calls)
+         */
+        public long getPercentileNanos(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= target && counts[i] > 0) {
+                    // Never report more than the slowest call we actually saw
+                    return Math.min(i >= 62 ? Long.MAX_VALUE : 1L << (i + 1), getMaxNanos());
+                }
+            }
+            return getMaxNanos();
+        }
+        
+        private void record(long nanos) {
+            long value = Math.max(nanos, 1);
+            count.increment();
+            totalNanos.add(value);
+            maxNanos.accumulate(value);
+            histogram[63 - Long.numberOfLeadingZeros(value)].increment();
+        }
+        
+        private void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (LongAdder bucket : histogram) {
+                bucket.reset();
+            }
+        }
+    }
+    
+    /** How the summary is printed */
+    public enum Format { TABLE, JSON }
+    
+    public static final String METRICS_PROPERTY = "motorph.metrics";
+    
+    // Returned by start() when metrics are off, so stop() knows to do nothing
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    
+    private static volatile boolean enabled;
+    private static volatile Format format = Format.TABLE;
+    
+    static {
+        configure(System.getProperty(METRICS_PROPERTY));
+    }
+    
+    private PhaseMetrics() {
+        // Static helper only
+    }
+    
+    /**
+     * Turn metrics on or off from a setting value: off, table or json
+     * (also accepts true, which means table)
+     * 
+     * @param value Setting value, or null for off
+     */
+    public static void configure(String value) {
+        if (value == null || value.trim().isEmpty() || value.trim().equalsIgnoreCase("off")
+                || value.trim().equalsIgnoreCase("false")) {
+            enabled = false;
+            return;
+        }
+        String setting = value.trim().toLowerCase(Locale.ROOT);
+        if (setting.equals("json")) {
+            format = Format.JSON;
+        } else if (setting.equals("table") || setting.equals("true")) {
+            format = Format.TABLE;
+        } else {
+            System.err.println("Warning: Unknown " + METRICS_PROPERTY + " value '" + value + "', using table");
+            format = Format.TABLE;
+        }
+        enabled = true;
+    }
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    public static Format getFormat() {
+        return format;
+    }
+    
+    /**
+     * Start timing a phase
+     * 
+     * @return Start time to pass to stop()
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+    
+    /**
+     * Finish timing a phase started with start()
+     * 
+     * @param phase Phase being timed
+     * @param startNanos Value returned by start()
+     */
+    public static void stop(Phase phase, long startNanos) {
+        if (startNanos != NOT_TIMED) {
+            phase.record(System.nanoTime() - startNanos);
+        }
+    }
+    
+    /**
+     * Clear every phase (e.g. between runs in the same process)
+     */
+    public static void reset() {
+        for (Phase phase : Phase.values()) {
+            phase.reset();
+        }
+    }
+    
+    /**
+     * Print the summary in the configured format, if metrics are on
+     * 
+     * @param stream Where to print
+     */
+    public static void dumpIfEnabled(PrintStream stream) {
+        if (!enabled) {
+            return;
+        }
+        if (format == Format.JSON) {
+            dumpJson(stream);
+        } else {
+            dumpTable(stream);
+        }
+    }
+    
+    /**
+     * Print one row per phase: calls, total time, average, p50/p90/p99 and max
+     * 
+     * @param stream Where to print
+     */
+    public static void dumpTable(PrintStream stream) {
+        stream.println("PHASE METRICS (times in microseconds)");
+        stream.println("---------------------------------------");
+        stream.printf("%-20s  %10s  %12s  %10s  %10s  %10s  %10s  %10s\n",
+            "Phase", "Calls", "Total", "Avg", "p50", "p90", "p99", "Max");
+        for (Phase phase : Phase.values()) {
+            long calls = phase.getCount();
+            long total = phase.getTotalNanos();
+            stream.printf(Locale.ROOT, "%-20s  %10d  %12.1f  %10.2f  %10.2f  %10.2f  %10.2f  %10.2f\n",
+                phase.label, calls, total / 1000.0, calls == 0 ? 0.0 : total / 1000.0 / calls,
+                phase.getPercentileNanos(0.50) / 1000.0, phase.getPercentileNanos(0.90) / 1000.0,
+                phase.getPercentileNanos(0.99) / 1000.0, phase.getMaxNanos() / 1000.0);
+        }
+    }
+    
+    /**
+     * Print the same numbers as one JSON object (nanoseconds, plus the raw
+     * histogram as bucket upper edge -> count) for other tools to read
+     * 
+     * @param stream Where to print
+     */
+    public static void dumpJson(PrintStream stream) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"phases\":[");
+        Phase[] phases = Phase.values();
+        for (int p = 0; p < phases.length; p++) {
+            Phase phase = phases[p];
+            if (p > 0) {
+                json.append(',');
+            }
+            json.append("{\"phase\":\"").append(phase.name().toLowerCase(Locale.ROOT)).append('"')
+                .append(",\"calls\":").append(phase.getCount())
+                .append(",\"totalNanos\":").append(phase.getTotalNanos())
+                .append(",\"p50Nanos\":").append(phase.getPercentileNanos(0.50))
+                .append(",\"p90Nanos\":").append(phase.getPercentileNanos(0.90))
+                .append(",\"p99Nanos\":").append(phase.getPercentileNanos(0.99))
+                .append(",\"maxNanos\":").append(phase.getMaxNanos())
+                .append(",\"histogram\":{");
+            boolean first = true;
+            for (int i = 0; i < Phase.BUCKETS; i++) {
+                long bucketCount = phase.histogram[i].sum();
+                if (bucketCount > 0) {
+                    if (!first) {
+                        json.append(',');
+                    }
+                    json.append('"').append(i >= 62 ? Long.MAX_VALUE : 1L << (i + 1)).append("\":").append(bucketCount);
+                    first = false;
+                }
+            }
+            json.append("}}");
+        }
+        json.append("]}");
+        stream.println(json);
+    }
+}
@@ -0,0 +1,204 @@
+// SssContributionTable.java
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SSS contribution schedule stored as a sorted bracket table.
+ * 
+ * Replaces the long if/else ladder in PayrollCalculator. Each bracket has a
+ * lower bound (inclusive) on monthly salary and the employee contribution for
+ * that bracket. The table can be loaded from sss_contribution_table.txt so a new
+ * SSS circular only needs a data change. When the brackets are evenly spaced
+ * (the official table uses 500-peso steps) the bracket is found by direct
+ * index arithmetic, otherwise by binary search.
+ */
+public class SssContributionTable {
+    // Data file with the current schedule - same folder as the other data files
+    public static final String SSS_TABLE_FILE = "sss_contribution_table.txt";
+    
+    private final double[] lowerBounds;    // Sorted, lowerBounds[i] starts bracket i
+    private final double[] contributions;  // Employee contribution per bracket
+    private final double step;             // Bracket width if uniform from bracket 1 on, else 0
+    
+    /**
+     * Create a table from bracket arrays
+     * 
+     * @param lowerBounds Lower bound of each bracket (inclusive), strictly increasing
+     * @param contributions Contribution for each bracket
+     */
+    public SssContributionTable(double[] lowerBounds, double[] contributions) {
+        if (lowerBounds.length == 0 || lowerBounds.length != contributions.length) {
+            throw new IllegalArgumentException("SSS table needs one contribution per bracket");
+        }
+        for (int i = 1; i < lowerBounds.length; i++) {
+            if (!(lowerBounds[i] > lowerBounds[i - 1])) {
+                throw new IllegalArgumentException("SSS brackets must be sorted by lower bound (row " + (i + 1) + ")");
+            }
+        }
+        this.lowerBounds = lowerBounds.clone();
+        this.contributions = contributions.clone();
+        this.step = findUniformStep(this.lowerBounds);
+    }
+    
+    /**
+     * The schedule that used to be hardcoded in PayrollCalculator.calculateSSS:
+     * 135.00 below 3,250, then +22.50 every 500 pesos up to 1,125.00 from 24,750.
+     * 
+     * @return Built-in SSS table
+     */
+    public static SssContributionTable builtIn() {
+        int brackets = 45;
+        double[] lowerBounds = new double[brackets];
+        double[] contributions = new double[brackets];
+        for (int i = 0; i < brackets; i++) {
+            lowerBounds[i] = (i == 0) ? 0.0 : 3250.0 + 500.0 * (i - 1);
+            contributions[i] = 135.0 + 22.5 * i;
+        }
+        return new SssContributionTable(lowerBounds, contributions);
+    }
+    
+    /**
+     * Load the table from SSS_TABLE_FILE if it exists, otherwise use the built-in one.
+     * A file that is there but broken stops payroll, same as a broken statutory_rules.txt.
+     * 
+     * @return SSS table to use
+     * @throws IllegalStateException If the file is there but can't be read or has a mistake in it
+     */
+    public static SssContributionTable loadDefault() {
+        if (!new File(SSS_TABLE_FILE).exists()) {
+            return builtIn();
+        }
+        try {
+            return load(SSS_TABLE_FILE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not load SSS table from " + SSS_TABLE_FILE + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Load a table from a text file. Each line is "lowerBound,contribution";
+     * blank lines and lines starting with # are ignored.
+     * 
+     * @param filePath Path to the table file
+     * @return Loaded table
+     * @throws IOException If the file can't be read
+     */
+    public static SssContributionTable load(String filePath) throws IOException {
+        List<double[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length < 2) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " needs 2 columns: " + line);
+                }
+                try {
+                    rows.add(new double[] { Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()) });
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " is not a number: " + line);
+                }
+            }
+        }
+        
+        double[] lowerBounds = new double[rows.size()];
+        double[] contributions = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            lowerBounds[i] = rows.get(i)[0];
+            contributions[i] = rows.get(i)[1];
+        }
+        return new SssContributionTable(lowerBounds, contributions);
+    }
+    
+    /**
+     * Get the employee contribution for a monthly salary.
+     * Salaries below the first bound use the first bracket (same as the old ladder).
+     * 
+     * @param monthlySalary Monthly salary
+     * @return SSS contribution
+     */
+    public double lookup(double monthlySalary) {
+        return contributions[findBracket(monthlySalary)];
+    }
+    
+    /**
+     * Get the bracket index for a monthly salary
+     * 
+     * @param monthlySalary Monthly salary
+     * @return Index of the last bracket whose lower bound is <= monthlySalary (0 if none)
+     */
+    public int findBracket(double monthlySalary) {
+        int last = lowerBounds.length - 1;
+        if (Double.isNaN(monthlySalary)) {
+            return last; // The old ladder fell through to the max for NaN, keep that
+        }
+        if (last == 0 || monthlySalary < lowerBounds[1]) {
+            return 0;
+        }
+        
+        int index;
+        if (step > 0) {
+            // Uniform brackets: jump straight to the bracket, capped at the top one
+            double offset = (monthlySalary - lowerBounds[1]) / step;
+            index = (offset >= last) ? last : 1 + (int) offset;
+            
+            // Division rounding can land one bracket off right at a boundary - nudge it back
+            if (index < last && monthlySalary >= lowerBounds[index + 1]) {
+                index++;
+            } else if (monthlySalary < lowerBounds[index]) {
+                index--;
+            }
+        } else {
+            // Uneven brackets: binary search for the last lower bound <= salary
+            int low = 1;
+            int high = last;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (lowerBounds[mid] <= monthlySalary) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            index = low;
+        }
+        return index;
+    }
+    
+    public int getBracketCount() {
+        return lowerBounds.length;
+    }
+    
+    /**
+     * Hash of every bracket, used by StatutorySchedule.fingerprint
+     * 
+     * @return Fingerprint of the table
+     */
+    public long fingerprint() {
+        return 31L * Arrays.hashCode(lowerBounds) + Arrays.hashCode(contributions);
+    }
+    
+    // Bracket width when brackets 1..n are evenly spaced (bracket 0 is the "below minimum" catch-all)
+    private static double findUniformStep(double[] lowerBounds) {
+        if (lowerBounds.length < 3) {
+            return 0.0;
+        }
+        double step = lowerBounds[2] - lowerBounds[1];
+        for (int i = 2; i < lowerBounds.length; i++) {
+            if (lowerBounds[i] - lowerBounds[i - 1] != step) {
+                return 0.0;
+            }
+        }
+        return step;
+    }
+}
@@ -0,0 +1,345 @@
+// StatutoryRuleEngine.java
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Picks the right version of the statutory deduction rules for a pay date.
+ * 
+ * The versions come from statutory_rules.txt - one section per version with
+ * the date it takes effect:
+ * 
+ *   [2023 TRAIN] effective 01/01/2023
+ *   philhealth.rate = 0.03
+ *   tax.bracket = 20832, 0, 0.20
+ *   ...
+ * 
+ * A section only has to list what changed; everything else carries over from
+ * the section above it (the first one starts from the built-in rules). Each
+ * version is compiled once into a StatutorySchedule, and a pay date is matched
+ * to the last version effective on or before it, so a run that spans a rate
+ * change uses the old rates before the change and the new ones after.
+ * Without the file everything works as before on the built-in rules. A file
+ * that is there but broken stops payroll instead - paying everyone on the
+ * wrong rates is worse than not running. The same goes for a broken
+ * sss_contribution_table.txt (see SssContributionTable.loadDefault).
+ */
+public class StatutoryRuleEngine {
+    // Data file with the rule versions - same folder as the other data files
+    public static final String RULES_FILE = "statutory_rules.txt";
+    
+    private static final Pattern SECTION = Pattern.compile("\\[(.+)\\]\\s+effective\\s+(\\S+)");
+    
+    // Effective date -> compiled version and a calculator that uses it
+    private final TreeMap<LocalDate, StatutorySchedule> schedules = new TreeMap<>();
+    private final Map<LocalDate, PayrollCalculator> calculators = new ConcurrentHashMap<>();
+    // Week start text -> calculator for that week, so batch runs don't parse the date per employee
+    private final Map<String, PayrollCalculator> weekCalculators = new ConcurrentHashMap<>();
+    
+    // Shared engine, loaded on first use (not a holder class, so a broken file can be reported every time)
+    private static volatile StatutoryRuleEngine defaultEngine;
+    
+    /**
+     * Create an engine from compiled versions
+     * 
+     * @param versions Versions with distinct effective dates (at least one)
+     */
+    public StatutoryRuleEngine(List<StatutorySchedule> versions) {
+        if (versions.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one rule version");
+        }
+        for (StatutorySchedule schedule : versions) {
+            if (schedules.put(schedule.getEffectiveDate(), schedule) != null) {
+                throw new IllegalArgumentException("Two rule versions take effect on " + schedule.getEffectiveDate());
+            }
+        }
+    }
+    
+    /**
+     * The engine the payroll screens and batch runs use, loaded on first use
+     * 
+     * @return Shared engine
+     * @throws IllegalStateException If RULES_FILE is there but can't be loaded
+     */
+    public static StatutoryRuleEngine getDefault() {
+        StatutoryRuleEngine engine = defaultEngine;
+        if (engine == null) {
+            synchronized (StatutoryRuleEngine.class) {
+                if (defaultEngine == null) {
+                    defaultEngine = loadDefault();
+                }
+                engine = defaultEngine;
+            }
+        }
+        return engine;
+    }
+    
+    /**
+     * One version with the rules that used to be hardcoded in PayrollCalculator
+     * 
+     * @return Built-in engine
+     */
+    public static StatutoryRuleEngine builtIn() {
+        return new StatutoryRuleEngine(Collections.singletonList(StatutorySchedule.builtIn(SssContributionTable.loadDefault())));
+    }
+    
+    /**
+     * Load RULES_FILE if it exists, otherwise use the built-in rules.
+     * 
+     * @return Engine to use
+     * @throws IllegalStateException If the file is there but can't be read or has a mistake in it
+     */
+    public static StatutoryRuleEngine loadDefault() {
+        if (!new File(RULES_FILE).exists()) {
+            return builtIn();
+        }
+        try {
+            return load(RULES_FILE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not load statutory rules from " + RULES_FILE + ": " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Load and compile every version in a rules file. Sections must be in date order.
+     * Lines are "key = value"; blank lines and lines starting with # are ignored.
+     * 
+     * @param filePath Path to the rules file
+     * @return Loaded engine
+     * @throws IOException If the file can't be read (a broken SSS table it names is an IllegalArgumentException)
+     */
+    public static StatutoryRuleEngine load(String filePath) throws IOException {
+        File parent = new File(filePath).getAbsoluteFile().getParentFile();
+        List<StatutorySchedule> versions = new ArrayList<>();
+        StatutorySchedule.Builder previous = null;
+        Section section = null;
+        
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                
+                Matcher header = SECTION.matcher(line);
+                if (header.matches()) {
+                    if (section != null) {
+                        previous = section.finish();
+                        versions.add(previous.build());
+                    }
+                    LocalDate effectiveDate = parseDate(header.group(2), lineNumber);
+                    if (previous != null && !effectiveDate.isAfter(previous.effectiveDate())) {
+                        throw new IllegalArgumentException("Line " + lineNumber + ": versions must be in date order");
+                    }
+                    StatutorySchedule.Builder start = (previous != null) ? previous
+                        : StatutorySchedule.builtInBuilder(SssContributionTable.loadDefault());
+                    section = new Section(start.copyAs(header.group(1).trim(), effectiveDate));
+                    continue;
+                }
+                
+                int equals = line.indexOf('=');
+                if (equals < 0) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " is not \"key = value\": " + line);
+                }
+                if (section == null) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " comes before the first [version] line");
+                }
+                section.set(line.substring(0, equals).trim(), line.substring(equals + 1).trim(), lineNumber, parent);
+            }
+        }
+        
+        if (section == null) {
+            throw new IllegalArgumentException("No [version] sections in " + filePath);
+        }
+        versions.add(section.finish().build());
+        return new StatutoryRuleEngine(versions);
+    }
+    
+    /**
+     * The rules in effect on a pay date
+     * 
+     * @param payDate Pay date
+     * @return Last version effective on or before the date (the oldest one for dates before all of them)
+     */
+    public StatutorySchedule getSchedule(LocalDate payDate) {
+        Map.Entry<LocalDate, StatutorySchedule> entry = schedules.floorEntry(payDate);
+        return (entry != null) ? entry.getValue() : schedules.firstEntry().getValue();
+    }
+    
+    /**
+     * Calculator using the rules in effect on a pay date (shared - calculators have no state)
+     * 
+     * @param payDate Pay date
+     * @return Calculator for that date
+     */
+    public PayrollCalculator calculatorFor(LocalDate payDate) {
+        StatutorySchedule schedule = getSchedule(payDate);
+        return calculators.computeIfAbsent(schedule.getEffectiveDate(), date -> new PayrollCalculator(schedule));
+    }
+    
+    /**
+     * Calculator for a pay week - the week is paid on its Friday
+     * 
+     * @param weekStartDate Week start (MM/dd/yyyy)
+     * @return Calculator for that week (the latest rules if the date can't be read)
+     */
+    public PayrollCalculator calculatorForWeek(String weekStartDate) {
+        return weekCalculators.computeIfAbsent(weekStartDate, week -> {
+            try {
+                return calculatorFor(LocalDate.parse(week, PayCalendar.DATE_FORMAT).plusDays(4));
+            } catch (DateTimeParseException e) {
+                return calculatorFor(LocalDate.MAX);
+            }
+        });
+    }
+    
+    /**
+     * Every version, oldest first
+     * 
+     * @return Compiled versions
+     */
+    public List<StatutorySchedule> getSchedules() {
+        return new ArrayList<>(schedules.values());
+    }
+    
+    /**
+     * Hash of all versions and their dates (PayrollResultCache drops saved results when it changes)
+     * 
+     * @return Fingerprint of the rules
+     */
+    public long fingerprint() {
+        long hash = 17;
+        for (StatutorySchedule schedule : schedules.values()) {
+            hash = 31 * hash + schedule.getEffectiveDate().toEpochDay();
+            hash = 31 * hash + schedule.fingerprint();
+        }
+        return hash;
+    }
+    
+    private static LocalDate parseDate(String text, int lineNumber) {
+        try {
+            return LocalDate.parse(text, PayCalendar.DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": date must be MM/dd/yyyy: " + text);
+        }
+    }
+    
+    private static double parseNumber(String text, int lineNumber) {
+        try {
+            return Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not a number: " + text);
+        }
+    }
+    
+    /**
+     * One [version] section while it is being read. Repeated bracket lines
+     * are collected and replace the inherited table as a whole.
+     */
+    private static final class Section {
+        private final StatutorySchedule.Builder builder;
+        private final List<double[]> sssBrackets = new ArrayList<>();
+        private final List<double[]> taxBrackets = new ArrayList<>();
+        
+        private Section(StatutorySchedule.Builder builder) {
+            this.builder = builder;
+        }
+        
+        private void set(String key, String value, int lineNumber, File parent) {
+            switch (key) {
+                case "sss.table":
+                    File table = new File(value);
+                    String tablePath = table.isAbsolute() ? value : new File(parent, value).getPath();
+                    try {
+                        builder.sssTable = SssContributionTable.load(tablePath);
+                    } catch (IOException | IllegalArgumentException e) {
+                        // Name the table file - its line numbers aren't this file's
+                        throw new IllegalArgumentException("Line " + lineNumber + ": could not load SSS table "
+                                                           + value + ": " + e.getMessage(), e);
+                    }
+                    break;
+                case "sss.bracket":
+                    sssBrackets.add(parseRow(value, 2, lineNumber));
+                    break;
+                case "philhealth.rate":
+                    builder.philHealthRate = parseNumber(value, lineNumber);
+                    break;
+                case "philhealth.employee_share":
+                    builder.philHealthEmployeeShare = parseNumber(value, lineNumber);
+                    break;
+                case "philhealth.floor":
+                    builder.philHealthFloor = parseNumber(value, lineNumber);
+                    break;
+                case "philhealth.ceiling":
+                    builder.philHealthCeiling = parseNumber(value, lineNumber);
+                    break;
+                case "philhealth.min":
+                    builder.philHealthMinContribution = parseNumber(value, lineNumber);
+                    break;
+                case "philhealth.max":
+                    builder.philHealthMaxContribution = parseNumber(value, lineNumber);
+                    break;
+                case "pagibig.threshold":
+                    builder.pagIbigThreshold = parseNumber(value, lineNumber);
+                    break;
+                case "pagibig.rate_lower":
+                    builder.pagIbigRateLower = parseNumber(value, lineNumber);
+                    break;
+                case "pagibig.rate_upper":
+                    builder.pagIbigRateUpper = parseNumber(value, lineNumber);
+                    break;
+                case "pagibig.max":
+                    builder.pagIbigMax = parseNumber(value, lineNumber);
+                    break;
+                case "tax.bracket":
+                    taxBrackets.add(parseRow(value, 3, lineNumber));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Line " + lineNumber + ": unknown key " + key);
+            }
+        }
+        
+        // Apply the collected bracket lines and hand back the finished builder
+        private StatutorySchedule.Builder finish() {
+            if (!sssBrackets.isEmpty()) {
+                double[] lowerBounds = new double[sssBrackets.size()];
+                double[] contributions = new double[sssBrackets.size()];
+                for (int i = 0; i < sssBrackets.size(); i++) {
+                    lowerBounds[i] = sssBrackets.get(i)[0];
+                    contributions[i] = sssBrackets.get(i)[1];
+                }
+                builder.sssTable = new SssContributionTable(lowerBounds, contributions);
+            }
+            if (!taxBrackets.isEmpty()) {
+                builder.taxBrackets = taxBrackets.toArray(new double[0][]);
+            }
+            return builder;
+        }
+        
+        private static double[] parseRow(String value, int columns, int lineNumber) {
+            String[] parts = value.split(",");
+            if (parts.length != columns) {
+                throw new IllegalArgumentException("Line " + lineNumber + " needs " + columns + " comma-separated numbers: " + value);
+            }
+            double[] row = new double[columns];
+            for (int i = 0; i < columns; i++) {
+                row[i] = parseNumber(parts[i], lineNumber);
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+// StatutorySchedule.java
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One version of the statutory deduction rules (SSS, PhilHealth, Pag-IBIG and
+ * BIR withholding tax), compiled for fast evaluation.
+ * 
+ * StatutoryRuleEngine reads the versions from statutory_rules.txt and builds one
+ * of these per version. Everything that can be worked out ahead of time is:
+ * the PhilHealth employee share is folded into the rate and the fixed amounts,
+ * and the tax table is compiled into an unrolled ladder of up to eight
+ * brackets whose bounds, fixed amounts and rates are plain final fields
+ * (TaxLadder). That keeps tax as cheap as the old hardcoded if/else chain -
+ * see the statutory.* benchmarks - while the numbers come from the data file.
+ * Longer tables still work, they just walk a flat {base, fixed, rate} array.
+ * All amounts are monthly, same as the old methods.
+ */
+public final class StatutorySchedule {
+    private final String version;
+    private final LocalDate effectiveDate;
+    
+    private final SssContributionTable sssTable;
+    
+    // PhilHealth - employee share already applied
+    private final double philHealthFloor;       // Salary at or below this pays philHealthMinShare
+    private final double philHealthCeiling;     // Salary at or above this pays philHealthMaxShare
+    private final double philHealthRateShare;   // Rate x employee share for the middle
+    private final double philHealthMinShare;
+    private final double philHealthMaxShare;
+    
+    // Pag-IBIG
+    private final double pagIbigThreshold;
+    private final double pagIbigRateLower;
+    private final double pagIbigRateUpper;
+    private final double pagIbigMax;
+    
+    // Tax bracket i covers income above its base up to the next bracket's base:
+    // tax = fixed + (income - base) * rate, stored as {base, fixed, rate} per bracket
+    private final double[] taxBrackets;
+    private final TaxLadder taxLadder; // null if there are too many brackets to unroll
+    
+    private StatutorySchedule(Builder builder) {
+        if (builder.sssTable == null) {
+            throw new IllegalArgumentException("Version " + builder.version + " has no SSS table");
+        }
+        if (builder.taxBrackets.length == 0) {
+            throw new IllegalArgumentException("Version " + builder.version + " has no tax brackets");
+        }
+        if (!(builder.philHealthFloor <= builder.philHealthCeiling)) {
+            throw new IllegalArgumentException("Version " + builder.version + ": PhilHealth floor is above the ceiling");
+        }
+        this.version = builder.version;
+        this.effectiveDate = builder.effectiveDate;
+        this.sssTable = builder.sssTable;
+        
+        this.philHealthFloor = builder.philHealthFloor;
+        this.philHealthCeiling = builder.philHealthCeiling;
+        this.philHealthRateShare = builder.philHealthRate * builder.philHealthEmployeeShare;
+        this.philHealthMinShare = builder.philHealthMinContribution * builder.philHealthEmployeeShare;
+        this.philHealthMaxShare = builder.philHealthMaxContribution * builder.philHealthEmployeeShare;
+        
+        this.pagIbigThreshold = builder.pagIbigThreshold;
+        this.pagIbigRateLower = builder.pagIbigRateLower;
+        this.pagIbigRateUpper = builder.pagIbigRateUpper;
+        this.pagIbigMax = builder.pagIbigMax;
+        
+        // Flatten "over, fixed, rate" rows - each bracket ends where the next one starts
+        double[][] brackets = builder.taxBrackets;
+        int count = brackets.length;
+        this.taxBrackets = new double[count * 3];
+        // Income below the first base would get a negative tax, so it has to start at 0
+        if (count > 0 && !(brackets[0][0] <= 0)) {
+            throw new IllegalArgumentException("Version " + version + ": the first tax bracket must start at 0 (not " + brackets[0][0] + ")");
+        }
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && !(brackets[i][0] > brackets[i - 1][0])) {
+                throw new IllegalArgumentException("Version " + version + ": tax brackets must be sorted (row " + (i + 1) + ")");
+            }
+            taxBrackets[i * 3] = brackets[i][0];
+            taxBrackets[i * 3 + 1] = brackets[i][1];
+            taxBrackets[i * 3 + 2] = brackets[i][2];
+        }
+        this.taxLadder = (count <= TaxLadder.SIZE) ? new TaxLadder(taxBrackets, count) : null;
+    }
+    
+    /**
+     * The rules that used to be hardcoded in PayrollCalculator
+     * 
+     * @param sssTable SSS table to use (usually SssContributionTable.loadDefault())
+     * @return Built-in schedule, effective from the beginning of time
+     */
+    public static StatutorySchedule builtIn(SssContributionTable sssTable) {
+        return builtInBuilder(sssTable).build();
+    }
+    
+    // Starting point for the built-in schedule and for the first version in the rules file
+    static Builder builtInBuilder(SssContributionTable sssTable) {
+        Builder builder = new Builder("built-in", LocalDate.MIN);
+        builder.sssTable = sssTable;
+        builder.philHealthRate = 0.03;
+        builder.philHealthEmployeeShare = 0.5;
+        builder.philHealthFloor = 10000.0;
+        builder.philHealthCeiling = 60000.0;
+        builder.philHealthMinContribution = 300.0;
+        builder.philHealthMaxContribution = 1800.0;
+        builder.pagIbigThreshold = 1500.0;
+        builder.pagIbigRateLower = 0.01;
+        builder.pagIbigRateUpper = 0.02;
+        builder.pagIbigMax = 100.0;
+        builder.taxBrackets = new double[][] {
+            {0.0, 0.0, 0.0},               // No tax up to 20,832
+            {20832.0, 0.0, 0.20},          // 20% over 20,832
+            {33333.0, 2500.0, 0.25},       // 2,500 + 25% over 33,333
+            {66667.0, 10833.0, 0.30},      // 10,833 + 30% over 66,667
+            {166667.0, 40833.33, 0.32},    // 40,833.33 + 32% over 166,667
+            {666667.0, 200833.33, 0.35}    // 200,833.33 + 35% over 666,667
+        };
+        return builder;
+    }
+    
+    public String getVersion() {
+        return version;
+    }
+    
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+    
+    /**
+     * SSS employee contribution
+     * 
+     * @param monthlySalary Gross salary for the month
+     * @return Monthly SSS contribution
+     */
+    public double calculateSss(double monthlySalary) {
+        return sssTable.lookup(monthlySalary);
+    }
+    
+    /**
+     * PhilHealth employee share
+     * 
+     * @param monthlySalary Gross salary for the month
+     * @return Employee's monthly PhilHealth contribution
+     */
+    public double calculatePhilHealth(double monthlySalary) {
+        if (monthlySalary <= philHealthFloor) {
+            return philHealthMinShare;
+        }
+        if (monthlySalary >= philHealthCeiling) {
+            return philHealthMaxShare;
+        }
+        return monthlySalary * philHealthRateShare;
+    }
+    
+    /**
+     * Pag-IBIG employee contribution
+     * 
+     * @param monthlySalary Gross salary for the month
+     * @return Monthly Pag-IBIG contribution
+     */
+    public double calculatePagIbig(double monthlySalary) {
+        double rate = (monthlySalary <= pagIbigThreshold) ? pagIbigRateLower : pagIbigRateUpper;
+        return Math.min(monthlySalary * rate, pagIbigMax);
+    }
+    
+    /**
+     * Withholding tax
+     * 
+     * @param monthlyTaxableIncome Monthly income after contributions
+     * @return Monthly tax amount
+     */
+    public double calculateTax(double monthlyTaxableIncome) {
+        if (taxLadder != null) {
+            return taxLadder.evaluate(monthlyTaxableIncome);
+        }
+        // Step up while the income is over the next bracket's base (NaN gives NaN whatever the bracket)
+        int row = 0;
+        int lastRow = taxBrackets.length - 3;
+        while (row < lastRow && monthlyTaxableIncome > taxBrackets[row + 3]) {
+            row += 3;
+        }
+        return taxBrackets[row + 1] + (monthlyTaxableIncome - taxBrackets[row]) * taxBrackets[row + 2];
+    }
+    
+    /**
+     * Hash of every number in the schedule, so saved results can tell when the rules changed
+     * 
+     * @return Fingerprint of the rules (the version name and date aren't included)
+     */
+    public long fingerprint() {
+        long hash = 17;
+        hash = 31 * hash + sssTable.fingerprint();
+        double[] values = {
+            philHealthFloor, philHealthCeiling, philHealthRateShare, philHealthMinShare, philHealthMaxShare,
+            pagIbigThreshold, pagIbigRateLower, pagIbigRateUpper, pagIbigMax
+        };
+        for (double value : values) {
+            hash = 31 * hash + Double.doubleToLongBits(value);
+        }
+        hash = 31 * hash + Arrays.hashCode(taxBrackets);
+        return hash;
+    }
+    
+    @Override
+    public String toString() {
+        return version + " (effective " + (effectiveDate.equals(LocalDate.MIN) ? "always" : effectiveDate.format(PayCalendar.DATE_FORMAT)) + ")";
+    }
+    
+    /**
+     * The tax table as a fixed if/else chain over final fields - the same shape
+     * as the old hardcoded method, so the JIT gives it the same code. Unused
+     * slots get an upper bound of +infinity and are never reached.
+     */
+    private static final class TaxLadder {
+        private static final int SIZE = 8;
+        
+        // Bracket starts (base0 is where bracket 0's rate is measured from)
+        private final double base0, base1, base2, base3, base4, base5, base6, base7;
+        private final double fixed0, fixed1, fixed2, fixed3, fixed4, fixed5, fixed6, fixed7;
+        private final double rate0, rate1, rate2, rate3, rate4, rate5, rate6, rate7;
+        
+        private TaxLadder(double[] brackets, int count) {
+            double[] base = new double[SIZE];
+            double[] fixed = new double[SIZE];
+            double[] rate = new double[SIZE];
+            Arrays.fill(base, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < count; i++) {
+                base[i] = brackets[i * 3];
+                fixed[i] = brackets[i * 3 + 1];
+                rate[i] = brackets[i * 3 + 2];
+            }
+            base0 = base[0]; base1 = base[1]; base2 = base[2]; base3 = base[3];
+            base4 = base[4]; base5 = base[5]; base6 = base[6]; base7 = base[7];
+            fixed0 = fixed[0]; fixed1 = fixed[1]; fixed2 = fixed[2]; fixed3 = fixed[3];
+            fixed4 = fixed[4]; fixed5 = fixed[5]; fixed6 = fixed[6]; fixed7 = fixed[7];
+            rate0 = rate[0]; rate1 = rate[1]; rate2 = rate[2]; rate3 = rate[3];
+            rate4 = rate[4]; rate5 = rate[5]; rate6 = rate[6]; rate7 = rate[7];
+        }
+        
+        // Each bracket includes its upper bound, like the old <= checks; NaN falls through to the last slot
+        private double evaluate(double income) {
+            if (income <= base1) return fixed0 + (income - base0) * rate0;
+            if (income <= base2) return fixed1 + (income - base1) * rate1;
+            if (income <= base3) return fixed2 + (income - base2) * rate2;
+            if (income <= base4) return fixed3 + (income - base3) * rate3;
+            if (income <= base5) return fixed4 + (income - base4) * rate4;
+            if (income <= base6) return fixed5 + (income - base5) * rate5;
+            if (income <= base7) return fixed6 + (income - base6) * rate6;
+            return fixed7 + (income - base7) * rate7;
+        }
+    }
+    
+    /**
+     * Settings for one version before compiling. StatutoryRuleEngine starts each
+     * version from a copy of the one before, so a file section only lists what changed.
+     */
+    static final class Builder {
+        private final String version;
+        private final LocalDate effectiveDate;
+        SssContributionTable sssTable;
+        double philHealthRate;
+        double philHealthEmployeeShare;
+        double philHealthFloor;
+        double philHealthCeiling;
+        double philHealthMinContribution;
+        double philHealthMaxContribution;
+        double pagIbigThreshold;
+        double pagIbigRateLower;
+        double pagIbigRateUpper;
+        double pagIbigMax;
+        double[][] taxBrackets = new double[0][];
+        
+        Builder(String version, LocalDate effectiveDate) {
+            this.version = version;
+            this.effectiveDate = effectiveDate;
+        }
+        
+        LocalDate effectiveDate() {
+            return effectiveDate;
+        }
+        
+        /**
+         * Start a new version with this one's settings
+         * 
+         * @param nextVersion Name of the new version
+         * @param nextEffectiveDate First pay date the new version applies to
+         * @return Builder for the new version
+         */
+        Builder copyAs(String nextVersion, LocalDate nextEffectiveDate) {
+            Builder next = new Builder(nextVersion, nextEffectiveDate);
+            next.sssTable = sssTable;
+            next.philHealthRate = philHealthRate;
+            next.philHealthEmployeeShare = philHealthEmployeeShare;
+            next.philHealthFloor = philHealthFloor;
+            next.philHealthCeiling = philHealthCeiling;
+            next.philHealthMinContribution = philHealthMinContribution;
+            next.philHealthMaxContribution = philHealthMaxContribution;
+            next.pagIbigThreshold = pagIbigThreshold;
+            next.pagIbigRateLower = pagIbigRateLower;
+            next.pagIbigRateUpper = pagIbigRateUpper;
+            next.pagIbigMax = pagIbigMax;
+            next.taxBrackets = taxBrackets; // Never changed in place, only replaced
+            return next;
+        }
+        
+        StatutorySchedule build() {
+            return new StatutorySchedule(this);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// TextPayrollStore.java
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * PayrollStore on the original flat files in one directory:
+ *   employee_data.txt            one employee per line
+ *   attendance_MM_DD_YYYY.txt    one file per week
+ *   payroll_results.csv          last saved pay (same columns as the CSV export)
+ * 
+ * Reads go through an AttendanceIndex so a week is only parsed again when its
+ * file changes. Range queries still have to open every weekly file in the
+ * range - that's what JdbcPayrollStore is for.
+ */
+public class TextPayrollStore implements PayrollStore {
+    private static final String EMPLOYEE_FILE = "employee_data.txt";
+    private static final String RESULTS_FILE = "payroll_results.csv";
+    
+    private final String directory;
+    private final AttendanceIndex attendanceIndex;
+    
+    /**
+     * Create a store on a data directory
+     * 
+     * @param directory Directory holding the data files
+     * @param attendanceIndex Index used to read the weekly files
+     */
+    public TextPayrollStore(String directory, AttendanceIndex attendanceIndex) {
+        this.directory = directory;
+        this.attendanceIndex = attendanceIndex;
+    }
+    
+    @Override
+    public List<Employee> loadEmployees() throws IOException {
+        File employeeFile = resolve(EMPLOYEE_FILE);
+        if (!employeeFile.exists()) {
+            return Collections.emptyList();
+        }
+        return EmployeeRegistry.load(employeeFile.getPath()).getEmployees();
+    }
+    
+    @Override
+    public void saveEmployees(List<Employee> employees) throws IOException {
+        AtomicFileWriter.write(resolve(EMPLOYEE_FILE).getPath(), writer -> {
+            for (Employee employee : employees) {
+                writer.write(employee.getEmployeeNumber() + "," + employee.getLastName() + ","
+                             + employee.getFirstName() + "," + employee.getBirthday() + "," + employee.getHourlyRate());
+                writer.write(System.lineSeparator());
+            }
+        });
+    }
+    
+    @Override
+    public List<TimeKeeping> getAttendance(String employeeId, String weekStartDate) throws IOException {
+        return attendanceIndex.getRecords(getWeekFilePath(weekStartDate), employeeId);
+    }
+    
+    @Override
+    public Map<String, List<TimeKeeping>> getWeek(String weekStartDate) throws IOException {
+        return attendanceIndex.getWeek(getWeekFilePath(weekStartDate));
+    }
+    
+    @Override
+    public void saveWeek(String weekStartDate, Map<String, List<TimeKeeping>> recordsByEmployee) throws IOException {
+        String filePath = getWeekFilePath(weekStartDate);
+        AtomicFileWriter.write(filePath, writer -> {
+            for (List<TimeKeeping> records : recordsByEmployee.values()) {
+                for (TimeKeeping record : records) {
+                    writer.write(record.getEmployeeId() + "," + record.getDate() + ","
+                                 + record.getTimeIn() + "," + record.getTimeOut());
+                    writer.write(System.lineSeparator());
+                }
+            }
+        });
+        attendanceIndex.invalidate(filePath);
+    }
+    
+    @Override
+    public void savePayrollResults(PayrollResultBatch results) throws IOException {
+        // A flat file can't update rows in place, so this rewrites the whole file
+        try (PayrollExporter exporter = PayrollExporter.toFile(resolve(RESULTS_FILE).getPath(),
+                                                               PayrollExporter.Format.CSV)) {
+            exporter.writeAll(results);
+        }
+    }
+    
+    @Override
+    public Map<String, Integer> countLateDays(LocalDate from, LocalDate to) throws IOException {
+        Map<String, Integer> lateDays = new TreeMap<>();
+        PayCalendar calendar = new PayCalendar(from, to);
+        for (String weekStartDate : calendar.getWeekStartDates()) {
+            // One file per week - this is the full scan the SQL store avoids
+            for (Map.Entry<String, List<TimeKeeping>> employee : getWeek(weekStartDate).entrySet()) {
+                int late = 0;
+                for (TimeKeeping record : employee.getValue()) {
+                    if (record.isLateForDeduction()) {
+                        late++;
+                    }
+                }
+                if (late > 0) {
+                    lateDays.merge(employee.getKey(), late, Integer::sum);
+                }
+            }
+        }
+        return lateDays;
+    }
+    
+    @Override
+    public void close() {
+        // Nothing held open between calls
+    }
+    
+    /**
+     * Weeks that have an attendance file in this directory, for importing into another store
+     * 
+     * @param calendar Weeks to look for
+     * @return Week start dates with a file, in calendar order
+     */
+    public List<String> getStoredWeeks(PayCalendar calendar) {
+        List<String> weeks = new ArrayList<>();
+        for (String weekStartDate : calendar.getWeekStartDates()) {
+            if (new File(getWeekFilePath(weekStartDate)).exists()) {
+                weeks.add(weekStartDate);
+            }
+        }
+        return weeks;
+    }
+    
+    private String getWeekFilePath(String weekStartDate) {
+        return resolve(FileHandler.getAttendanceFilePath(weekStartDate)).getPath();
+    }
+    
+    // Plain file name for the working directory, so the index keys match the ones Main uses
+    private File resolve(String fileName) {
+        return directory.equals(".") ? new File(fileName) : new File(directory, fileName);
+    }
+}
@@ -1,13 +1,12 @@
 // TimeKeeping.java
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.Duration;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 
 /* TimeKeeping class to handle all the employee time tracking functionality
  * This was challenging but I think I figured out the most efficient way
  * References: Java Duration API documentation and Week 6 lectures
+ * 
+ * Times are parsed once in the constructor into minutes since midnight
+ * (e.g. 8:30 -> 510), so every calculation below is plain int arithmetic
+ * instead of re-parsing the strings with a DateTimeFormatter each call.
  */
 public class TimeKeeping {
     // Needed properties based on requirements doc
@@ -15,22 +14,142 @@ public class TimeKeeping {
     private String date;        // the work date (format varies)
     private String timeIn;      // when they clocked in
     private String timeOut;     // when they clocked out
+    private final int inMinutes;   // timeIn as minute-of-day, -1 if it couldn't be parsed
+    private final int outMinutes;  // timeOut as minute-of-day, -1 if it couldn't be parsed
     
     // Constants for work schedule - based on company policy from project specs
-    // Using static final for efficiency as discussed in lecture
-    private static final LocalTime REGULAR_START_TIME = LocalTime.of(8, 0); // 8am start time
-    private static final LocalTime REGULAR_END_TIME = LocalTime.of(17, 0);  // 5pm end time
-    private static final LocalTime GRACE_PERIOD_END = LocalTime.of(8, 10);  // 10min grace period
-    private static final LocalTime DEDUCTION_START_TIME = LocalTime.of(8, 11); // when penalties start
+    // Stored as minute-of-day so comparisons are simple int checks
+    static final int INVALID_TIME = -1;
+    static final int REGULAR_START_TIME = 8 * 60;       // 8am start time
+    static final int REGULAR_END_TIME = 17 * 60;        // 5pm end time
+    static final int GRACE_PERIOD_END = 8 * 60 + 10;    // 10min grace period
+    static final int DEDUCTION_START_TIME = 8 * 60 + 11; // when penalties start
+    static final int LUNCH_START_TIME = 12 * 60;        // lunch is 12-1pm
+    static final int LUNCH_END_TIME = 13 * 60;
     private static final double REGULAR_HOURS_PER_DAY = 8.0; // standard work day hours
     
-    // Constructor - pretty straightforward
+    // Every "H:mm" string from 0:00 to 23:59, indexed by minute of day
+    private static final String[] TIME_STRINGS = new String[24 * 60];
+    static {
+        for (int minute = 0; minute < TIME_STRINGS.length; minute++) {
+            int minutes = minute % 60;
+            TIME_STRINGS[minute] = (minute / 60) + (minutes < 10 ? ":0" : ":") + minutes;
+        }
+    }
+    
+    // Constructor - parses the times once so the calculations don't have to
     public TimeKeeping(String employeeId, String date, String timeIn, String timeOut) {
         this.employeeId = employeeId;
         this.date = date;
         this.timeIn = timeIn;
         this.timeOut = timeOut;
-        // I considered validating the time formats here but decided to handle in methods
+        this.inMinutes = parseTimeOrReport(timeIn);
+        this.outMinutes = parseTimeOrReport(timeOut);
+    }
+    
+    /**
+     * Constructor for times that are already minute-of-day values
+     * (used by the binary attendance store - nothing to parse)
+     * 
+     * @param employeeId Employee ID
+     * @param date Work date / day name
+     * @param inMinutes Time in as minutes since midnight (0-1439)
+     * @param outMinutes Time out as minutes since midnight (0-1439)
+     */
+    public TimeKeeping(String employeeId, String date, int inMinutes, int outMinutes) {
+        this.employeeId = employeeId;
+        this.date = date;
+        this.timeIn = formatMinuteOfDay(inMinutes);
+        this.timeOut = formatMinuteOfDay(outMinutes);
+        this.inMinutes = inMinutes;
+        this.outMinutes = outMinutes;
+    }
+    
+    /**
+     * Constructor for a row that was already parsed once, keeping its original text
+     * (used by WeeklyAttendance when it hands its packed rows back out)
+     * 
+     * @param employeeId Employee ID
+     * @param date Work date / day name
+     * @param timeIn Time in as it appeared in the file
+     * @param timeOut Time out as it appeared in the file
+     * @param inMinutes timeIn already parsed (INVALID_TIME if it couldn't be)
+     * @param outMinutes timeOut already parsed (INVALID_TIME if it couldn't be)
+     */
+    TimeKeeping(String employeeId, String date, String timeIn, String timeOut, int inMinutes, int outMinutes) {
+        this.employeeId = employeeId;
+        this.date = date;
+        this.timeIn = timeIn;
+        this.timeOut = timeOut;
+        this.inMinutes = inMinutes;
+        this.outMinutes = outMinutes;
+    }
+    
+    /**
+     * Formats minutes since midnight as "H:mm" (e.g. 485 -> "8:05").
+     * The 1440 possible strings are built once and shared.
+     * 
+     * @param minuteOfDay Minutes since midnight (0-1439)
+     * @return Time in H:mm format
+     */
+    static String formatMinuteOfDay(int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= TIME_STRINGS.length) {
+            throw new IllegalArgumentException("Not a minute of day: " + minuteOfDay);
+        }
+        return TIME_STRINGS[minuteOfDay];
+    }
+    
+    /**
+     * Parses an "H:mm" time (e.g. "8:05" or "17:30") into minutes since midnight.
+     * Hand-written instead of DateTimeFormatter because this runs for every
+     * attendance row we load. Accepts the same inputs as the old "H:mm" pattern:
+     * one or two hour digits (0-23), a colon, then exactly two minute digits.
+     * 
+     * @param time Time string to parse
+     * @return Minute of day, or INVALID_TIME if the text isn't a valid time
+     */
+    static int parseMinuteOfDay(String time) {
+        if (time == null) {
+            return INVALID_TIME;
+        }
+        int length = time.length();
+        int colon = length - 3; // minutes are always the last two characters
+        if ((colon != 1 && colon != 2) || time.charAt(colon) != ':') {
+            return INVALID_TIME;
+        }
+        
+        int hours = 0;
+        for (int i = 0; i < colon; i++) {
+            int digit = time.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_TIME;
+            }
+            hours = hours * 10 + digit;
+        }
+        
+        int tens = time.charAt(colon + 1) - '0';
+        int ones = time.charAt(colon + 2) - '0';
+        if (tens < 0 || tens > 5 || ones < 0 || ones > 9) {
+            return INVALID_TIME;
+        }
+        int minutes = tens * 10 + ones;
+        if (hours == 24 && minutes == 0) {
+            return 0; // LocalTime reads "24:00" as midnight, so we do the same
+        }
+        if (hours > 23) {
+            return INVALID_TIME;
+        }
+        return hours * 60 + minutes;
+    }
+    
+    // Same error message the methods used to print, but only once per bad value
+    private static int parseTimeOrReport(String time) {
+        int minutes = parseMinuteOfDay(time);
+        if (minutes == INVALID_TIME) {
+            PayrollLog.count(PayrollLog.Counter.INVALID_TIMES, 1);
+            PayrollLog.warn("Error parsing time: Text '" + time + "' could not be parsed");
+        }
+        return minutes;
     }
     
     // Basic getters - these were easy to implement
@@ -50,37 +169,28 @@ public class TimeKeeping {
         return timeOut;
     }
     
+    /**
+     * Get time in as minutes since midnight
+     * @return Minute of day, or -1 if the time in couldn't be parsed
+     */
+    public int getTimeInMinutes() {
+        return inMinutes;
+    }
+    
+    /**
+     * Get time out as minutes since midnight
+     * @return Minute of day, or -1 if the time out couldn't be parsed
+     */
+    public int getTimeOutMinutes() {
+        return outMinutes;
+    }
+    
     /* This was the trickiest method to write
      * Had to rewrite it three times to get it right :(
      * The challenge was handling the lunch break deduction
      */
     public double calculateDailyHours() {
-        try {
-            // Convert string times to LocalTime objects using DateTimeFormatter
-            // The "H:mm" pattern means hour (1-24) and minutes - from Week 6 examples
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-            
-            // Get the time difference - Duration class is perfect for this
-            Duration duration = Duration.between(inTime, outTime);
-            
-            // Convert to decimal hours - divide minutes by 60.0 to get fractional hours
-            double hours = duration.toMinutes() / 60.0;
-            
-            // Apply lunch break rule - subtract 1 hour if worked more than 5 hours
-            // Got this rule from the project requirements doc
-            if (hours > 5.0) {
-                hours -= 1.0;  // subtract lunch hour
-            }
-            
-            // Round to 2 decimal places - this formula is more efficient than using DecimalFormat
-            return Math.round(hours * 100.0) / 100.0;
-        } catch (DateTimeParseException e) {
-            // There might be a better error handling approach but this works for now
-            System.out.println("Error parsing time: " + e.getMessage());
-            return 0.0;  // Default to zero hours on error
-        }
+        return calculateDailyHours(inMinutes, outMinutes);
     }
 
     /**
@@ -90,77 +200,7 @@ public class TimeKeeping {
      * @return Regular hours (maximum 8 hours, reduced if late arrival)
      */
     public double calculateRegularHours() {
-        try {
-            // Parse time strings to LocalTime objects
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-
-            // Define workday boundaries for determining regular hours
-            LocalTime workdayStart = REGULAR_START_TIME; // 8:00 AM
-            LocalTime workdayEnd = REGULAR_END_TIME;     // 5:00 PM
-
-            // If employee came in late, their regular hours should be less than 8
-            // Adjust the effective start time - can't be earlier than when they arrived
-            LocalTime effectiveStartTime = inTime.isAfter(workdayStart) ? inTime : workdayStart;
-
-            // Adjust the effective end time - can't be later than when they left or 5pm
-            LocalTime effectiveEndTime = outTime.isBefore(workdayEnd) ? outTime : workdayEnd;
-
-            // Calculate effective regular hours within 8am-5pm window
-            // This finally fixes the bug in the original implementation
-            double effectiveRegularMinutes = 0;
-
-            // Only calculate if there's a valid time period
-            if (effectiveEndTime.isAfter(effectiveStartTime)) {
-                Duration regularDuration = Duration.between(effectiveStartTime, effectiveEndTime);
-                effectiveRegularMinutes = regularDuration.toMinutes();
-
-                // Subtract lunch hour (60 minutes) if regular period includes lunch
-                // Assuming lunch is from 12-1pm
-                LocalTime lunchStart = LocalTime.of(12, 0);
-                LocalTime lunchEnd = LocalTime.of(13, 0);
-
-                // Check if work period covers any part of lunch
-                boolean workIncludesLunchStart = !effectiveStartTime.isAfter(lunchStart) && 
-                                                 effectiveEndTime.isAfter(lunchStart);
-                boolean workIncludesLunchEnd = effectiveStartTime.isBefore(lunchEnd) && 
-                                               !effectiveEndTime.isBefore(lunchEnd);
-                boolean workEncompassesLunch = workIncludesLunchStart && workIncludesLunchEnd;
-                boolean workWithinLunch = !workIncludesLunchStart && !workIncludesLunchEnd && 
-                                          !effectiveStartTime.isBefore(lunchStart) && 
-                                          !effectiveEndTime.isAfter(lunchEnd);
-
-                // Calculate lunch deduction based on overlap
-                int lunchDeduction = 0;
-                if (workEncompassesLunch) {
-                    // Entire lunch period is within work hours
-                    lunchDeduction = 60;
-                } else if (workIncludesLunchStart) {
-                    // Work includes start of lunch until end of work
-                    lunchDeduction = (int) Duration.between(lunchStart, effectiveEndTime).toMinutes();
-                    lunchDeduction = Math.min(lunchDeduction, 60); // Cap at 60 minutes
-                } else if (workIncludesLunchEnd) {
-                    // Work includes from start of work until end of lunch
-                    lunchDeduction = (int) Duration.between(effectiveStartTime, lunchEnd).toMinutes();
-                    lunchDeduction = Math.min(lunchDeduction, 60); // Cap at 60 minutes
-                } else if (workWithinLunch) {
-                    // Entire work period is within lunch
-                    lunchDeduction = (int) effectiveRegularMinutes;
-                }
-
-                // Subtract lunch deduction
-                effectiveRegularMinutes -= lunchDeduction;
-            }
-
-            // Convert minutes to hours and round to 2 decimal places
-            double regularHours = effectiveRegularMinutes / 60.0;
-            return Math.round(regularHours * 100.0) / 100.0;
-
-        } catch (DateTimeParseException e) {
-            System.out.println("Error calculating regular hours: " + e.getMessage());
-            return 0.0;
-        }
+        return calculateRegularHours(inMinutes, outMinutes);
     }
 
     /**
@@ -170,92 +210,128 @@ public class TimeKeeping {
      * @return Overtime hours worked beyond 5pm
      */
     public double calculateOvertimeHours() {
-        // No overtime for late employees per company policy
-        if (isLateForDeduction()) {
-            return 0.0;
-        }
-
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-
-            // Only calculate overtime if they stayed past 5pm
-            if (outTime.isAfter(REGULAR_END_TIME)) {
-                // Calculate minutes worked after 5pm
-                Duration overtimeDuration = Duration.between(REGULAR_END_TIME, outTime);
-                double overtimeMinutes = overtimeDuration.toMinutes();
-
-                // Convert to hours and round
-                double overtimeHours = overtimeMinutes / 60.0;
-                return Math.round(overtimeHours * 100.0) / 100.0;
-            }
-
-            return 0.0;
-        } catch (DateTimeParseException e) {
-            System.out.println("Error calculating overtime: " + e.getMessage());
-            return 0.0;
-        }
+        return calculateOvertimeHours(inMinutes, outMinutes);
     }
+    
     /* Checks if employee is late beyond grace period
      * This is used for salary deductions according to company policy
      * Initially had a bug where I was checking against GRACE_PERIOD_END instead of DEDUCTION_START_TIME
      */
     public boolean isLateForDeduction() {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-        
-            // If login time is after 8:11am, they're late enough for deduction
-            return inTime.isAfter(DEDUCTION_START_TIME);
-        } catch (DateTimeParseException e) {
-            // This shouldn't happen if data is valid, but just in case
-            System.out.println("Error parsing time: " + e.getMessage());
-            return false;  // Give employee benefit of the doubt on errors
-        }
+        return isLateForDeduction(inMinutes);
     }
 
     // Calculate late minutes (after 8:00 AM)
-    // I optimized this by checking if they're late first before calculating
     public int calculateLateMinutes() {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-            
-            // Quick return if not late at all - no need to calculate
-            if (!inTime.isAfter(REGULAR_START_TIME)) {
-                return 0;  // On time or early
-            }
-            
-            // Calculate minutes late - Duration.between is perfect for this
-            Duration lateDuration = Duration.between(REGULAR_START_TIME, inTime);
-            return (int) lateDuration.toMinutes();  // Convert to minutes and cast to int
-        } catch (DateTimeParseException e) {
-            // Using println for debugging - maybe switch to logger in future version
-            System.out.println("Error parsing time: " + e.getMessage());
-            return 0;  // Default to on-time if there's an error
-        }
+        return calculateLateMinutes(inMinutes);
     }
     
     /* Calculates how many minutes employee left before end of day
      * Was tempted to call these "early minutes" but "undertime" is the correct term
      */
     public int calculateUndertimeMinutes() {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
+        return calculateUndertimeMinutes(outMinutes);
+    }
+    
+    // The static versions below work straight from minute-of-day values.
+    // Kept package-private so WeeklyAttendance can reuse them without TimeKeeping objects.
+    
+    static double calculateDailyHours(int inMinutes, int outMinutes) {
+        if (inMinutes == INVALID_TIME || outMinutes == INVALID_TIME) {
+            return 0.0;  // Default to zero hours on error
+        }
+        
+        // Convert to decimal hours - divide minutes by 60.0 to get fractional hours
+        double hours = (outMinutes - inMinutes) / 60.0;
+        
+        // Apply lunch break rule - subtract 1 hour if worked more than 5 hours
+        // Got this rule from the project requirements doc
+        if (hours > 5.0) {
+            hours -= 1.0;  // subtract lunch hour
+        }
+        
+        // Round to 2 decimal places - this formula is more efficient than using DecimalFormat
+        return Math.round(hours * 100.0) / 100.0;
+    }
+    
+    static double calculateRegularHours(int inMinutes, int outMinutes) {
+        if (inMinutes == INVALID_TIME || outMinutes == INVALID_TIME) {
+            return 0.0;
+        }
+        
+        // If employee came in late, their regular hours should be less than 8
+        // Effective window is clipped to 8am-5pm
+        int effectiveStartTime = Math.max(inMinutes, REGULAR_START_TIME);
+        int effectiveEndTime = Math.min(outMinutes, REGULAR_END_TIME);
+        
+        int effectiveRegularMinutes = 0;
+        
+        // Only calculate if there's a valid time period
+        if (effectiveEndTime > effectiveStartTime) {
+            effectiveRegularMinutes = effectiveEndTime - effectiveStartTime;
             
-            // If they left after or at end time, no undertime
-            if (!outTime.isBefore(REGULAR_END_TIME)) {
-                return 0;  // Worked full day or overtime
+            // Check if work period covers any part of lunch (12-1pm)
+            boolean workIncludesLunchStart = effectiveStartTime <= LUNCH_START_TIME && effectiveEndTime > LUNCH_START_TIME;
+            boolean workIncludesLunchEnd = effectiveStartTime < LUNCH_END_TIME && effectiveEndTime >= LUNCH_END_TIME;
+            boolean workEncompassesLunch = workIncludesLunchStart && workIncludesLunchEnd;
+            boolean workWithinLunch = !workIncludesLunchStart && !workIncludesLunchEnd
+                                      && effectiveStartTime >= LUNCH_START_TIME
+                                      && effectiveEndTime <= LUNCH_END_TIME;
+            
+            // Calculate lunch deduction based on overlap
+            int lunchDeduction = 0;
+            if (workEncompassesLunch) {
+                lunchDeduction = 60; // Entire lunch period is within work hours
+            } else if (workIncludesLunchStart) {
+                lunchDeduction = Math.min(effectiveEndTime - LUNCH_START_TIME, 60);
+            } else if (workIncludesLunchEnd) {
+                lunchDeduction = Math.min(LUNCH_END_TIME - effectiveStartTime, 60);
+            } else if (workWithinLunch) {
+                lunchDeduction = effectiveRegularMinutes; // Entire work period is within lunch
             }
             
-            // Calculate undertime minutes - time between when they left and when day ends
-            Duration undertimeDuration = Duration.between(outTime, REGULAR_END_TIME);
-            return (int) undertimeDuration.toMinutes();  // Cast to int since we want whole minutes
-        } catch (DateTimeParseException e) {
-            // Might improve error handling in v2.0 but this works for now
-            System.out.println("Error parsing time: " + e.getMessage());
-            return 0;  // Default to no undertime if there's an error
+            effectiveRegularMinutes -= lunchDeduction;
+        }
+        
+        // Convert minutes to hours and round to 2 decimal places
+        double regularHours = effectiveRegularMinutes / 60.0;
+        return Math.round(regularHours * 100.0) / 100.0;
+    }
+    
+    static double calculateOvertimeHours(int inMinutes, int outMinutes) {
+        // No overtime for late employees per company policy
+        if (isLateForDeduction(inMinutes) || outMinutes == INVALID_TIME) {
+            return 0.0;
+        }
+        
+        // Only calculate overtime if they stayed past 5pm
+        if (outMinutes > REGULAR_END_TIME) {
+            double overtimeHours = (outMinutes - REGULAR_END_TIME) / 60.0;
+            return Math.round(overtimeHours * 100.0) / 100.0;
+        }
+        
+        return 0.0;
+    }
+    
+    static boolean isLateForDeduction(int inMinutes) {
+        // If login time is after 8:11am, they're late enough for deduction
+        // An unparseable time gives the employee the benefit of the doubt
+        return inMinutes != INVALID_TIME && inMinutes > DEDUCTION_START_TIME;
+    }
+    
+    static int calculateLateMinutes(int inMinutes) {
+        // Quick return if not late at all (or the time was invalid)
+        if (inMinutes == INVALID_TIME || inMinutes <= REGULAR_START_TIME) {
+            return 0;
+        }
+        return inMinutes - REGULAR_START_TIME;
+    }
+    
+    static int calculateUndertimeMinutes(int outMinutes) {
+        // If they left after or at end time, no undertime
+        if (outMinutes == INVALID_TIME || outMinutes >= REGULAR_END_TIME) {
+            return 0;
         }
+        return REGULAR_END_TIME - outMinutes;
     }
 }
@@ -1,5 +1,7 @@
 // WeeklyAttendance.java
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -7,11 +9,36 @@ import java.util.List;
  * 
  * This class aggregates daily TimeKeeping records to provide weekly summaries.
  * I improved on the original design by adding methods for lateness tracking
+ * 
+ * Rows are stored packed instead of as a list of TimeKeeping objects:
+ * one short[] slot per day for time in and time out (minutes since midnight)
+ * plus the day label, sized for a 7-day week and grown only if needed.
+ * All the weekly totals are worked out together in one pass the first time
+ * one is asked for, and kept until another day is added.
  */
 public class WeeklyAttendance {
     private String employeeId;        // Employee identifier
     private String weekStartDate;     // Date the week starts (e.g., "06/03/2024")
-    private List<TimeKeeping> dailyAttendance;  // List of daily attendance records
+    
+    // Packed daily rows - slot i is one attendance record
+    private String[] dates;           // Day label from the file (shared strings, e.g. "Mon")
+    private short[] timesIn;          // Time in as minutes since midnight (-1 = invalid)
+    private short[] timesOut;         // Time out as minutes since midnight (-1 = invalid)
+    private String[] timeTexts;       // Original text [2i] in / [2i+1] out, only when it isn't the
+                                      // standard H:mm form (e.g. "08:05" or bad data); null until needed
+    private int dayCount;
+    
+    // Weekly totals from one pass over the rows - recomputed after a change
+    private boolean totalsValid;
+    private double totalHours;
+    private double totalRegularHours;
+    private double totalOvertimeHours;
+    private int totalLateMinutes;
+    private int deductibleLateMinutes;
+    private int totalUndertimeMinutes;
+    private boolean deductibleLateness;
+    
+    private static final int DAYS_PER_WEEK = 7;
     
     // Standard weekly hours constant - 40 hours (8 hours × 5 days)
     // Used static final for optimization as mentioned in lecture/resources
@@ -24,8 +51,10 @@ public class WeeklyAttendance {
     public WeeklyAttendance(String employeeId, String weekStartDate) {
         this.employeeId = employeeId;
         this.weekStartDate = weekStartDate;
-        // Used ArrayList implementation for its dynamic sizing capability
-        this.dailyAttendance = new ArrayList<>();  // Initially empty
+        // One slot per day of the week to start with - grows if a week has extra rows
+        this.dates = new String[DAYS_PER_WEEK];
+        this.timesIn = new short[DAYS_PER_WEEK];
+        this.timesOut = new short[DAYS_PER_WEEK];
     }
     
     /**
@@ -37,13 +66,101 @@ public class WeeklyAttendance {
     public void addDailyAttendance(TimeKeeping attendance) {
         // Verify the record belongs to the correct employee
         if (attendance.getEmployeeId().equals(employeeId)) {
-            dailyAttendance.add(attendance);
+            addDay(attendance.getDate(), attendance.getTimeIn(), attendance.getTimeInMinutes(),
+                   attendance.getTimeOut(), attendance.getTimeOutMinutes());
         } else {
             // This error message was helpful during my testing phase
             System.out.println("Error: Employee ID mismatch.");
         }
     }
     
+    // Store one row in the packed arrays, keeping the original text only if it is unusual
+    private void addDay(String date, String timeIn, int inMinutes, String timeOut, int outMinutes) {
+        if (dayCount == dates.length) {
+            int capacity = dates.length * 2;
+            dates = Arrays.copyOf(dates, capacity);
+            timesIn = Arrays.copyOf(timesIn, capacity);
+            timesOut = Arrays.copyOf(timesOut, capacity);
+            if (timeTexts != null) {
+                timeTexts = Arrays.copyOf(timeTexts, capacity * 2);
+            }
+        }
+        
+        dates[dayCount] = date;
+        timesIn[dayCount] = (short) inMinutes;
+        timesOut[dayCount] = (short) outMinutes;
+        if (!isStandardText(timeIn, inMinutes) || !isStandardText(timeOut, outMinutes)) {
+            if (timeTexts == null) {
+                timeTexts = new String[dates.length * 2];
+            }
+            timeTexts[dayCount * 2] = timeIn;
+            timeTexts[dayCount * 2 + 1] = timeOut;
+        }
+        dayCount++;
+        totalsValid = false;
+    }
+    
+    private static boolean isStandardText(String text, int minutes) {
+        return minutes != TimeKeeping.INVALID_TIME && TimeKeeping.formatMinuteOfDay(minutes).equals(text);
+    }
+    
+    private String getTimeInText(int day) {
+        String text = timeTexts == null ? null : timeTexts[day * 2];
+        return text != null ? text : TimeKeeping.formatMinuteOfDay(timesIn[day]);
+    }
+    
+    private String getTimeOutText(int day) {
+        String text = timeTexts == null ? null : timeTexts[day * 2 + 1];
+        return text != null ? text : TimeKeeping.formatMinuteOfDay(timesOut[day]);
+    }
+    
+    /**
+     * Work out every weekly total in a single pass over the days.
+     * Same per-day rules and the same adding order as the old one-loop-per-total
+     * version, so the results are identical.
+     */
+    private void computeTotals() {
+        if (totalsValid) {
+            return;
+        }
+        long start = PhaseMetrics.start();
+        
+        double hours = 0.0;
+        double regularHours = 0.0;
+        double overtimeHours = 0.0;
+        int lateMinutes = 0;
+        int deductibleMinutes = 0;
+        int undertimeMinutes = 0;
+        boolean anyDeductibleLateness = false;
+        
+        for (int day = 0; day < dayCount; day++) {
+            int in = timesIn[day];
+            int out = timesOut[day];
+            hours += TimeKeeping.calculateDailyHours(in, out);
+            regularHours += TimeKeeping.calculateRegularHours(in, out);
+            overtimeHours += TimeKeeping.calculateOvertimeHours(in, out);
+            int late = TimeKeeping.calculateLateMinutes(in);
+            lateMinutes += late;
+            if (TimeKeeping.isLateForDeduction(in)) {
+                anyDeductibleLateness = true;
+                deductibleMinutes += late;
+            }
+            undertimeMinutes += TimeKeeping.calculateUndertimeMinutes(out);
+        }
+        
+        // Round to 2 decimal places using the efficient math formula
+        totalHours = Math.round(hours * 100.0) / 100.0;
+        totalRegularHours = Math.round(regularHours * 100.0) / 100.0;
+        // No overtime for employees with lateness
+        totalOvertimeHours = anyDeductibleLateness ? 0.0 : Math.round(overtimeHours * 100.0) / 100.0;
+        totalLateMinutes = lateMinutes;
+        deductibleLateMinutes = deductibleMinutes;
+        totalUndertimeMinutes = undertimeMinutes;
+        deductibleLateness = anyDeductibleLateness;
+        totalsValid = true;
+        PhaseMetrics.stop(PhaseMetrics.Phase.AGGREGATE_WEEK, start);
+    }
+    
     /**
      * Get count of daily attendance records
      * Added this method to help with validation and testing
@@ -51,7 +168,7 @@ public class WeeklyAttendance {
      * @return Number of daily records in the collection
      */
     public int getDailyAttendanceCount() {
-        return dailyAttendance.size();
+        return dayCount;
     }
     
     /**
@@ -61,18 +178,8 @@ public class WeeklyAttendance {
      * @return Total hours worked in the week (rounded to 2 decimal places)
      */
     public double calculateWeeklyHours() {
-        // Accumulator pattern for summing values
-        double totalHours = 0.0;
-        
-        // Loop through each day and add up the hours
-        // I chose the enhanced for loop for cleaner code compared to traditional for loop
-        for (TimeKeeping day : dailyAttendance) {
-            totalHours += day.calculateDailyHours();
-        }
-        
-        // Round to 2 decimal places using the efficient math formula
-        // I learned this trick is faster than using DecimalFormat
-        return Math.round(totalHours * 100.0) / 100.0;
+        computeTotals();
+        return totalHours;
     }
     
     /**
@@ -82,16 +189,10 @@ public class WeeklyAttendance {
      * @return Regular hours (max 40 per week)
      */
     public double calculateRegularHours() {
-        double totalRegularHours = 0.0;
-
-        // Sum the properly calculated daily regular hours
-        for (TimeKeeping day : dailyAttendance) {
-            totalRegularHours += day.calculateRegularHours();
-        }
-
-        // Round to 2 decimal places
-        return Math.round(totalRegularHours * 100.0) / 100.0;
+        computeTotals();
+        return totalRegularHours;
     }
+    
    /**
     * Calculate overtime hours considering company policies
     * Fixed to properly handle the 8am-5pm principle
@@ -99,22 +200,11 @@ public class WeeklyAttendance {
     * @return Total overtime hours for the week
     */
    public double calculateOvertimeHours() {
-       // No overtime for employees with lateness
-       if (hasDeductibleLateness()) {
-           return 0.0;
-       }
-
-       double totalOvertimeHours = 0.0;
-
-       // Sum up overtime from each individual day
-       // This ensures overtime is only counted for days they stayed past 5pm
-       for (TimeKeeping day : dailyAttendance) {
-           totalOvertimeHours += day.calculateOvertimeHours();
-       }
-
-       // Round to 2 decimal places
-       return Math.round(totalOvertimeHours * 100.0) / 100.0;
+       // Zero when any day has deductible lateness (see computeTotals)
+       computeTotals();
+       return totalOvertimeHours;
    }
+   
     /**
      * Get total late minutes for the week
      * I wrote this after struggling with the salary calculation logic
@@ -122,13 +212,7 @@ public class WeeklyAttendance {
      * @return Total minutes late across all days
      */
     public int getTotalLateMinutes() {
-        int totalLateMinutes = 0;
-    
-        // Sum up late minutes from each day
-        for (TimeKeeping day : dailyAttendance) {
-            totalLateMinutes += day.calculateLateMinutes();
-        }
-    
+        computeTotals();
         return totalLateMinutes;
         // Note: Considered adding rounding but minutes should be whole numbers
     }
@@ -140,13 +224,8 @@ public class WeeklyAttendance {
      * @return true if any day has lateness beyond the grace period
      */
     public boolean hasDeductibleLateness() {
-        // Used efficient short-circuit return instead of accumulator pattern
-        for (TimeKeeping day : dailyAttendance) {
-            if (day.isLateForDeduction()) {
-                return true;  // Return early once we find any late day
-            }
-        }
-        return false;  // No lateness found
+        computeTotals();
+        return deductibleLateness;
     }
 
     /**
@@ -156,15 +235,7 @@ public class WeeklyAttendance {
      * @return Total deductible late minutes
      */
     public int getDeductibleLateMinutes() {
-        int deductibleLateMinutes = 0;
-    
-        // Only count late minutes for days that exceed the grace period
-        for (TimeKeeping day : dailyAttendance) {
-            if (day.isLateForDeduction()) {
-               deductibleLateMinutes += day.calculateLateMinutes();
-            }
-        }
-    
+        computeTotals();
         return deductibleLateMinutes;
     }
 
@@ -175,13 +246,7 @@ public class WeeklyAttendance {
      * @return Total minutes of undertime across all days
      */
     public int getTotalUndertimeMinutes() {
-        int totalUndertimeMinutes = 0;
-    
-        // Sum up undertime from each day - similar pattern to late minutes
-        for (TimeKeeping day : dailyAttendance) {
-            totalUndertimeMinutes += day.calculateUndertimeMinutes();
-        }
-    
+        computeTotals();
         return totalUndertimeMinutes;
     }
     
@@ -206,14 +271,14 @@ public class WeeklyAttendance {
 
         // Data rows with all values left-aligned
         // Looping through each day to display details
-        for (TimeKeeping day : dailyAttendance) {
+        for (int day = 0; day < dayCount; day++) {
             System.out.printf("%-8s  %-10s  %-10s  %-8.2f  %-8.2f  %-8.2f\n", 
-                day.getDate(), 
-                day.getTimeIn(), 
-                day.getTimeOut(), 
-                day.calculateDailyHours(),
-                day.calculateRegularHours(),
-                day.calculateOvertimeHours());
+                dates[day], 
+                getTimeInText(day), 
+                getTimeOutText(day), 
+                TimeKeeping.calculateDailyHours(timesIn[day], timesOut[day]),
+                TimeKeeping.calculateRegularHours(timesIn[day], timesOut[day]),
+                TimeKeeping.calculateOvertimeHours(timesIn[day], timesOut[day]));
         }
         
         // Summary information
@@ -264,10 +329,16 @@ public class WeeklyAttendance {
     
     /**
      * Get the daily attendance records
+     * Rows are stored packed now, so this builds a read-only list of
+     * TimeKeeping objects (nothing is parsed again)
      * @return List of daily TimeKeeping records
      */
     public List<TimeKeeping> getDailyAttendance() {
-        // Returns the internal list - could return defensive copy if needed
-        return dailyAttendance;
+        List<TimeKeeping> days = new ArrayList<>(dayCount);
+        for (int day = 0; day < dayCount; day++) {
+            days.add(new TimeKeeping(employeeId, dates[day], getTimeInText(day), getTimeOutText(day),
+                                     timesIn[day], timesOut[day]));
+        }
+        return Collections.unmodifiableList(days);
     }
 }
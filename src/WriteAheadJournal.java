@@ -0,0 +1,510 @@
+// WriteAheadJournal.java
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal for attendance and employee changes.
+ * 
+ * Every change is appended here and fsynced before it counts as saved.
+ * The snapshot files (employee_data.txt, attendance_*.txt) are only
+ * rewritten at a checkpoint, through AtomicFileWriter, after which the
+ * journal is emptied. If the program dies in between, the next
+ * checkpoint replays the journal - applying a change twice gives the
+ * same result, so a crash at any point is safe.
+ * 
+ * Group commit: appends go on a queue and one writer thread takes
+ * everything that's waiting, writes it in one go and does a single
+ * fsync for the whole group. With many threads appending (or one thread
+ * using appendAsync) thousands of events share a handful of fsyncs.
+ * 
+ * Record format, one line each:
+ *   A|MM/dd/yyyy week|employee ID|day|time in|time out|crc32
+ *   E|employee ID|last name|first name|birthday|hourly rate|crc32
+ *   I|employee ID|MM/dd/yyyy|time in|crc32
+ * An I record is a clock-in from ClockEventIngestor; the A record for that
+ * employee and day closes it. Clock-ins still open are handed back when the
+ * journal is reopened and survive a checkpoint, so a restart in the middle
+ * of the day doesn't forget who is clocked in.
+ * The CRC covers everything before the last '|'. A torn or damaged line
+ * at the end (crash mid-write) is dropped on replay along with anything after it.
+ * 
+ * Only one process can have a journal open: the writer holds a file lock
+ * until it is closed, and checkpoint needs the same lock before it empties
+ * the file, so running --apply-journal during --ingest fails instead of
+ * throwing away records that are still being written.
+ */
+public class WriteAheadJournal implements Closeable {
+    public static final String JOURNAL_FILE = "payroll.journal";
+    
+    private static final int MAX_GROUP = 4096;   // records per write + fsync at most
+    private static final Pending SHUTDOWN = new Pending(null);
+    
+    private final FileChannel channel;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private final Object closeLock = new Object(); // So nothing is queued behind SHUTDOWN
+    private boolean closed;                        // Guarded by closeLock
+    private long committedLength;                  // End of the last fsynced group (writer thread only)
+    private volatile IOException broken;           // Set if a failed write couldn't be undone
+    private volatile long syncCount;    // Only written by the writer thread
+    private volatile long recordCount;
+    private final List<ClockEvent> openClockIns; // As found when the journal was opened
+    
+    /**
+     * Open (or create) a journal and start its writer thread
+     * 
+     * @param filePath Journal file
+     * @throws IOException If the file can't be opened or another process has it open
+     */
+    public WriteAheadJournal(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        boolean created = !Files.exists(path);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock(channel, path); // Held until close() closes the channel
+            // Cut off a torn record from an earlier crash so new records start on a clean line
+            List<String[]> records = new ArrayList<>();
+            committedLength = scan(channel, records);
+            openClockIns = new ArrayList<>(findOpenClockIns(records).values());
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (created) {
+            AtomicFileWriter.syncDirectory(path.toAbsolutePath().getParent());
+        }
+        
+        writerThread = new Thread(this::writeLoop, "journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    /**
+     * Append one attendance row and wait until it is on disk
+     * 
+     * @param weekStartDate Week the row belongs to (MM/dd/yyyy)
+     * @param record Attendance row
+     * @throws IOException If the journal can't be written
+     */
+    public void appendAttendance(String weekStartDate, TimeKeeping record) throws IOException {
+        await(appendAttendanceAsync(weekStartDate, record));
+    }
+    
+    /**
+     * Queue one attendance row without waiting for the fsync.
+     * Wait on the last future of a burst to know all of them are durable.
+     * 
+     * @param weekStartDate Week the row belongs to (MM/dd/yyyy)
+     * @param record Attendance row
+     * @return Completes when the row has been fsynced
+     */
+    public CompletableFuture<Void> appendAttendanceAsync(String weekStartDate, TimeKeeping record) {
+        return enqueue(encode('A', weekStartDate, record.getEmployeeId(), record.getDate(),
+                              record.getTimeIn(), record.getTimeOut()));
+    }
+    
+    /**
+     * Queue a clock-in that has no clock-out yet (closed later by its attendance row)
+     * 
+     * @param clockIn IN event
+     * @return Completes when the record has been fsynced
+     */
+    public CompletableFuture<Void> appendClockInAsync(ClockEvent clockIn) {
+        return enqueue(encodeClockIn(clockIn));
+    }
+    
+    /**
+     * Clock-ins that were still open in the journal when it was opened
+     * @return Open IN events, at most one per employee
+     */
+    public List<ClockEvent> getOpenClockIns() {
+        return Collections.unmodifiableList(openClockIns);
+    }
+    
+    /**
+     * Append an added or changed employee and wait until it is on disk
+     * 
+     * @param employee Employee with the new details
+     * @throws IOException If the journal can't be written
+     */
+    public void appendEmployee(Employee employee) throws IOException {
+        await(enqueue(encode('E', employee.getEmployeeNumber(), employee.getLastName(), employee.getFirstName(),
+                             employee.getBirthday(), String.valueOf(employee.getHourlyRate()))));
+    }
+    
+    /**
+     * Wait for a future from appendAttendanceAsync
+     * 
+     * @param pending Future to wait for
+     * @throws IOException If the write or fsync failed
+     */
+    public static void await(CompletableFuture<Void> pending) throws IOException {
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        }
+    }
+    
+    public long getSyncCount() {
+        return syncCount;
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * Apply everything in a journal file to the snapshot files, then empty the journal.
+     * Attendance rows replace the employee's row for the same day (or are added),
+     * employees replace the one with the same ID (or are added).
+     * Clock-ins that are still open stay in the journal.
+     * 
+     * @param filePath Journal file
+     * @param store Store holding the snapshot files
+     * @return Number of attendance and employee records applied
+     * @throws IOException If the journal or a snapshot can't be read or written,
+     *                     or another process (e.g. --ingest) has the journal open
+     */
+    public static int checkpoint(String filePath, PayrollStore store) throws IOException {
+        Path journalPath = Paths.get(filePath);
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+        // Keep the lock from before the read until after the truncate
+        try (FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            lock(journal, journalPath);
+            List<String[]> records = new ArrayList<>();
+            scan(journal, records);
+            int applied = apply(records, store);
+            if (applied == 0) {
+                return 0; // Nothing but open clock-ins
+            }
+            
+            // Everything is in the snapshots now - start the journal over
+            Map<String, ClockEvent> stillOpen = findOpenClockIns(records);
+            if (stillOpen.isEmpty()) {
+                journal.truncate(0);
+                journal.force(true);
+            } else {
+                // Swapped in whole, so a crash leaves either the old journal (safe to replay) or the new one
+                AtomicFileWriter.write(filePath, writer -> {
+                    for (ClockEvent clockIn : stillOpen.values()) {
+                        writer.write(new String(encodeClockIn(clockIn), StandardCharsets.UTF_8));
+                    }
+                });
+            }
+            return applied;
+        }
+    }
+    
+    // Write the records into the snapshot files - grouped by week so each attendance file is rewritten once.
+    // Returns how many records that was (clock-ins aren't written anywhere)
+    private static int apply(List<String[]> records, PayrollStore store) throws IOException {
+        Map<String, Map<String, List<TimeKeeping>>> weeks = new LinkedHashMap<>();
+        Map<String, Employee> employees = null;
+        int applied = 0;
+        for (String[] fields : records) {
+            if (fields[0].equals("A")) {
+                applied++;
+                String weekStartDate = fields[1];
+                Map<String, List<TimeKeeping>> week = weeks.get(weekStartDate);
+                if (week == null) {
+                    week = copyWeek(store.getWeek(weekStartDate));
+                    weeks.put(weekStartDate, week);
+                }
+                putDay(week.computeIfAbsent(fields[2], id -> new ArrayList<>()),
+                       new TimeKeeping(fields[2], fields[3], fields[4], fields[5]));
+            } else if (fields[0].equals("E")) {
+                applied++;
+                if (employees == null) {
+                    employees = new LinkedHashMap<>();
+                    for (Employee employee : store.loadEmployees()) {
+                        employees.put(employee.getEmployeeNumber(), employee);
+                    }
+                }
+                Employee employee = new Employee(fields[1], fields[2], fields[3], fields[4]);
+                employee.setHourlyRate(Double.parseDouble(fields[5]));
+                employees.put(employee.getEmployeeNumber(), employee);
+            }
+        }
+        
+        for (Map.Entry<String, Map<String, List<TimeKeeping>>> week : weeks.entrySet()) {
+            store.saveWeek(week.getKey(), week.getValue());
+        }
+        if (employees != null) {
+            store.saveEmployees(new ArrayList<>(employees.values()));
+        }
+        return applied;
+    }
+    
+    // Employee ID -> latest clock-in that no later attendance row for the same day closed
+    private static Map<String, ClockEvent> findOpenClockIns(List<String[]> records) {
+        Map<String, ClockEvent> open = new LinkedHashMap<>();
+        for (String[] fields : records) {
+            if (fields[0].equals("I")) {
+                ClockEvent clockIn = ClockEvent.parse(fields[1] + ",IN," + fields[2] + "," + fields[3]);
+                if (clockIn != null) {
+                    open.put(clockIn.getEmployeeId(), clockIn);
+                }
+            } else if (fields[0].equals("A")) {
+                ClockEvent clockIn = open.get(fields[2]);
+                if (clockIn != null && clockIn.getWeekStartDate().equals(fields[1]) && clockIn.getDayName().equals(fields[3])) {
+                    open.remove(fields[2]);
+                }
+            }
+        }
+        return open;
+    }
+    
+    /**
+     * Stop the writer thread after it has written everything already queued
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (closeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(SHUTDOWN);
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+    
+    private CompletableFuture<Void> enqueue(byte[] line) {
+        Pending pending = new Pending(line);
+        IOException failure = broken;
+        if (failure != null) {
+            pending.done.completeExceptionally(new IOException("Journal stopped after a failed write", failure));
+            return pending.done;
+        }
+        // Checking closed and adding in one step, otherwise a record could land after
+        // SHUTDOWN and its caller would wait forever
+        synchronized (closeLock) {
+            if (closed) {
+                pending.done.completeExceptionally(new IOException("Journal is closed"));
+                return pending.done;
+            }
+            queue.add(pending);
+        }
+        return pending.done;
+    }
+    
+    // One journal per process - tryLock gives null if another process has it, and
+    // throws if this one already does
+    private static void lock(FileChannel channel, Path path) throws IOException {
+        boolean locked;
+        try {
+            locked = channel.tryLock() != null;
+        } catch (OverlappingFileLockException e) {
+            locked = false;
+        }
+        if (!locked) {
+            throw new IOException("Journal " + path + " is in use (is --ingest running?)");
+        }
+    }
+    
+    // Writer thread: take whatever is waiting, one write and one fsync per group
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>(MAX_GROUP);
+        boolean running = true;
+        while (running) {
+            group.clear();
+            try {
+                group.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group, MAX_GROUP - 1);
+            if (group.remove(SHUTDOWN)) {
+                running = false; // Still write the rest of this group first
+            }
+            if (group.isEmpty()) {
+                continue;
+            }
+            if (broken != null) {
+                failAll(group, new IOException("Journal stopped after a failed write", broken));
+                continue;
+            }
+            
+            int size = 0;
+            for (Pending pending : group) {
+                size += pending.line.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (Pending pending : group) {
+                buffer.put(pending.line);
+            }
+            buffer.flip();
+            
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                committedLength = channel.position();
+                syncCount++;
+                recordCount += group.size();
+                for (Pending pending : group) {
+                    pending.done.complete(null);
+                }
+            } catch (IOException e) {
+                failAll(group, e);
+                rollBack(e);
+            }
+        }
+        
+        // Safety net - close() doesn't let anything in behind SHUTDOWN
+        List<Pending> late = new ArrayList<>();
+        queue.drainTo(late);
+        failAll(late, new IOException("Journal is closed"));
+    }
+    
+    // Cut off whatever part of a failed group made it into the file, so the next
+    // group doesn't end up behind a torn line (replay stops at the first one).
+    // If even that fails, stop taking records rather than write after the damage
+    private void rollBack(IOException writeError) {
+        try {
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+            channel.force(false);
+        } catch (IOException e) {
+            writeError.addSuppressed(e);
+            broken = writeError;
+        }
+    }
+    
+    private static void failAll(List<Pending> group, IOException e) {
+        for (Pending pending : group) {
+            pending.done.completeExceptionally(e);
+        }
+    }
+    
+    private static byte[] encodeClockIn(ClockEvent clockIn) {
+        return encode('I', clockIn.getEmployeeId(), clockIn.getDate().format(PayCalendar.DATE_FORMAT),
+                      TimeKeeping.formatMinuteOfDay(clockIn.getMinuteOfDay()));
+    }
+    
+    private static byte[] encode(char type, String... fields) {
+        StringBuilder line = new StringBuilder(64).append(type);
+        for (String field : fields) {
+            if (field.indexOf('|') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                throw new IllegalArgumentException("Journal fields can't contain '|' or line breaks: " + field);
+            }
+            line.append('|').append(field);
+        }
+        byte[] body = line.toString().getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (line.append('|').append(Long.toHexString(crc.getValue())).append('\n').toString())
+            .getBytes(StandardCharsets.UTF_8);
+    }
+    
+    // Collects the fields of every intact record (if records isn't null), stopping at
+    // the first torn or damaged one, and returns the bytes up to the end of the last intact one.
+    // Reads through the caller's channel - closing a second channel on the file would drop its lock
+    private static long scan(FileChannel channel, List<String[]> records) throws IOException {
+        long validLength = 0;
+        long fileSize = channel.size();
+        channel.position(0);
+        // Not closed here - that would close the channel too
+        BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            long lineLength = line.getBytes(StandardCharsets.UTF_8).length + 1L;
+            if (validLength + lineLength > fileSize) {
+                break; // Last line has no newline - the write was cut off
+            }
+            String[] fields = decode(line);
+            if (fields == null) {
+                break; // Damaged - nothing after it can be trusted either
+            }
+            if (records != null) {
+                records.add(fields);
+            }
+            validLength += lineLength;
+        }
+        return validLength;
+    }
+    
+    private static String[] decode(String line) {
+        int lastBar = line.lastIndexOf('|');
+        if (lastBar <= 0) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(line.substring(0, lastBar).getBytes(StandardCharsets.UTF_8));
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(lastBar + 1))) {
+            return null;
+        }
+        String[] fields = line.substring(0, lastBar).split("\\|", -1);
+        boolean known = ((fields[0].equals("A") || fields[0].equals("E")) && fields.length == 6)
+                        || (fields[0].equals("I") && fields.length == 4);
+        return known ? fields : null;
+    }
+    
+    // Mutable copy of a (possibly read-only) week
+    static Map<String, List<TimeKeeping>> copyWeek(Map<String, List<TimeKeeping>> week) {
+        Map<String, List<TimeKeeping>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, List<TimeKeeping>> employee : week.entrySet()) {
+            copy.put(employee.getKey(), new ArrayList<>(employee.getValue()));
+        }
+        return copy;
+    }
+    
+    // Replace the row for the same day, or add it - so replaying twice changes nothing
+    static void putDay(List<TimeKeeping> records, TimeKeeping record) {
+        for (int i = 0; i < records.size(); i++) {
+            if (records.get(i).getDate().equals(record.getDate())) {
+                records.set(i, record);
+                return;
+            }
+        }
+        records.add(record);
+    }
+    
+    /**
+     * One queued record and the future its writer waits on
+     */
+    private static final class Pending {
+        private final byte[] line;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        
+        private Pending(byte[] line) {
+            this.line = line;
+        }
+    }
+}